@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.dataset;
+
+import org.hiero.sketch.dataset.api.IMonoid;
+import org.hiero.sketch.dataset.api.PartialResult;
+import org.hiero.utils.Converters;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscriber;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An operator which adds up partial results, to send fewer of them downstream.
+ * The partial results received are added into a single pending partial result, which is
+ * emitted when the downstream observer requests it and either
+ * - it is the first partial result reporting progress (deltaDone greater than zero), or
+ * - at least the bundling interval has elapsed since the previous one was emitted, or
+ * - the stream has completed.
+ * So the first result is not delayed, and an observer which is slow to request results
+ * (e.g., because it sends them over a slow connection) receives the sum of all the partial
+ * results produced in the meantime; the operator only holds one partial result.
+ * The upstream partial results are requested without bound and never wait for the observer.
+ * With an interval of zero results are only added while the observer does not request them.
+ * @param <T> Type of data in the partial results.
+ */
+public class BundleOperator<T> implements Observable.Operator<PartialResult<T>, PartialResult<T>> {
+    private final IMonoid<PartialResult<T>> adder;
+    // In milliseconds.
+    private final long interval;
+    private final Scheduler scheduler;
+
+    /**
+     * @param adder     Monoid adding partial results.
+     * @param interval  Minimum interval between two partial results emitted, except the first
+     *                  partial result reporting progress and the last one.
+     * @param unit      Unit of the interval.
+     * @param scheduler Scheduler used to emit pending results once the interval has elapsed.
+     */
+    public BundleOperator(final IMonoid<PartialResult<T>> adder, final long interval,
+                          final TimeUnit unit, final Scheduler scheduler) {
+        if (interval < 0)
+            throw new IllegalArgumentException("Negative time interval: " + interval);
+        this.adder = adder;
+        this.interval = unit.toMillis(interval);
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Subscriber<? super PartialResult<T>> call(
+            final Subscriber<? super PartialResult<T>> child) {
+        final BundleSubscriber parent = new BundleSubscriber(child);
+        child.add(parent);
+        child.add(parent.worker);
+        child.setProducer(parent::requestMore);
+        return parent;
+    }
+
+    private final class BundleSubscriber extends Subscriber<PartialResult<T>> {
+        private final Subscriber<? super PartialResult<T>> child;
+        private final Scheduler.Worker worker;
+        // The following fields are guarded by this.
+        @Nullable
+        private PartialResult<T> pending;
+        private long requested;
+        private long lastEmitted;
+        private boolean progressEmitted;
+        private boolean timerScheduled;
+        private boolean done;
+        @Nullable
+        private Throwable error;
+        // True while a thread emits values to the child; other threads then set missed,
+        // so that the emitting thread looks at the state again before it stops.
+        private boolean emitting;
+        private boolean missed;
+
+        BundleSubscriber(final Subscriber<? super PartialResult<T>> child) {
+            this.child = child;
+            this.worker = BundleOperator.this.scheduler.createWorker();
+            this.lastEmitted = this.worker.now();
+        }
+
+        void requestMore(final long n) {
+            if (n < 0)
+                throw new IllegalArgumentException("Negative request: " + n);
+            synchronized (this) {
+                this.requested = (Long.MAX_VALUE - this.requested < n) ?
+                        Long.MAX_VALUE : this.requested + n;
+            }
+            this.drain();
+        }
+
+        @Override
+        public void onNext(final PartialResult<T> value) {
+            synchronized (this) {
+                this.pending = (this.pending == null) ? value :
+                        BundleOperator.this.adder.add(this.pending, value);
+            }
+            this.drain();
+        }
+
+        @Override
+        public void onCompleted() {
+            synchronized (this) {
+                this.done = true;
+            }
+            this.drain();
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            synchronized (this) {
+                this.error = throwable;
+            }
+            this.drain();
+        }
+
+        /**
+         * @return True if the pending result can be emitted now, if it is requested.
+         */
+        private boolean isReady(final long now) {
+            final PartialResult<T> p = Converters.checkNull(this.pending);
+            return this.done ||
+                    (!this.progressEmitted && (p.deltaDone > 0)) ||
+                    (now - this.lastEmitted >= BundleOperator.this.interval);
+        }
+
+        /**
+         * Emits what can be emitted to the child; only one thread at a time does it.
+         */
+        private void drain() {
+            synchronized (this) {
+                if (this.emitting) {
+                    this.missed = true;
+                    return;
+                }
+                this.emitting = true;
+            }
+            while (true) {
+                @Nullable PartialResult<T> next = null;
+                @Nullable Throwable failure = null;
+                boolean complete = false;
+                synchronized (this) {
+                    final long now = this.worker.now();
+                    if (this.error != null) {
+                        failure = this.error;
+                        this.pending = null;
+                    } else if (this.pending != null) {
+                        if (this.requested > 0 && this.isReady(now)) {
+                            next = this.pending;
+                            this.pending = null;
+                            if (this.requested != Long.MAX_VALUE)
+                                this.requested--;
+                            this.lastEmitted = now;
+                            this.progressEmitted |= next.deltaDone > 0;
+                        } else if (this.requested > 0 && !this.timerScheduled) {
+                            // Emit it when the interval has elapsed.
+                            this.timerScheduled = true;
+                            this.worker.schedule(() -> {
+                                synchronized (this) {
+                                    this.timerScheduled = false;
+                                }
+                                this.drain();
+                            }, this.lastEmitted + BundleOperator.this.interval - now,
+                                    TimeUnit.MILLISECONDS);
+                        }
+                    } else if (this.done) {
+                        complete = true;
+                    }
+                }
+                if (failure != null) {
+                    this.child.onError(failure);
+                    this.unsubscribe();
+                    return;
+                }
+                if (next != null) {
+                    this.child.onNext(next);
+                    continue;
+                }
+                if (complete) {
+                    this.child.onCompleted();
+                    this.unsubscribe();
+                    return;
+                }
+                synchronized (this) {
+                    if (!this.missed) {
+                        this.emitting = false;
+                        return;
+                    }
+                    this.missed = false;
+                }
+            }
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.hiero.sketch.dataset.api.Pair;
 import org.hiero.utils.Converters;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
 
 public class ConcurrentSketch<T, R1, R2> implements ISketch<T, Pair<R1, R2>> {
     final ISketch<T, R1> first;
@@ -49,6 +50,16 @@ public class ConcurrentSketch<T, R1, R2> implements ISketch<T, Pair<R1, R2>> {
         return new Pair<R1, R2>(first, second);
     }
 
+    @Nullable
+    @Override
+    public Object getCacheKey() {
+        final Object firstKey = this.first.getCacheKey();
+        final Object secondKey = this.second.getCacheKey();
+        if ((firstKey == null) || (secondKey == null))
+            return null;
+        return Arrays.asList(this.getClass(), firstKey, secondKey);
+    }
+
     @Override
     public Pair<R1, R2> create(T data) {
         R1 first = this.first.create(data);
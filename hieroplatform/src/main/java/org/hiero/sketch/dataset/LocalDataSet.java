@@ -19,10 +19,25 @@
 package org.hiero.sketch.dataset;
 
 import org.hiero.sketch.dataset.api.*;
+import org.hiero.utils.Converters;
+import rx.Emitter;
 import rx.Observable;
+import rx.Scheduler;
 import rx.schedulers.Schedulers;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 /**
  * A LocalDataSet is an implementation of IDataSet which contains exactly one
@@ -31,29 +46,293 @@ import java.util.concurrent.Callable;
  */
 public class LocalDataSet<T> implements IDataSet<T> {
     /**
-     * Actual data held by the LocalDataSet.
+     * Actual data held by the LocalDataSet; null if it has been evicted by the MapCache.
      */
-    private final T data;
+    @Nullable
+    private volatile T data;
+    /**
+     * For results of maps with a cache key: how the data was computed, so that it can be
+     * recomputed once evicted.  Null for other datasets, whose data is never evicted.
+     */
+    @Nullable
+    private final Lineage<?, T> lineage;
+    /**
+     * Cost estimate of the data, remembered when the data is evicted.
+     */
+    private volatile long evictedCost = 0;
+    /**
+     * Unique identity of this dataset, used to key its entries in the SketchCache
+     * and in the MapCache without holding on to the data.
+     */
+    private final long id;
+    private static final AtomicLong nextId = new AtomicLong(0);
+    /**
+     * Incremented each time the data is recomputed and may differ from the data it
+     * replaces; the results of maps and sketches computed before are then stale.
+     */
+    private volatile long generation = 0;
     /**
      * If this is set to 'true' then data processing (i.e., the map and sketch calls)
      * are done on a separate thread.  This is the only place where multithreading
-     * is used in the whole platform code base.  The effect is that all observers of
+     * is used in the whole platform code base.  The computation is subscribed on
+     * a thread of a bounded pool shared by all LocalDataSets, so the children of a
+     * ParallelDataSet run concurrently.  The effect is that all observers of
      * the results are invoked on a separate thread.
      */
     private final boolean separateThread;
+    /**
+     * Maximum number of threads used concurrently to process data by all the
+     * LocalDataSets in this process.
+     */
+    private static int parallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * How long an idle pool thread lives, in seconds.
+     */
+    private static final long idleThreadTimeout = 60;
+    /**
+     * Scheduler wrapping the pool used to run map and sketch computations; created lazily.
+     */
+    @Nullable
+    private static Scheduler scheduler;
+    /**
+     * Data implementing IChunkable is sketched in chunks, emitting a partial result
+     * after each chunk.  Chunk sizes are adjusted so that a chunk takes about this many
+     * milliseconds.  A ParallelDataSet bundles the partial results of its children
+     * that arrive within its bundle interval, so the stream sent upstream stays bounded.
+     */
+    private static long progressInterval = 100;
+    /**
+     * Number of items in the first chunk; data with fewer items is sketched at once.
+     */
+    private static final int initialChunkSize = 1 << 16;
+    /**
+     * Chunks with at least two morsels of this many items are sketched in parallel; see
+     * sketchChunk.
+     */
+    private static final int morselSize = initialChunkSize;
+    /**
+     * Pool which sketches the morsels of a chunk; null to sketch each chunk on the thread
+     * running the sketch.
+     */
+    @Nullable
+    private static ForkJoinPool morselPool = ForkJoinPool.commonPool();
 
     /**
      * Create a LocalDataSet, processing the data on a separate thread by default.
      * @param data: Data to store in the LocalDataSet.
      */
     public LocalDataSet(final T data) {
-        this.data = data;
-        this.separateThread = true;
+        this(data, true);
     }
 
     public LocalDataSet(final T data, final boolean separateThread) {
         this.data = data;
+        this.lineage = null;
         this.separateThread = separateThread;
+        this.id = nextId.incrementAndGet();
+    }
+
+    private LocalDataSet(final T data, final Lineage<?, T> lineage) {
+        this.data = data;
+        this.lineage = lineage;
+        this.separateThread = true;
+        this.id = nextId.incrementAndGet();
+    }
+
+    /**
+     * The dataset and the map with a cache key which produced the data of a dataset.
+     * @param <P> Type of data in the parent dataset.
+     * @param <T> Type of data produced.
+     */
+    private static final class Lineage<P, T> {
+        final LocalDataSet<P> parent;
+        final IMap<P, T> mapper;
+        /**
+         * Cache key of the map applied to the data of the parent when last computed.
+         */
+        volatile Object key;
+        /**
+         * Generation of the parent when the data was last computed; written with the lock
+         * of the result held, and read without it by isStale.
+         */
+        volatile long parentGeneration;
+
+        Lineage(final LocalDataSet<P> parent, final IMap<P, T> mapper, final Object key) {
+            this.parent = parent;
+            this.mapper = mapper;
+            this.key = key;
+            this.parentGeneration = parent.generation;
+        }
+
+        /**
+         * Applies the map to the data of the parent.  If the parent is pinned in the
+         * MapCache the pin is released when the map fails; otherwise it is transferred to
+         * the result by admit.
+         */
+        T apply(final P parentData, final boolean pinned) {
+            try {
+                return this.mapper.apply(parentData);
+            } catch (final Throwable t) {
+                if (pinned)
+                    MapCache.unpin(this.parent.id);
+                throw t;
+            }
+        }
+
+        /**
+         * @return True if the data recomputed now could differ from the evicted data:
+         * the parent has changed, or the map has a different key for its data.
+         */
+        boolean isStale() {
+            // Getting the data of the parent may recompute it, changing its generation.
+            final Object key = this.mapper.getCacheKey(this.parent.getData());
+            return (this.parent.generation != this.parentGeneration) || !this.key.equals(key);
+        }
+
+        /**
+         * Recomputes the evicted data of the result.  If the parent has changed since, or
+         * if the map now has a different key for the data of the parent (e.g., the file
+         * that it loads has been modified), the data may differ from the evicted one: the
+         * generation of the result is incremented and its cached sketches are invalidated.
+         * The data is then stored in the result and admitted to the MapCache.
+         * Called with the lock of the result held.
+         */
+        T recompute(final LocalDataSet<T> result) {
+            final P parentData = this.parent.getData();
+            final long parentGeneration = this.parent.generation;
+            final Object key = Converters.checkNull(this.mapper.getCacheKey(parentData));
+            final boolean pinned = MapCache.pin(this.parent.id);
+            final T data = this.apply(parentData, pinned);
+            if ((parentGeneration != this.parentGeneration) || !key.equals(this.key)) {
+                this.parentGeneration = parentGeneration;
+                this.key = key;
+                result.generation++;
+                SketchCache.invalidate(result.id);
+            }
+            result.data = data;
+            this.admit(result, data, parentData, pinned);
+            return data;
+        }
+
+        /**
+         * Records in the MapCache the memory held by the data of the result; the parts
+         * shared with the data of the parent are not counted while the parent holds them.
+         * @param pinned True if the parent was pinned while the data was computed; the
+         *               pin is transferred to the result.
+         */
+        void admit(final LocalDataSet<T> result, final T data, final P parentData,
+                   final boolean pinned) {
+            // A parent which was not pinned is a dataset that is never evicted, or one
+            // that was evicted during the computation: then only the result holds the
+            // parts it shares with parentData.
+            final boolean shared = pinned || (this.parent.lineage == null);
+            MapCache.admit(this.parent.id, this.key, result,
+                    IMemoryUsage.of(data, shared ? parentData : null), pinned);
+        }
+    }
+
+    long getId() { return this.id; }
+
+    /**
+     * @return The data, recomputing it from its lineage if it has been evicted.
+     */
+    T getData() {
+        final T current = this.data;
+        if (current != null) {
+            if (this.lineage != null)
+                MapCache.touch(this.id);
+            return current;
+        }
+        final Lineage<?, T> lineage = Converters.checkNull(this.lineage);
+        synchronized (this) {
+            final T again = this.data;
+            if (again != null)
+                return again;
+            return lineage.recompute(this);
+        }
+    }
+
+    /**
+     * Drops the data; called by the MapCache for results of maps with a cache key.
+     */
+    void evict() {
+        final T current = this.data;
+        if (current == null)
+            return;
+        this.evictedCost = ICostEstimate.of(current);
+        this.data = null;
+    }
+
+    /**
+     * @return The memory held by the data, as accounted by the MapCache; 0 if the dataset
+     * is not the result of a map with a cache key or if its data has been evicted.
+     */
+    public long getMemoryUsage() {
+        return MapCache.getMemoryUsage(this.id);
+    }
+
+    /**
+     * Change the number of threads used to process the data of all LocalDataSets.
+     * Observables created before this call still run on the old pool, whose
+     * threads terminate once they become idle.
+     * @param threads  Number of threads; must be positive.
+     */
+    public static synchronized void setParallelism(final int threads) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("Parallelism must be positive: " + threads);
+        parallelism = threads;
+        scheduler = null;
+    }
+
+    public static synchronized int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the pool on which the morsels of large chunks are sketched in parallel.
+     * @param pool  A fork-join pool, or null to sketch each chunk on a single thread.
+     */
+    public static synchronized void setMorselPool(@Nullable final ForkJoinPool pool) {
+        morselPool = pool;
+    }
+
+    @Nullable
+    public static synchronized ForkJoinPool getMorselPool() {
+        return morselPool;
+    }
+
+    /**
+     * Change the time between partial results of sketches on chunkable data.
+     * @param milliseconds  Target time to sketch one chunk; must be positive.
+     */
+    public static synchronized void setProgressInterval(final long milliseconds) {
+        if (milliseconds <= 0)
+            throw new IllegalArgumentException("Interval must be positive: " + milliseconds);
+        progressInterval = milliseconds;
+    }
+
+    public static synchronized long getProgressInterval() {
+        return progressInterval;
+    }
+
+    /**
+     * The scheduler on which computations of LocalDataSets with separateThread set run.
+     */
+    private static synchronized Scheduler getScheduler() {
+        if (scheduler == null) {
+            final AtomicInteger threadCount = new AtomicInteger(0);
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    parallelism, parallelism, idleThreadTimeout, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), r -> {
+                final Thread thread = new Thread(r, "LocalDataSet-" + threadCount.incrementAndGet());
+                // Daemon threads, so an idle pool does not prevent the process from exiting.
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            scheduler = Schedulers.from(executor);
+        }
+        return scheduler;
     }
 
     /**
@@ -75,19 +354,61 @@ public class LocalDataSet<T> implements IDataSet<T> {
         return zero.map(e-> new PartialResult<R>(0.0, e));
     }
 
+    /**
+     * An observable which runs the computation when subscribed to, with a CancellationToken
+     * that is cancelled when the observer unsubscribes.  If the observer unsubscribes before
+     * the computation starts (e.g., while it is queued for the pool) it never starts.
+     */
+    static <R> Observable<R> cancellable(final Supplier<R> computation) {
+        return Observable.create((Emitter<R> emitter) -> {
+            final CancellationToken token = new CancellationToken();
+            emitter.setCancellation(token::cancel);
+            try {
+                final R result = token.run(computation);
+                emitter.onNext(result);
+                emitter.onCompleted();
+            } catch (final CancellationException e) {
+                // If the observer has unsubscribed there is no one to notify.
+                if (!token.isCancelled())
+                    emitter.onError(e);
+            } catch (final Throwable t) {
+                emitter.onError(t);
+            }
+        }, Emitter.BackpressureMode.BUFFER);
+    }
+
+    /**
+     * Results of maps with a cache key are looked up in the MapCache when subscribed to;
+     * on a miss the result is computed and admitted to the cache.
+     */
     @Override
     public <S> Observable<PartialResult<IDataSet<S>>> map(final IMap<T, S> mapper) {
         // Actual map computation performed lazily when observable is subscribed to.
-        final Callable<IDataSet<S>> callable = () -> {
-            S result = mapper.apply(LocalDataSet.this.data);
-            return new LocalDataSet<S>(result);
+        final Supplier<IDataSet<S>> computation = () -> {
+            final T data = this.getData();
+            final Object key = mapper.getCacheKey(data);
+            if (key == null)
+                return new LocalDataSet<S>(mapper.apply(data));
+            // The key was produced by an equivalent map, so the result has type S.
+            @SuppressWarnings("unchecked")
+            final LocalDataSet<S> cached = (LocalDataSet<S>) MapCache.get(this.id, key);
+            if (cached != null)
+                return cached;
+            final Lineage<T, S> lineage = new Lineage<T, S>(this, mapper, key);
+            // The data of this dataset must not be evicted before the result is admitted
+            // as one of its dependents.
+            final boolean pinned = MapCache.pin(this.id);
+            final S result = lineage.apply(data, pinned);
+            final LocalDataSet<S> retval = new LocalDataSet<S>(result, lineage);
+            lineage.admit(retval, result, data, pinned);
+            return retval;
         };
-        final Observable<IDataSet<S>> mapped = Observable.fromCallable(callable);
+        final Observable<IDataSet<S>> mapped = cancellable(computation);
         // Wrap the produced data in a PartialResult
         Observable<PartialResult<IDataSet<S>>> data = mapped.map(PartialResult::new);
-        // Concatenate the zero with the actual data produced
+        // Run the mapper itself on the pool, not on the subscribing thread.
         if (this.separateThread)
-            data = data.observeOn(Schedulers.computation());
+            data = data.subscribeOn(getScheduler());
         return data;
     }
 
@@ -96,30 +417,146 @@ public class LocalDataSet<T> implements IDataSet<T> {
         if (!(other instanceof LocalDataSet<?>))
             throw new RuntimeException("Unexpected type in Zip " + other);
         final LocalDataSet<S> lds = (LocalDataSet<S>) other;
-        final Pair<T, S> data = new Pair<T, S>(this.data, lds.data);
+        final Pair<T, S> data = new Pair<T, S>(this.getData(), lds.getData());
         final LocalDataSet<Pair<T, S>> retval = new LocalDataSet<Pair<T, S>>(data);
         // This is very fast, so there is no need to use a callable or to return a zero.
         return Observable.just(new PartialResult<IDataSet<Pair<T, S>>>(retval));
     }
 
+    /**
+     * Sketches chunkable data one chunk at a time; large chunks are sketched in parallel
+     * morsels (see sketchChunk).  Each chunk produces a partial result
+     * holding the fraction of the items in the chunk and the sketch of the chunk.  The size
+     * of each chunk is chosen from the time taken by the previous one, aiming at one partial
+     * result every progressInterval.  When the observer unsubscribes no further chunks
+     * are sketched, and the sketch of the current chunk is aborted through its
+     * CancellationToken.
+     */
+    /**
+     * Sketches the items start, ..., end - 1.  If the chunk has at least two morsels and a
+     * pool is given, the chunk is split into morsels of morselSize items which are sketched
+     * as a MorselDataSet does: in parallel on the pool, combined with the sketch's add
+     * method.  Since chunk sizes adapt to the time taken, a single large table then uses
+     * all the cores of the pool.  Called with the token of the sketch as current token.
+     */
+    private static <T, R> R sketchChunk(final IChunkable<T> chunkable, final ISketch<T, R> sketch,
+                                        final int start, final int end,
+                                        @Nullable final ForkJoinPool pool) {
+        if ((pool == null) || ((end - start) < (2 * morselSize)))
+            return sketch.create(chunkable.getChunk(start, end));
+        final List<T> morsels = new ArrayList<T>();
+        for (int from = start; from < end; from = (int) Math.min((long) from + morselSize, end))
+            morsels.add(chunkable.getChunk(from, (int) Math.min((long) from + morselSize, end)));
+        return pool.invoke(new MorselDataSet.SketchTask<T, R>(
+                sketch, morsels, 0, morsels.size(), CancellationToken.current()));
+    }
+
+    private <R> Observable<PartialResult<R>> chunkedSketch(
+            final IChunkable<T> chunkable, final ISketch<T, R> sketch) {
+        return Observable.create((Emitter<PartialResult<R>> emitter) -> {
+            final CancellationToken token = new CancellationToken();
+            emitter.setCancellation(token::cancel);
+            try {
+                final int total = chunkable.getItemCount();
+                final long interval = getProgressInterval();
+                @Nullable final ForkJoinPool pool = getMorselPool();
+                int chunkSize = initialChunkSize;
+                int position = 0;
+                while (position < total) {
+                    final int end = (int) Math.min((long) position + chunkSize, total);
+                    final long start = System.nanoTime();
+                    final int chunkStart = position;
+                    final R value = token.run(
+                            () -> sketchChunk(chunkable, sketch, chunkStart, end, pool));
+                    final long elapsed = (System.nanoTime() - start) / 1000000;
+                    emitter.onNext(new PartialResult<R>((double) (end - position) / total, value));
+                    position = end;
+                    // Aim at the interval, but change the size at most 4 times per chunk.
+                    final long next = (elapsed == 0) ? (4L * chunkSize) :
+                            Math.max(chunkSize / 4, Math.min(4L * chunkSize,
+                                    (chunkSize * interval) / elapsed));
+                    chunkSize = (int) Math.max(1, Math.min(Integer.MAX_VALUE, next));
+                }
+                emitter.onCompleted();
+            } catch (final CancellationException e) {
+                // If the observer has unsubscribed there is no one to notify.
+                if (!token.isCancelled())
+                    emitter.onError(e);
+            } catch (final Throwable t) {
+                emitter.onError(t);
+            }
+        }, Emitter.BackpressureMode.BUFFER);
+    }
+
+    /**
+     * Sketches with a cache key are looked up in the SketchCache when the computation
+     * starts on the pool.  On a hit the cached result follows the zero as a single partial
+     * result; on a miss the sketch is computed and its result is cached once the
+     * computation completes, unless the data has been recomputed and changed meanwhile.
+     * The cached results of an evicted dataset whose data would change if recomputed
+     * are invalidated first.
+     */
     @Override
     public <R> Observable<PartialResult<R>> sketch(final ISketch<T, R> sketch) {
         // Immediately return a zero partial result
         final Observable<PartialResult<R>> zero = this.zero(sketch::zero);
+        final Object key = sketch.getCacheKey();
+        // The data is obtained when subscribed to, since it may have to be recomputed.
+        Observable<PartialResult<R>> pro = Observable.defer(() -> {
+            if (key == null)
+                return this.computeSketch(sketch);
+            // The data of an evicted result may change when recomputed, for instance if
+            // it was loaded from a file which has been modified since.
+            if ((this.lineage != null) && (this.data == null) && this.lineage.isStale())
+                SketchCache.invalidate(this.id);
+            // The key was produced by an equivalent sketch, so the result has type R.
+            @SuppressWarnings("unchecked")
+            final R cached = (R) SketchCache.get(this.id, key);
+            if (cached != null)
+                return Observable.just(new PartialResult<R>(1.0, cached));
+            final long generation = this.generation;
+            final AtomicReference<R> total = new AtomicReference<R>(sketch.getZero());
+            return this.computeSketch(sketch)
+                    .doOnNext(p -> total.set(sketch.add(total.get(), p.deltaValue)))
+                    .doOnCompleted(() -> {
+                        if (this.generation == generation)
+                            SketchCache.put(this.id, key, Converters.checkNull(total.get()));
+                    });
+        });
+        // Run the lookup and the sketch itself on the pool, not on the subscribing thread;
+        // the zero is still delivered immediately.
+        if (this.separateThread)
+            pro = pro.subscribeOn(getScheduler());
+        // Concatenate with the zero.
+        return zero.concatWith(pro);
+    }
+
+    /**
+     * Sketches the data, without its zero; called on the thread running the sketch.
+     */
+    private <R> Observable<PartialResult<R>> computeSketch(final ISketch<T, R> sketch) {
+        final T data = this.getData();
+        if ((data instanceof IChunkable<?>) &&
+                (((IChunkable<?>) data).getItemCount() > initialChunkSize)) {
+            // Chunks of the data have the same type as the data.
+            @SuppressWarnings("unchecked")
+            final IChunkable<T> chunkable = (IChunkable<T>) data;
+            return this.chunkedSketch(chunkable, sketch);
+        }
         // Actual sketch computation performed lazily when observable is subscribed to.
-        final Callable<R> callable = () -> sketch.create(this.data);
-        final Observable<R> sketched = Observable.fromCallable(callable);
+        final Supplier<R> computation = () -> sketch.create(data);
         // Wrap sketch results in a stream of PartialResults.
-        final Observable<PartialResult<R>> pro = sketched.map(PartialResult::new);
-        // Concatenate with the zero.
-        Observable<PartialResult<R>> result = zero.concatWith(pro);
-        if (this.separateThread)
-            result = result.observeOn(Schedulers.computation());
-        return result;
+        return cancellable(computation).map(PartialResult::new);
+    }
+
+    @Override
+    public long getCostEstimate() {
+        final T current = this.data;
+        return (current == null) ? this.evictedCost : ICostEstimate.of(current);
     }
 
     @Override
     public String toString() {
-        return "LocalDataSet " + this.data.toString();
+        return "LocalDataSet " + this.data;
     }
 }
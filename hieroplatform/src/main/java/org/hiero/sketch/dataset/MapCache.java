@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.dataset;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A process-wide cache of the results of maps with a cache key computed by LocalDataSets.
+ * A result is keyed by the identity of the dataset that was mapped and by the cache key of
+ * the map, so mapping a dataset again with an equivalent map returns the same dataset.
+ * The cache accounts for the memory held by the data of each result.  When the total
+ * exceeds the budget the data of results are evicted in least-recently-used order; a
+ * result is not evicted while results computed from it hold their data, or while results
+ * are being computed from it.  An evicted
+ * result keeps its lineage (the dataset it was computed from and the map), and its data is
+ * recomputed when it is next needed.
+ */
+public final class MapCache {
+    /**
+     * Maximum memory held by the data of cached results, in bytes.
+     */
+    private static long budget = Runtime.getRuntime().maxMemory() / 4;
+    private static long usedBytes = 0;
+    private static final AtomicLong hits = new AtomicLong(0);
+    private static final AtomicLong misses = new AtomicLong(0);
+    /**
+     * Results holding their data, indexed by dataset id, least recently used first.
+     */
+    private static final LinkedHashMap<Long, Entry> resident = new LinkedHashMap<Long, Entry>();
+    /**
+     * Results holding their data, indexed by the parent dataset id and map key.
+     */
+    private static final HashMap<Object, LocalDataSet<?>> results =
+            new HashMap<Object, LocalDataSet<?>>();
+
+    private static final class Entry {
+        final LocalDataSet<?> dataSet;
+        final Object key;
+        final long parentId;
+        final long bytes;
+        /**
+         * Number of resident results computed from this one, and of the results being
+         * computed from it; never negative.
+         */
+        int dependents;
+
+        Entry(final LocalDataSet<?> dataSet, final Object key, final long parentId,
+              final long bytes) {
+            this.dataSet = dataSet;
+            this.key = key;
+            this.parentId = parentId;
+            this.bytes = bytes;
+            this.dependents = 0;
+        }
+    }
+
+    private MapCache() {}
+
+    private static Object makeKey(final long parentId, final Object mapKey) {
+        return Arrays.asList(parentId, mapKey);
+    }
+
+    /**
+     * Look up the result of a map; updates the hit and miss counters.
+     * @param parentId  Identity of the dataset that was mapped.
+     * @param mapKey    Cache key of the map.
+     * @return The cached result, or null if there is none.
+     */
+    @Nullable
+    static synchronized LocalDataSet<?> get(final long parentId, final Object mapKey) {
+        final LocalDataSet<?> result = results.get(makeKey(parentId, mapKey));
+        if (result == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+            touch(result.getId());
+        }
+        return result;
+    }
+
+    /**
+     * Records that the data of a result is in memory, evicting other results if the
+     * budget is exceeded.
+     * @param parentId  Identity of the dataset that was mapped.
+     * @param mapKey    Cache key of the map.
+     * @param dataSet   Result of the map.
+     * @param bytes     Memory held by the data of the result.
+     * @param pinned    True if the parent was pinned while the result was computed.
+     */
+    static synchronized void admit(final long parentId, final Object mapKey,
+                                   final LocalDataSet<?> dataSet, final long bytes,
+                                   final boolean pinned) {
+        final Entry parent = resident.get(parentId);
+        if (resident.containsKey(dataSet.getId())) {
+            if (pinned)
+                release(parent);
+            return;
+        }
+        final Object key = makeKey(parentId, mapKey);
+        final Entry entry = new Entry(dataSet, key, parentId, bytes);
+        // A result admitted again after being recomputed may have resident dependents,
+        // computed from its data while it was resident before.
+        for (final Entry e : resident.values())
+            if (e.parentId == dataSet.getId())
+                entry.dependents++;
+        resident.put(dataSet.getId(), entry);
+        results.put(key, dataSet);
+        usedBytes += bytes;
+        // The pin of the parent, if any, now counts the result as its dependent.
+        if ((parent != null) && !pinned)
+            parent.dependents++;
+        evict(dataSet, false);
+    }
+
+    /**
+     * Prevents a resident result from being evicted while another result is computed
+     * from its data.  The pin is transferred to the computed result by admit, or
+     * released by unpin if the computation fails.
+     * @return True if the result is resident and has been pinned.
+     */
+    static synchronized boolean pin(final long dataSetId) {
+        final Entry entry = resident.get(dataSetId);
+        if (entry == null)
+            return false;
+        entry.dependents++;
+        return true;
+    }
+
+    static synchronized void unpin(final long dataSetId) {
+        release(resident.get(dataSetId));
+    }
+
+    private static void release(@Nullable final Entry entry) {
+        if ((entry != null) && (entry.dependents > 0))
+            entry.dependents--;
+    }
+
+    /**
+     * Marks a result as the most recently used.
+     */
+    static synchronized void touch(final long dataSetId) {
+        final Entry entry = resident.remove(dataSetId);
+        if (entry != null)
+            resident.put(dataSetId, entry);
+    }
+
+    /**
+     * Evicts results in least-recently-used order until the budget is met.
+     * @param keep  A result which is not evicted, or null.
+     * @param all   If true evict all results.
+     */
+    private static void evict(@Nullable final LocalDataSet<?> keep, final boolean all) {
+        boolean progress = true;
+        // Evicting a result may allow evicting the result it was computed from.
+        while ((all || (usedBytes > budget)) && progress) {
+            progress = false;
+            final Iterator<Entry> it = resident.values().iterator();
+            while ((all || (usedBytes > budget)) && it.hasNext()) {
+                final Entry entry = it.next();
+                if ((entry.dependents > 0) || (entry.dataSet == keep))
+                    continue;
+                it.remove();
+                results.remove(entry.key, entry.dataSet);
+                usedBytes -= entry.bytes;
+                entry.dataSet.evict();
+                release(resident.get(entry.parentId));
+                progress = true;
+            }
+        }
+    }
+
+    /**
+     * @return The memory held by the data of a result, or 0 if it is not cached or evicted.
+     */
+    static synchronized long getMemoryUsage(final long dataSetId) {
+        final Entry entry = resident.get(dataSetId);
+        return (entry == null) ? 0 : entry.bytes;
+    }
+
+    /**
+     * Change the maximum memory held by the data of cached results, evicting results
+     * if necessary.
+     */
+    public static synchronized void setBudget(final long bytes) {
+        if (bytes < 0)
+            throw new IllegalArgumentException("Budget must not be negative: " + bytes);
+        budget = bytes;
+        evict(null, false);
+    }
+
+    public static synchronized long getBudget() { return budget; }
+
+    public static synchronized long getUsedBytes() { return usedBytes; }
+
+    public static synchronized int size() { return resident.size(); }
+
+    /**
+     * Evict all cached results and reset the counters.
+     */
+    public static synchronized void clear() {
+        evict(null, true);
+        hits.set(0);
+        misses.set(0);
+    }
+
+    public static long getHitCount() { return hits.get(); }
+
+    public static long getMissCount() { return misses.get(); }
+}
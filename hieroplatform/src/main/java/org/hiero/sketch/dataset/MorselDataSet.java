@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.dataset;
+
+import org.hiero.sketch.dataset.api.*;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A MorselDataSet holds one large item of data which has been split into smaller
+ * items, the morsels (e.g., a big table split into tables of consecutive rows; see
+ * ITable.split).  It behaves like a LocalDataSet, but a sketch runs as a fork-join
+ * computation: each morsel is sketched as a separate task and the results are combined
+ * with the sketch's add method, so a single large item can use all cores.  Maps are
+ * applied to each morsel in parallel and produce another MorselDataSet.
+ * @param <T> type of the morsels held in the dataset.
+ */
+public class MorselDataSet<T> implements IDataSet<T> {
+    private final List<T> morsels;
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a MorselDataSet which runs computations on the common fork-join pool.
+     * @param morsels  Parts of the data.
+     */
+    public MorselDataSet(final List<T> morsels) {
+        this(morsels, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param morsels  Parts of the data.
+     * @param pool     Pool running the computations on the morsels.
+     */
+    public MorselDataSet(final List<T> morsels, final ForkJoinPool pool) {
+        this.morsels = morsels;
+        this.pool = pool;
+    }
+
+    public int getMorselCount() { return this.morsels.size(); }
+
+    /**
+     * Sketches the morsels in the range [from, to) by recursively splitting the range in two.
+     * Each morsel is sketched with the token of the whole computation as the current
+     * CancellationToken of the worker thread.
+     */
+    static class SketchTask<T, R> extends RecursiveTask<R> {
+        private final ISketch<T, R> sketch;
+        private final List<T> morsels;
+        private final int from;
+        private final int to;
+        private final CancellationToken token;
+
+        SketchTask(final ISketch<T, R> sketch, final List<T> morsels,
+                   final int from, final int to, final CancellationToken token) {
+            this.sketch = sketch;
+            this.morsels = morsels;
+            this.from = from;
+            this.to = to;
+            this.token = token;
+        }
+
+        @Override
+        protected R compute() {
+            if (this.to - this.from == 0)
+                return this.sketch.getZero();
+            if (this.to - this.from == 1)
+                return this.token.run(() -> this.sketch.create(this.morsels.get(this.from)));
+            final int mid = (this.from + this.to) / 2;
+            final SketchTask<T, R> left = new SketchTask<T, R>(
+                    this.sketch, this.morsels, this.from, mid, this.token);
+            left.fork();
+            final R right = new SketchTask<T, R>(
+                    this.sketch, this.morsels, mid, this.to, this.token).compute();
+            return this.sketch.add(left.join(), right);
+        }
+    }
+
+    @Override
+    public <S> Observable<PartialResult<IDataSet<S>>> map(final IMap<T, S> mapper) {
+        final Observable<IDataSet<S>> mapped = LocalDataSet.cancellable(() -> {
+            // Each morsel is mapped with the token of the whole computation as the current one.
+            final CancellationToken token = CancellationToken.current();
+            final List<ForkJoinTask<S>> tasks = new ArrayList<ForkJoinTask<S>>(this.morsels.size());
+            for (T morsel : this.morsels)
+                tasks.add(ForkJoinTask.adapt(() -> token.run(() -> mapper.apply(morsel))));
+            ForkJoinTask.invokeAll(tasks);
+            final List<S> result = new ArrayList<S>(tasks.size());
+            for (ForkJoinTask<S> task : tasks)
+                result.add(task.join());
+            return new MorselDataSet<S>(result, this.pool);
+        });
+        // The computation runs on a pool thread, where invokeAll forks the tasks.
+        return mapped.map(PartialResult::new).subscribeOn(Schedulers.from(this.pool));
+    }
+
+    @Override
+    public <S> Observable<PartialResult<IDataSet<Pair<T, S>>>> zip(final IDataSet<S> other) {
+        if (!(other instanceof MorselDataSet<?>))
+            throw new RuntimeException("Unexpected type in Zip " + other);
+        final MorselDataSet<S> mds = (MorselDataSet<S>) other;
+        if (this.morsels.size() != mds.morsels.size())
+            throw new RuntimeException("Zipping datasets with different numbers of morsels: " +
+                    this.morsels.size() + " and " + mds.morsels.size());
+        final List<Pair<T, S>> data = new ArrayList<Pair<T, S>>(this.morsels.size());
+        for (int i = 0; i < this.morsels.size(); i++)
+            data.add(new Pair<T, S>(this.morsels.get(i), mds.morsels.get(i)));
+        final MorselDataSet<Pair<T, S>> retval = new MorselDataSet<Pair<T, S>>(data, this.pool);
+        return Observable.just(new PartialResult<IDataSet<Pair<T, S>>>(retval));
+    }
+
+    @Override
+    public <R> Observable<PartialResult<R>> sketch(final ISketch<T, R> sketch) {
+        // Immediately return a zero partial result, as LocalDataSet does.
+        final Observable<PartialResult<R>> zero =
+                Observable.fromCallable(sketch::zero).map(e -> new PartialResult<R>(0.0, e));
+        final Observable<PartialResult<R>> sketched = LocalDataSet.cancellable(
+                () -> new SketchTask<T, R>(sketch, this.morsels, 0, this.morsels.size(),
+                                           CancellationToken.current()).invoke())
+                .subscribeOn(Schedulers.from(this.pool))
+                .map(PartialResult::new);
+        return zero.concatWith(sketched);
+    }
+
+    @Override
+    public long getCostEstimate() {
+        long cost = 0;
+        for (T morsel : this.morsels)
+            cost += ICostEstimate.of(morsel);
+        return cost;
+    }
+
+    @Override
+    public String toString() {
+        return "MorselDataSet " + this.morsels.size() + " morsels";
+    }
+}
@@ -21,8 +21,12 @@ package org.hiero.sketch.dataset;
 import org.hiero.sketch.dataset.api.*;
 import org.hiero.utils.Converters;
 import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import javax.annotation.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -41,7 +45,8 @@ public class ParallelDataSet<T> implements IDataSet<T> {
      * aggregate results from children if they come "close" to each other in time, to produce
      * fewer results upstream.  This parameter controls the aggregation interval:
      * If non zero then aggregate partial results that are within
-     * this specified number of milliseconds from each other.  Human reaction time is on the
+     * this specified number of milliseconds from each other; the first partial result
+     * reporting progress is not delayed.  Human reaction time is on the
      * order of 50 milliseconds or more, so this is a ballpark reasonable value.
      * If this is set to zero no aggregation is performed.
      * If this is set to a value too large then progress reporting to the user may be impacted.
@@ -56,6 +61,31 @@ public class ParallelDataSet<T> implements IDataSet<T> {
      */
     protected static boolean useLogging = false;
 
+    /**
+     * If positive, a sketch over more than fanIn children is computed over a tree of nested
+     * ParallelDataSets with at most fanIn children each.  Partial results are then bundled
+     * by each inner node, in parallel, instead of all by the root on a single thread.
+     * If zero, the sketches of all children are bundled by this data set.
+     */
+    protected int fanIn = 0;
+    /**
+     * A fan-in suitable for data sets with many children, such as one per file.
+     */
+    public static final int defaultFanIn = 32;
+    /**
+     * The fraction of the work done by each child.  Children are launched in decreasing
+     * order of weight, so that the largest ones do not start last and delay the result,
+     * and each child contributes its weight to the progress.  If null the weights are
+     * computed when first needed from the cost estimates of the children.
+     */
+    @Nullable
+    protected double[] childWeights = null;
+    /**
+     * The tree of nested data sets used when there are more than fanIn children; see nest.
+     */
+    @Nullable
+    private ParallelDataSet<T> nested = null;
+
     /**
      * Children of the data set.
      */
@@ -91,6 +121,142 @@ public class ParallelDataSet<T> implements IDataSet<T> {
         this.bundleInterval = timeIntervalInMilliseconds;
         if (timeIntervalInMilliseconds < 0)
             throw new RuntimeException("Negative time interval: " + timeIntervalInMilliseconds);
+        this.nested = null;
+    }
+
+    /**
+     * Sets the maximum number of children whose sketches are combined by a single data set;
+     * see fanIn.  This should be done only once after construction.
+     * @param fanIn Maximum number of children combined together, at least 2; 0 to combine
+     *              the results of all children in this data set.
+     */
+    public void setFanIn(final int fanIn) {
+        if ((fanIn < 0) || (fanIn == 1))
+            throw new IllegalArgumentException("Fan-in must be 0 or at least 2: " + fanIn);
+        this.fanIn = fanIn;
+        this.nested = null;
+    }
+
+    /**
+     * Copies the settings of this data set to a data set whose children correspond to ours.
+     * The weights are not copied: the children of the result estimate their own costs.
+     */
+    private <S> ParallelDataSet<S> withSettings(final ParallelDataSet<S> result) {
+        result.bundleInterval = this.bundleInterval;
+        result.fanIn = this.fanIn;
+        return result;
+    }
+
+    /**
+     * The children grouped into at most fanIn nested ParallelDataSets with the same settings
+     * as this one, so that groups which are still larger than fanIn are nested again when
+     * they are sketched.  Children are dealt round robin in decreasing order of weight: child
+     * i of that order goes to group i % groups, so each group holds children in decreasing
+     * order of weight and the groups have similar weights.  Launching the groups in order
+     * launches the largest children first.  The tree is built once and reused.
+     */
+    synchronized ParallelDataSet<T> nest() {
+        if (this.nested == null)
+            this.nested = this.buildNested();
+        return this.nested;
+    }
+
+    private ParallelDataSet<T> buildNested() {
+        final int size = this.size();
+        final Integer[] order = this.getLaunchOrder();
+        final int groups = Math.min(this.fanIn, (size + this.fanIn - 1) / this.fanIn);
+        final List<IDataSet<T>> nested = new ArrayList<IDataSet<T>>(groups);
+        final double[] weights = new double[groups];
+        for (int g = 0; g < groups; g++) {
+            final int count = (size - g + groups - 1) / groups;
+            final List<IDataSet<T>> members = new ArrayList<IDataSet<T>>(count);
+            final double[] memberWeights = new double[count];
+            for (int i = g, m = 0; i < size; i += groups, m++) {
+                members.add(this.children.get(order[i]));
+                memberWeights[m] = this.getWeight(order[i]);
+                weights[g] += memberWeights[m];
+            }
+            for (int m = 0; m < count; m++)
+                memberWeights[m] = (weights[g] == 0) ?
+                        1.0 / count : memberWeights[m] / weights[g];
+            final ParallelDataSet<T> group = this.withSettings(new ParallelDataSet<T>(members));
+            group.childWeights = memberWeights;
+            nested.add(group);
+        }
+        final ParallelDataSet<T> result = this.withSettings(new ParallelDataSet<T>(nested));
+        result.childWeights = weights;
+        return result;
+    }
+
+    /**
+     * The sum of the cost estimates of the children; children with unknown costs are
+     * assumed to cost as much as the average child with a known cost.
+     */
+    @Override
+    public long getCostEstimate() {
+        final long[] costs = this.getChildCosts();
+        long total = 0;
+        int known = 0;
+        for (long c : costs) {
+            if (c > 0) {
+                total += c;
+                known++;
+            }
+        }
+        if (known == 0)
+            return 0;
+        return total + ((costs.length - known) * total) / known;
+    }
+
+    private long[] getChildCosts() {
+        final long[] costs = new long[this.size()];
+        for (int i = 0; i < costs.length; i++)
+            costs[i] = Math.max(0, this.children.get(i).getCostEstimate());
+        return costs;
+    }
+
+    /**
+     * @return The weights of the children, computing them from their costs if necessary.
+     */
+    private synchronized double[] getWeights() {
+        if (this.childWeights == null) {
+            final long[] costs = this.getChildCosts();
+            double total = 0;
+            int known = 0;
+            for (long c : costs) {
+                if (c > 0) {
+                    total += c;
+                    known++;
+                }
+            }
+            final double unknownCost = (known == 0) ? 1 : total / known;
+            total += (costs.length - known) * unknownCost;
+            final double[] weights = new double[costs.length];
+            for (int i = 0; i < costs.length; i++)
+                weights[i] = ((costs[i] > 0) ? costs[i] : unknownCost) / total;
+            this.childWeights = weights;
+        }
+        return this.childWeights;
+    }
+
+    /**
+     * @return The fraction of the work done by the specified child.
+     */
+    private double getWeight(final int child) {
+        return this.getWeights()[child];
+    }
+
+    /**
+     * @return The indexes of the children in decreasing order of weight (largest processing
+     * time first); children with equal weights stay in their order.
+     */
+    private Integer[] getLaunchOrder() {
+        final double[] weights = this.getWeights();
+        final Integer[] order = new Integer[weights.length];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (i, j) -> Double.compare(weights[j], weights[i]));
+        return order;
     }
 
     /**
@@ -103,22 +269,23 @@ public class ParallelDataSet<T> implements IDataSet<T> {
     }
 
     /**
-     * This function groups R values that come too close in time (within a 'bundleInterval'
-     * time interval) and "adds" them up emitting a single value.
+     * Adds up partial results, to produce fewer results upstream.  The first result reporting
+     * progress is emitted immediately; later results that come too close in time (within a
+     * 'bundleInterval' time interval) or while the observer is not requesting results are
+     * added and emitted as a single value.  See BundleOperator.
      * @param data  A stream of data.
      * @param adder A monoid that knows how to add the data.
      * @return  A shorter stream, in which some of the values in the data stream have been
      * added together.
      */
-
-    public <R> Observable<R> bundle(final Observable<R> data, IMonoid<R> adder) {
+    public <R> Observable<PartialResult<R>> bundle(final Observable<PartialResult<R>> data,
+                                                   final IMonoid<PartialResult<R>> adder) {
         if (this.bundleInterval > 0) {
-            Observable<List<R>> bundled = data.buffer(this.bundleInterval, bundleTimeUnit)
-                       .filter(e -> !e.isEmpty());
+            Observable<PartialResult<R>> bundled = data.lift(new BundleOperator<R>(
+                    adder, this.bundleInterval, bundleTimeUnit, Schedulers.computation()));
             if (ParallelDataSet.useLogging)
-                       // If a time interval has no data we don't want to produce a zero.
-                bundled = bundled.map(e -> log(e, "bundling " + e.size() + " values"));
-            return bundled.map(adder::reduce);
+                bundled = bundled.map(e -> log(e, "bundled " + e.deltaDone));
+            return bundled;
         } else {
             return data;
         }
@@ -135,15 +302,14 @@ public class ParallelDataSet<T> implements IDataSet<T> {
              final IMap<T, S> mapper) {
         final List<Observable<Pair<Integer, PartialResult<IDataSet<S>>>>> obs =
                 new ArrayList<Observable<Pair<Integer, PartialResult<IDataSet<S>>>>>(this.size());
-        // We run the mapper over each child, and then we tag the results produced by
-        // the child with the child index.
-        for (int i = 0; i < this.size(); i++) {
-            int finalI = i;
+        // We run the mapper over each child, largest first, and then we tag the results
+        // produced by the child with the child index.
+        for (final int i : this.getLaunchOrder()) {
             final Observable<Pair<Integer, PartialResult<IDataSet<S>>>> ci =
                     this.children.get(i)
                             .map(mapper)
-                            .map(e -> new Pair<Integer, PartialResult<IDataSet<S>>>(finalI, e));
-            obs.add(i, ci);
+                            .map(e -> new Pair<Integer, PartialResult<IDataSet<S>>>(i, e));
+            obs.add(ci);
         }
         // Merge the streams from all children
         final Observable<Pair<Integer, PartialResult<IDataSet<S>>>> merged =
@@ -165,10 +331,12 @@ public class ParallelDataSet<T> implements IDataSet<T> {
                       // We expect to produce a single map
                       .single()
                       // Finally, create a ParallelDataSet from the map; these have 0 'done' progress
-                      .map(m -> new PartialResult<IDataSet<S>>(0.0, new ParallelDataSet<S>(m)));
+                      .map(m -> new PartialResult<IDataSet<S>>(
+                              0.0, this.withSettings(new ParallelDataSet<S>(m))));
         final Observable<PartialResult<IDataSet<S>>> dones =
-                // Each child produces a 1/this.size() fraction of the result.
-                merged.map(p -> Converters.checkNull(p.second).deltaDone / this.size())
+                // Each child produces a fraction of the result given by its weight.
+                merged.map(p -> Converters.checkNull(p.second).deltaDone *
+                                this.getWeight(Converters.checkNull(p.first)))
                         .map(e -> new PartialResult<IDataSet<S>>(e, null));
         Observable<PartialResult<IDataSet<S>>> result = dones.mergeWith(mapResult);
         result = bundle(result, new PRDataSetMonoid<S>());
@@ -212,10 +380,11 @@ public class ParallelDataSet<T> implements IDataSet<T> {
                       .toMap(p -> p.first, p -> Converters.checkNull(p.second).deltaValue)
                       .single()
                       .map(m -> new PartialResult<IDataSet<Pair<T, S>>>(
-                            0.0, new ParallelDataSet<Pair<T, S>>(m)));
+                            0.0, this.withSettings(new ParallelDataSet<Pair<T, S>>(m))));
         final Observable<PartialResult<IDataSet<Pair<T, S>>>> dones =
-                // Each child produces a 1/this.size() fraction of the result.
-                merged.map(p -> Converters.checkNull(p.second).deltaDone / this.size())
+                // Each child produces a fraction of the result given by its weight.
+                merged.map(p -> Converters.checkNull(p.second).deltaDone *
+                                this.getWeight(Converters.checkNull(p.first)))
                       .map(e -> new PartialResult<IDataSet<Pair<T, S>>>(e, null));
         Observable<PartialResult<IDataSet<Pair<T, S>>>> result = dones.mergeWith(zipResult);
         PRDataSetMonoid<Pair<T, S>> prm = new PRDataSetMonoid<Pair<T, S>>();
@@ -225,16 +394,17 @@ public class ParallelDataSet<T> implements IDataSet<T> {
 
     @Override
     public <R> Observable<PartialResult<R>> sketch(final ISketch<T, R> sketch) {
+        if ((this.fanIn > 0) && (this.size() > this.fanIn))
+            return this.nest().sketch(sketch);
         List<Observable<PartialResult<R>>> obs = new ArrayList<Observable<PartialResult<R>>>();
-        final int mySize = this.size();
-        // Run sketch over each child separately
-        for (int i = 0; i < mySize; i++) {
+        // Run sketch over each child separately, largest first
+        for (final int i : this.getLaunchOrder()) {
             IDataSet<T> child = this.children.get(i);
-            final int finalI = i;
             Observable<PartialResult<R>> sk = child.sketch(sketch);
             if (useLogging)
-                    sk = sk.map(e -> log(e, "child " + finalI + " sketch result " + sketch.toString()));
-            sk = sk.map(e -> new PartialResult<R>(e.deltaDone / mySize, e.deltaValue));
+                    sk = sk.map(e -> log(e, "child " + i + " sketch result " + sketch.toString()));
+            final double weight = this.getWeight(i);
+            sk = sk.map(e -> new PartialResult<R>(e.deltaDone * weight, e.deltaValue));
             obs.add(sk);
         }
         // Just merge all sketch results
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.dataset;
+
+import org.hiero.sketch.dataset.api.IMemoryUsage;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A process-wide cache of sketch results computed by LocalDataSets.
+ * An entry is keyed by the identity of the dataset and by the cache key of the sketch,
+ * so each partition of a distributed dataset has its own entries.  The cache accounts for
+ * the memory held by each result, estimated by IMemoryUsage; entries are evicted in
+ * least-recently-used order once the total exceeds the budget.
+ */
+public final class SketchCache {
+    /**
+     * Maximum memory held by cached results, in bytes.
+     */
+    private static long budget = Runtime.getRuntime().maxMemory() / 16;
+    /**
+     * Memory charged for a result which does not implement IMemoryUsage.
+     */
+    private static final long unknownResultBytes = 1024;
+    /**
+     * Memory charged for each entry in addition to its result.
+     */
+    private static final long entryBytes = 128;
+    private static long usedBytes = 0;
+    private static final AtomicLong hits = new AtomicLong(0);
+    private static final AtomicLong misses = new AtomicLong(0);
+    private static final LinkedHashMap<Object, Entry> entries =
+            new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+
+    private static final class Entry {
+        final Object result;
+        final long bytes;
+
+        Entry(final Object result, final long bytes) {
+            this.result = result;
+            this.bytes = bytes;
+        }
+    }
+
+    private SketchCache() {}
+
+    private static Object makeKey(final long dataSetId, final Object sketchKey) {
+        return Arrays.asList(dataSetId, sketchKey);
+    }
+
+    private static long getBytes(final Object result) {
+        if (result instanceof IMemoryUsage)
+            return entryBytes + ((IMemoryUsage) result).getMemoryUsage(null);
+        return entryBytes + unknownResultBytes;
+    }
+
+    /**
+     * Look up the result of a sketch; updates the hit and miss counters.
+     * @param dataSetId  Identity of the dataset that was sketched.
+     * @param sketchKey  Cache key of the sketch.
+     * @return The cached result, or null if there is none.
+     */
+    @Nullable
+    static synchronized Object get(final long dataSetId, final Object sketchKey) {
+        final Entry entry = entries.get(makeKey(dataSetId, sketchKey));
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.result;
+    }
+
+    /**
+     * Caches a result, unless it is larger than the budget.
+     */
+    static synchronized void put(final long dataSetId, final Object sketchKey, final Object result) {
+        final long bytes = getBytes(result);
+        if (bytes > budget)
+            return;
+        final Entry previous = entries.put(makeKey(dataSetId, sketchKey), new Entry(result, bytes));
+        if (previous != null)
+            usedBytes -= previous.bytes;
+        usedBytes += bytes;
+        evict();
+    }
+
+    /**
+     * Removes the results cached for a dataset, whose data has changed.
+     */
+    static synchronized void invalidate(final long dataSetId) {
+        final Iterator<Map.Entry<Object, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<Object, Entry> entry = it.next();
+            if (((List<?>) entry.getKey()).get(0).equals(dataSetId)) {
+                usedBytes -= entry.getValue().bytes;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Evicts least recently used entries until the used memory fits in the budget.
+     */
+    private static void evict() {
+        // Iteration order is least-recently used first.
+        final Iterator<Entry> it = entries.values().iterator();
+        while (usedBytes > budget) {
+            usedBytes -= it.next().bytes;
+            it.remove();
+        }
+    }
+
+    /**
+     * Change the maximum memory held by cached results; 0 disables caching.
+     */
+    public static synchronized void setBudget(final long bytes) {
+        if (bytes < 0)
+            throw new IllegalArgumentException("Budget must not be negative: " + bytes);
+        budget = bytes;
+        evict();
+    }
+
+    public static synchronized long getBudget() { return budget; }
+
+    public static synchronized long getUsedBytes() { return usedBytes; }
+
+    public static synchronized int size() { return entries.size(); }
+
+    /**
+     * Remove all cached results and reset the counters.
+     */
+    public static synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+        hits.set(0);
+        misses.set(0);
+    }
+
+    public static long getHitCount() { return hits.get(); }
+
+    public static long getMissCount() { return misses.get(); }
+}
@@ -23,6 +23,7 @@ import org.hiero.sketch.dataset.api.Triple;
 import org.hiero.utils.Converters;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
 
 public class TripleSketch<T, R1, R2, R3> implements ISketch<T, Triple<R1, R2, R3>> {
     final ISketch<T, R1> first;
@@ -53,6 +54,17 @@ public class TripleSketch<T, R1, R2, R3> implements ISketch<T, Triple<R1, R2, R3
         return new Triple<R1, R2, R3>(first, second, third);
     }
 
+    @Nullable
+    @Override
+    public Object getCacheKey() {
+        final Object firstKey = this.first.getCacheKey();
+        final Object secondKey = this.second.getCacheKey();
+        final Object thirdKey = this.third.getCacheKey();
+        if ((firstKey == null) || (secondKey == null) || (thirdKey == null))
+            return null;
+        return Arrays.asList(this.getClass(), firstKey, secondKey, thirdKey);
+    }
+
     @Override
     public Triple<R1, R2, R3> create(T data) {
         R1 first = this.first.create(data);
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.dataset.api;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * Signals that the result of a computation is no longer needed.  A LocalDataSet creates a
+ * token for each map or sketch computation it runs, cancels it when the observer of the
+ * results unsubscribes, and makes it the current token of the thread running the computation.
+ * Long-running kernels (e.g., the loops of sketches over the rows of a table) call
+ * throwIfCancelled on the current token every checkInterval rows or so, which aborts the
+ * computation with a CancellationException.
+ */
+public final class CancellationToken {
+    /**
+     * Number of rows a kernel may process between two checks of the token.
+     */
+    public static final int checkInterval = 1024;
+    /**
+     * A token which is never cancelled; the current token of threads which run no
+     * cancellable computation.
+     */
+    private static final CancellationToken never = new CancellationToken();
+    private static final ThreadLocal<CancellationToken> current = new ThreadLocal<CancellationToken>();
+
+    private volatile boolean cancelled = false;
+
+    public void cancel() {
+        if (this == never)
+            throw new IllegalStateException("This token cannot be cancelled");
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() { return this.cancelled; }
+
+    /**
+     * @throws CancellationException if the token has been cancelled.
+     */
+    public void throwIfCancelled() {
+        if (this.cancelled)
+            throw new CancellationException("Computation cancelled");
+    }
+
+    /**
+     * @return The token of the computation running on the current thread; a token
+     * which is never cancelled if the computation cannot be cancelled.
+     */
+    public static CancellationToken current() {
+        @Nullable final CancellationToken token = CancellationToken.current.get();
+        return (token == null) ? never : token;
+    }
+
+    /**
+     * Runs a computation with this as the current token of the thread.
+     * @throws CancellationException if the token is cancelled before or during the computation.
+     */
+    public <R> R run(final Supplier<R> computation) {
+        this.throwIfCancelled();
+        @Nullable final CancellationToken previous = CancellationToken.current.get();
+        CancellationToken.current.set(this);
+        try {
+            return computation.get();
+        } finally {
+            CancellationToken.current.set(previous);
+        }
+    }
+}
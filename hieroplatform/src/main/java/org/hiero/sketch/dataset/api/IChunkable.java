@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.dataset.api;
+
+/**
+ * Data made of items (e.g., the rows of a table) which can be processed in chunks of
+ * consecutive items.  A LocalDataSet holding such data sketches it one chunk at a time,
+ * reporting progress after each chunk.
+ * @param <T> Type of the chunks; normally the type of the data itself.
+ */
+public interface IChunkable<T> {
+    /**
+     * @return The number of items in the data.
+     */
+    int getItemCount();
+
+    /**
+     * @return The data made of the items at positions start, ..., end - 1.
+     */
+    T getChunk(int start, int end);
+}
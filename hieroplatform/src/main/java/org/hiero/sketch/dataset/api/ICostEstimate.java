@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.dataset.api;
+
+/**
+ * Data which can estimate the cost of processing it, e.g., its size in bytes.
+ * Costs are only compared with the costs of other data of the same kind, held by the
+ * children of the same ParallelDataSet.
+ */
+public interface ICostEstimate {
+    /**
+     * @return A positive estimate of the cost of processing the data, or 0 if unknown.
+     */
+    long getCostEstimate();
+
+    /**
+     * @return The cost estimated by data implementing ICostEstimate, the number of items
+     * of IChunkable data, or 0 if the cost of the data is unknown.
+     */
+    static long of(final Object data) {
+        if (data instanceof ICostEstimate)
+            return ((ICostEstimate) data).getCostEstimate();
+        if (data instanceof IChunkable<?>)
+            return ((IChunkable<?>) data).getItemCount();
+        return 0;
+    }
+}
@@ -57,6 +57,14 @@ public interface IDataSet<T> {
      */
     <S> Observable<PartialResult<IDataSet<Pair<T, S>>>> zip(IDataSet<S> other);
 
+    /**
+     * @return An estimate of the cost of processing the whole dataset, used to schedule
+     *         the children of a ParallelDataSet and to weight their progress; 0 if unknown.
+     */
+    default long getCostEstimate() {
+        return 0;
+    }
+
     // The following are various helper methods.
 
     /**
@@ -18,6 +18,7 @@
 
 package org.hiero.sketch.dataset.api;
 
+import javax.annotation.Nullable;
 import java.io.Serializable;
 
 /**
@@ -33,4 +34,23 @@ public interface IMap<T, S> extends Serializable {
      * @return The result of the transformation.
      */
     S apply(T data);
+
+    /**
+     * A key identifying the computation performed by this map: two maps with equal keys
+     * produce equivalent results on the same data.  The key is used to cache map results,
+     * which can then be evicted and recomputed; a null key means that results of this map
+     * are not cached.
+     */
+    @Nullable
+    default Object getCacheKey() { return null; }
+
+    /**
+     * The cache key of this map applied to the specified data; by default getCacheKey().
+     * Maps whose result also depends on state outside the data, such as the contents of a
+     * file named by the data, include this state in the key, so that results computed
+     * from different states are not confused.  A map with a non-null key for some data
+     * keeps returning a non-null key for it.
+     */
+    @Nullable
+    default Object getCacheKey(final T data) { return this.getCacheKey(); }
 }
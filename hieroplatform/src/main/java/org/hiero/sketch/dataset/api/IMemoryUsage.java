@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.dataset.api;
+
+import javax.annotation.Nullable;
+
+/**
+ * Data which can estimate the memory it holds.  Data computed from other data often
+ * shares parts with it (e.g., a filtered table shares the columns of the original table),
+ * so the estimate can exclude the memory held by some other data.
+ */
+public interface IMemoryUsage {
+    /**
+     * @param shared Data which this data may share parts with, or null.
+     * @return An estimate, in bytes, of the memory held by this data and not by shared.
+     */
+    long getMemoryUsage(@Nullable Object shared);
+
+    /**
+     * @return The memory estimated by data implementing IMemoryUsage, or 0 if unknown.
+     */
+    static long of(final Object data, @Nullable final Object shared) {
+        if (data instanceof IMemoryUsage)
+            return ((IMemoryUsage) data).getMemoryUsage(shared);
+        return 0;
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.hiero.sketch.dataset.api;
 import org.hiero.utils.Converters;
+
+import javax.annotation.Nullable;
 import java.io.Serializable;
 
 /**
@@ -39,4 +41,14 @@ public interface ISketch<T, R> extends Serializable, IMonoid<R> {
      * Helper method to return non-null zeros.
      */
     default R getZero() { return Converters.checkNull(this.zero()); }
+
+    /**
+     * A key identifying the computation performed by this sketch: two sketches with
+     * equal keys produce equivalent results on the same data.  The key is used to cache
+     * sketch results; a null key means that results of this sketch are not cached.
+     * Sketches whose add method mutates its arguments must not return a key, and neither
+     * should sketches which sample the data.
+     */
+    @Nullable
+    default Object getCacheKey() { return null; }
 }
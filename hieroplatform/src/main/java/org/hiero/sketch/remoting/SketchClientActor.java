@@ -130,10 +130,10 @@ public class SketchClientActor extends AbstractActor {
             }).doOnUnsubscribe(() -> {
                 // It's fine if the below code gets invoked twice, the
                 // remote end is idempotent
-                if (this.operationToObservable.containsKey(operation.id)) {
-                    final PublishSubject ps = this.operationToObservable.remove(operation.id);
-                    sender().tell(new UnsubscribeOperation(operation.id), self());
-                }
+                // This runs on the unsubscribing thread, outside of message processing,
+                // where sender() is not the node running the operation.
+                if (this.operationToObservable.remove(operation.id) != null)
+                    remoteActor.tell(new UnsubscribeOperation(operation.id), self());
             });
             sender.tell(obs, self());
         }
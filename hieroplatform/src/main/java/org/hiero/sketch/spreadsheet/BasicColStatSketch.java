@@ -1,12 +1,12 @@
 package org.hiero.sketch.spreadsheet;
 
-import org.hiero.sketch.dataset.api.ISketch;
 import org.hiero.sketch.table.api.IStringConverter;
 import org.hiero.sketch.table.api.ITable;
 import org.hiero.utils.Converters;
 import javax.annotation.Nullable;
+import java.util.Arrays;
 
-public class BasicColStatSketch implements ISketch<ITable, BasicColStats> {
+public class BasicColStatSketch implements IBatchSketch<BasicColStats> {
     final String colName;
     @Nullable
     final IStringConverter converter;
@@ -29,11 +29,22 @@ public class BasicColStatSketch implements ISketch<ITable, BasicColStats> {
     }
 
     @Override
-    public BasicColStats create(final ITable data) {
-        BasicColStats result = this.getZero();
-        result.createStats(data.getColumn(this.colName), data.getMembershipSet().sample(this.rate),
-                this.converter);
-        return result;
+    public double getSamplingRate() { return this.rate; }
+
+    /**
+     * Sampled results are not cached, so that each request draws a new sample.
+     */
+    @Nullable
+    @Override
+    public Object getCacheKey() {
+        if (this.rate < 1)
+            return null;
+        return Arrays.asList(this.getClass(), this.colName, this.converter, this.momentNum);
+    }
+
+    @Override
+    public void addBatch(final ITable data, final BasicColStats result, final RowBatch batch) {
+        result.addBatch(batch.getValues(data.getColumn(this.colName), this.converter));
     }
 
     @Override
@@ -3,7 +3,6 @@ package org.hiero.sketch.spreadsheet;
 import org.hiero.sketch.dataset.api.IJson;
 import org.hiero.sketch.table.api.IColumn;
 import org.hiero.sketch.table.api.IMembershipSet;
-import org.hiero.sketch.table.api.IRowIterator;
 import org.hiero.sketch.table.api.IStringConverter;
 import javax.annotation.Nullable;
 
@@ -56,36 +55,42 @@ public class BasicColStats implements IJson {
 
     public void createStats(final IColumn column, final IMembershipSet membershipSet,
                             @Nullable final IStringConverter converter) {
-        final IRowIterator myIter = membershipSet.getIterator();
-        int currRow = myIter.getNextRow();
-        while (currRow >= 0) {
-            if (!column.isMissing(currRow)) {
-                double val = column.asDouble(currRow, converter);
-                if (this.rowCount == 0) {
-                    this.min = val;
-                    this.max = val;
-                    this.minObject = column.getObject(currRow);
-                    this.maxObject = this.minObject;
-                } else if (val < this.min) {
-                    this.min = val;
-                    this.minObject = column.getObject(currRow);
-                } else if (val > this.max) {
-                    this.max = val;
-                    this.maxObject = column.getObject(currRow);
-                }
-                if (this.momentCount > 0) {
-                    double tmpMoment = val;
-                    double alpha = (double) this.rowCount / (double) (this.rowCount + 1);
-                    double beta = 1.0 - alpha;
-                    this.moments[0] = (alpha * this.moments[0]) + (beta * val);
-                    for (int i = 1; i < this.momentCount; i++) {
-                        tmpMoment = tmpMoment * val;
-                        this.moments[i] = (alpha * this.moments[i]) + (beta * tmpMoment);
-                    }
+        final RowBatch batch = new RowBatch(membershipSet);
+        while (batch.next())
+            this.addBatch(batch.getValues(column, converter));
+    }
+
+    /**
+     * Adds the rows of a batch to the statistics.
+     */
+    public void addBatch(final RowBatch.ColumnValues values) {
+        for (int i = 0; i < values.count; i++) {
+            if (values.isMissing(i))
+                continue;
+            double val = values.values[i];
+            if (this.rowCount == 0) {
+                this.min = val;
+                this.max = val;
+                this.minObject = values.getObject(i);
+                this.maxObject = this.minObject;
+            } else if (val < this.min) {
+                this.min = val;
+                this.minObject = values.getObject(i);
+            } else if (val > this.max) {
+                this.max = val;
+                this.maxObject = values.getObject(i);
+            }
+            if (this.momentCount > 0) {
+                double tmpMoment = val;
+                double alpha = (double) this.rowCount / (double) (this.rowCount + 1);
+                double beta = 1.0 - alpha;
+                this.moments[0] = (alpha * this.moments[0]) + (beta * val);
+                for (int j = 1; j < this.momentCount; j++) {
+                    tmpMoment = tmpMoment * val;
+                    this.moments[j] = (alpha * this.moments[j]) + (beta * tmpMoment);
                 }
-                this.rowCount++;
             }
-            currRow = myIter.getNextRow();
+            this.rowCount++;
         }
     }
 
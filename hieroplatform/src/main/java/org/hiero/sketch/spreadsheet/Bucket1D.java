@@ -80,6 +80,14 @@ public class Bucket1D implements IJson {
         this.count++;
     }
 
+    /**
+     * @return True if adding this value would change the minimum or maximum object,
+     * so callers can avoid materializing objects that would be dropped.
+     */
+    public boolean changesBounds(final double item) {
+        return (this.count == 0) || (item < this.minValue) || (item > this.maxValue);
+    }
+
     public boolean isEmpty() { return this.count == 0; }
 
     /**
@@ -64,4 +64,23 @@ public class BucketsDescriptionEqSize implements IBucketsDescription1D {
 
     @Override
     public int getNumOfBuckets() { return this.numOfBuckets; }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if ((o == null) || (getClass() != o.getClass())) return false;
+
+        final BucketsDescriptionEqSize that = (BucketsDescriptionEqSize) o;
+        return (Double.compare(this.minValue, that.minValue) == 0) &&
+                (Double.compare(this.maxValue, that.maxValue) == 0) &&
+                (this.numOfBuckets == that.numOfBuckets);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Double.hashCode(this.minValue);
+        result = (31 * result) + Double.hashCode(this.maxValue);
+        result = (31 * result) + this.numOfBuckets;
+        return result;
+    }
 }
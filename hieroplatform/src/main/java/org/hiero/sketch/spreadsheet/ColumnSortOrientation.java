@@ -31,4 +31,19 @@ public class ColumnSortOrientation implements Serializable {
         this.columnDescription = colDesc;
         this.isAscending = isAscending;
     }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if ((o == null) || (getClass() != o.getClass())) return false;
+
+        final ColumnSortOrientation that = (ColumnSortOrientation) o;
+        return (this.isAscending == that.isAscending) &&
+                this.columnDescription.equals(that.columnDescription);
+    }
+
+    @Override
+    public int hashCode() {
+        return (31 * this.columnDescription.hashCode()) + (this.isAscending ? 1 : 0);
+    }
 }
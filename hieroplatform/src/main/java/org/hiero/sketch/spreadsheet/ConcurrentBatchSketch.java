@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+import org.hiero.sketch.dataset.ConcurrentSketch;
+import org.hiero.sketch.dataset.api.Pair;
+import org.hiero.sketch.table.api.ITable;
+import org.hiero.utils.Converters;
+
+/**
+ * A ConcurrentSketch of two batch sketches which computes both in a single scan
+ * of the table: the membership set is sampled and iterated once, and columns used by
+ * both sketches are read once.
+ */
+public class ConcurrentBatchSketch<R1, R2> extends ConcurrentSketch<ITable, R1, R2>
+        implements IBatchSketch<Pair<R1, R2>> {
+    private final IBatchSketch<R1> firstBatch;
+    private final IBatchSketch<R2> secondBatch;
+
+    public ConcurrentBatchSketch(final IBatchSketch<R1> first, final IBatchSketch<R2> second) {
+        super(first, second);
+        if (first.getSamplingRate() != second.getSamplingRate())
+            throw new IllegalArgumentException("Sketches scanned together must use the same rate");
+        this.firstBatch = first;
+        this.secondBatch = second;
+    }
+
+    @Override
+    public double getSamplingRate() { return this.firstBatch.getSamplingRate(); }
+
+    @Override
+    public void addBatch(final ITable data, final Pair<R1, R2> result, final RowBatch batch) {
+        this.firstBatch.addBatch(data, Converters.checkNull(result.first), batch);
+        this.secondBatch.addBatch(data, Converters.checkNull(result.second), batch);
+    }
+
+    @Override
+    public Pair<R1, R2> create(final ITable data) {
+        return IBatchSketch.super.create(data);
+    }
+}
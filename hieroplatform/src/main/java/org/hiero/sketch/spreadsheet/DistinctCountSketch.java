@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+import org.hiero.sketch.dataset.api.CancellationToken;
+import org.hiero.sketch.dataset.api.ISketch;
+import org.hiero.sketch.table.Schema;
+import org.hiero.sketch.table.api.IColumn;
+import org.hiero.sketch.table.api.IRowIterator;
+import org.hiero.sketch.table.api.ITable;
+import org.hiero.utils.Converters;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Estimates the number of distinct values in a column of any kind using a HyperLogLog.
+ * Missing values are counted separately.
+ */
+public class DistinctCountSketch implements ISketch<ITable, HyperLogLog> {
+    private final String colName;
+    private final int precision;
+    /**
+     * Default precision: 4096 registers, for a relative error of about 1.6%.
+     */
+    public static final int defaultPrecision = 12;
+
+    public DistinctCountSketch(final String colName) {
+        this(colName, defaultPrecision);
+    }
+
+    public DistinctCountSketch(final String colName, final int precision) {
+        this.colName = colName;
+        this.precision = precision;
+    }
+
+    @Override
+    public HyperLogLog create(final ITable data) {
+        final HyperLogLog result = this.getZero();
+        final IColumn column = data.getColumn(this.colName);
+        final Schema schema = new Schema();
+        schema.append(column.getDescription());
+        final RowFingerprinter fingerprinter = new RowFingerprinter(data, schema);
+        final IRowIterator rowIt = data.getRowIterator();
+        final CancellationToken token = CancellationToken.current();
+        int scanned = 0;
+        int i = rowIt.getNextRow();
+        while (i >= 0) {
+            if ((++scanned % CancellationToken.checkInterval) == 0)
+                token.throwIfCancelled();
+            if (column.isMissing(i))
+                result.addMissing();
+            else
+                result.add(fingerprinter.fingerprint(i));
+            i = rowIt.getNextRow();
+        }
+        return result;
+    }
+
+    @Override
+    public HyperLogLog zero() {
+        return new HyperLogLog(this.precision);
+    }
+
+    @Override
+    public HyperLogLog add(@Nullable final HyperLogLog left, @Nullable final HyperLogLog right) {
+        return Converters.checkNull(left).union(Converters.checkNull(right));
+    }
+
+    @Override
+    public Object getCacheKey() {
+        return Arrays.asList(this.getClass(), this.colName, this.precision);
+    }
+}
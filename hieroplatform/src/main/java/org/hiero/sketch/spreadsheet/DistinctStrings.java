@@ -2,6 +2,7 @@ package org.hiero.sketch.spreadsheet;
 
 import org.hiero.sketch.table.SemiExplicitConverter;
 import org.hiero.sketch.table.api.ContentsKind;
+import org.hiero.sketch.table.api.ICategoryColumn;
 import org.hiero.sketch.table.api.IColumn;
 import org.hiero.sketch.table.api.IMembershipSet;
 import org.hiero.sketch.table.api.IRowIterator;
@@ -34,7 +35,12 @@ public class DistinctStrings {
     }
 
     public void addStrings(final IColumn column, final IMembershipSet membershipSet) {
-        if (!column.getDescription().kind.equals(ContentsKind.String))
+        if (column instanceof ICategoryColumn) {
+            this.addCategories((ICategoryColumn) column, membershipSet);
+            return;
+        }
+        if (!column.getDescription().kind.equals(ContentsKind.String) &&
+                !column.getDescription().kind.equals(ContentsKind.Category))
             throw new IllegalArgumentException("DistinctStrings requires a String column");
         IRowIterator iter = membershipSet.getIterator();
         int row = iter.getNextRow();
@@ -46,6 +52,26 @@ public class DistinctStrings {
         }
     }
 
+    /**
+     * Category columns are scanned on codes; each distinct string is inserted once.
+     * Missing values are skipped.
+     */
+    private void addCategories(final ICategoryColumn column, final IMembershipSet membershipSet) {
+        final boolean[] seen = new boolean[column.getDictionarySize()];
+        IRowIterator iter = membershipSet.getIterator();
+        int row = iter.getNextRow();
+        while (row >= 0) {
+            if ((this.bounded) && (this.mySet.size() == this.maxSize))
+                return;
+            final int code = column.getCode(row);
+            if ((code >= 0) && !seen[code]) {
+                seen[code] = true;
+                this.mySet.add(column.decode(code));
+            }
+            row = iter.getNextRow();
+        }
+    }
+
     public int size() { return this.mySet.size(); }
 
 
@@ -1,27 +1,94 @@
 package org.hiero.sketch.spreadsheet;
 
+import org.hiero.sketch.dataset.api.CancellationToken;
 import org.hiero.sketch.dataset.api.ISketch;
-import org.hiero.sketch.table.api.IRow;
+import org.hiero.sketch.table.ColumnDescription;
+import org.hiero.sketch.table.RowSnapshot;
+import org.hiero.sketch.table.Schema;
+import org.hiero.sketch.table.VirtualRowSnapshot;
+import org.hiero.sketch.table.api.IRowIterator;
 import org.hiero.sketch.table.api.ITable;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Counts exactly how many times each combination of values of some columns occurs.
+ * Rows are aggregated in RowGroups, keyed by their RowKeys: packed dictionary codes when
+ * all columns are category columns, and 64-bit fingerprints otherwise.  Rows whose
+ * fingerprints collide are told apart by comparing their values.
+ * If a table has more than maxSize distinct combinations the counts are computed
+ * approximately by a FreqKSketch with maxSize counters instead.  The counts in the
+ * result are exact if and only if its error bound is 0.
+ */
+public class ExactFreqSketch implements ISketch<ITable, FreqKList> {
+    private final Schema schema;
+    private final int maxSize;
+    private final FreqKSketch heavyHitters;
+
+    public ExactFreqSketch(final List<ColumnDescription> colDescList, final int maxSize) {
+        if (maxSize <= 0)
+            throw new IllegalArgumentException("Maximum number of counts must be positive");
+        this.schema = new Schema();
+        colDescList.forEach(this.schema::append);
+        this.maxSize = maxSize;
+        this.heavyHitters = new FreqKSketch(colDescList, maxSize);
+    }
 
-public class ExactFreqSketch implements ISketch<ITable, HashMap<IRow, Integer>> {
     @Nullable
     @Override
-    public HashMap<IRow, Integer> zero() {
-        return null;
+    public FreqKList zero() {
+        return this.heavyHitters.zero();
     }
 
+    /**
+     * Adds the counts of both lists in time linear in the number of counts.  The result
+     * is exact if both lists are exact and together have at most maxSize distinct rows.
+     */
     @Nullable
     @Override
-    public HashMap<IRow, Integer> add(@Nullable HashMap<IRow, Integer> left, @Nullable HashMap<IRow, Integer> right) {
-        return null;
+    public FreqKList add(@Nullable final FreqKList left, @Nullable final FreqKList right) {
+        return this.heavyHitters.add(left, right);
+    }
+
+    @Override
+    public FreqKList create(final ITable data) {
+        final RowKeys keys = new RowKeys(data, this.schema);
+        final RowGroups groups = new RowGroups(keys, 16);
+        int[] counts = new int[16];
+        final IRowIterator rowIt = data.getRowIterator();
+        final CancellationToken token = CancellationToken.current();
+        int scanned = 0;
+        int i = rowIt.getNextRow();
+        while (i >= 0) {
+            if ((++scanned % CancellationToken.checkInterval) == 0)
+                token.throwIfCancelled();
+            final long key = keys.getKey(i);
+            int group = groups.find(key, i);
+            if (group < 0) {
+                if (groups.size() == this.maxSize)
+                    return this.heavyHitters.create(data);
+                group = groups.add(key, i);
+                if (group == counts.length)
+                    counts = Arrays.copyOf(counts, 2 * counts.length);
+            }
+            counts[group]++;
+            i = rowIt.getNextRow();
+        }
+
+        final HashMap<RowSnapshot, Integer> hm = new HashMap<>(groups.size());
+        for (int group = 0; group < groups.size(); group++) {
+            final RowSnapshot rs =
+                    new VirtualRowSnapshot(data, groups.getRow(group), this.schema).materialize();
+            hm.merge(rs, counts[group], Integer::sum);
+        }
+        return new FreqKList(data.getNumOfRows(), this.maxSize, hm);
     }
 
     @Override
-    public HashMap<IRow, Integer> create(ITable data) {
-        return null;
+    public Object getCacheKey() {
+        return Arrays.asList(this.getClass(), this.schema, this.maxSize);
     }
 }
@@ -23,9 +23,11 @@ import org.hiero.sketch.table.TableFilter;
 import org.hiero.sketch.table.api.IMembershipSet;
 import org.hiero.sketch.table.api.ITable;
 
+import javax.annotation.Nullable;
+
 /**
- * A Map which implements table filtering: given a row index it returns true if the
- * row is in the resulting table.
+ * A Map which implements table filtering: the filter selects the rows
+ * that are in the resulting table.
  */
 public class FilterMap implements IMap<ITable, ITable> {
     /**
@@ -33,15 +35,33 @@ public class FilterMap implements IMap<ITable, ITable> {
      * Returns true if a row has to be preserved
      */
     private final TableFilter rowFilterPredicate;
+    /**
+     * Identifies the filter, if the result of the map can be cached; see IMap.getCacheKey.
+     */
+    @Nullable
+    private final Object cacheKey;
 
     public FilterMap(TableFilter rowFilterPredicate) {
+        this(rowFilterPredicate, null);
+    }
+
+    /**
+     * @param cacheKey Key which is equal for equivalent filters, or null.
+     */
+    public FilterMap(TableFilter rowFilterPredicate, @Nullable Object cacheKey) {
         this.rowFilterPredicate = rowFilterPredicate;
+        this.cacheKey = cacheKey;
+    }
+
+    @Override
+    @Nullable
+    public Object getCacheKey() {
+        return this.cacheKey;
     }
 
     @Override
     public ITable apply(ITable data) {
-        this.rowFilterPredicate.setTable(data);
-        IMembershipSet result = data.getMembershipSet().filter(this.rowFilterPredicate::test);
+        IMembershipSet result = this.rowFilterPredicate.filter(data);
         return data.selectRowsFromFullTable(result);
     }
 }
@@ -1,15 +1,17 @@
 package org.hiero.sketch.spreadsheet;
 
 import org.hiero.sketch.dataset.api.IJson;
+import org.hiero.sketch.dataset.api.IMemoryUsage;
 import org.hiero.sketch.dataset.api.Pair;
 import org.hiero.sketch.table.RowSnapshot;
 
+import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
-public class FreqKList implements Serializable, IJson {
+public class FreqKList implements Serializable, IJson, IMemoryUsage {
     /**
      * The size of the input table.
      */
@@ -29,6 +31,14 @@ public class FreqKList implements Serializable, IJson {
         this.hMap = hMap;
     }
 
+    @Override
+    public long getMemoryUsage(@Nullable final Object unused) {
+        long bytes = 0;
+        for (final RowSnapshot row : this.hMap.keySet())
+            bytes += row.getMemoryUsage() + 48;
+        return bytes;
+    }
+
     public int GetTotalCount() {
         return this.hMap.values().stream().reduce(0, Integer::sum);
     }
@@ -1,8 +1,11 @@
 package org.hiero.sketch.spreadsheet;
 
+import org.hiero.sketch.dataset.api.CancellationToken;
 import org.hiero.sketch.dataset.api.ISketch;
 import org.hiero.sketch.dataset.api.Pair;
 import org.hiero.sketch.table.*;
+import org.hiero.sketch.table.api.ICategoryColumn;
+import org.hiero.sketch.table.api.IColumn;
 import org.hiero.sketch.table.api.IRowIterator;
 import org.hiero.sketch.table.api.ITable;
 import org.hiero.utils.Converters;
@@ -27,17 +30,25 @@ public class FreqKSketch implements ISketch<ITable, FreqKList> {
         return new FreqKList(0, this.maxSize, new HashMap<>(0));
     }
 
+    /**
+     * Adds the counters of both lists; neither list is modified.
+     */
     @Override
     public FreqKList add(@Nullable FreqKList left, @Nullable FreqKList right) {
-        Converters.checkNull(left);
-        for (RowSnapshot rs : Converters.checkNull(right).hMap.keySet()) {
-            if (left.hMap.containsKey(rs)) {
-                left.hMap.put(rs, left.hMap.get(rs) + right.hMap.get(rs));
-            } else
-                left.hMap.put(rs, right.hMap.get(rs));
-        }
-        List<Pair<RowSnapshot, Integer>> pList = new ArrayList<>(left.hMap.size());
-        left.hMap.forEach((rs, j) -> pList.add(new Pair<RowSnapshot, Integer>(rs, j)));
+        left = Converters.checkNull(left);
+        right = Converters.checkNull(right);
+        HashMap<RowSnapshot, Integer> merged = new HashMap<>(left.hMap);
+        right.hMap.forEach((rs, j) -> merged.merge(rs, j, Integer::sum));
+        List<Pair<RowSnapshot, Integer>> pList = new ArrayList<>(merged.size());
+        merged.forEach((rs, j) -> pList.add(new Pair<RowSnapshot, Integer>(rs, j)));
+        return this.truncate(left.totalRows + right.totalRows, pList);
+    }
+
+    /**
+     * Keeps the maxSize largest counters, decremented by the (maxSize + 1)-th largest
+     * count, as in the Misra-Gries algorithm.
+     */
+    private FreqKList truncate(long totalRows, List<Pair<RowSnapshot, Integer>> pList) {
         pList.sort((p1, p2) -> Integer.compare(p2.second, p1.second));
         int k = 0;
         if(pList.size() >= (this.maxSize + 1)) {
@@ -48,40 +59,88 @@ public class FreqKSketch implements ISketch<ITable, FreqKList> {
             if (pList.get(i).second >= (k + 1))
                 hm.put(pList.get(i).first, pList.get(i).second - k);
         }
-        return new FreqKList(left.totalRows + right.totalRows, this.maxSize, hm);
+        return new FreqKList(totalRows, this.maxSize, hm);
     }
 
     @Override
     public FreqKList create(ITable data) {
-        IRowIterator rowIt = data.getRowIterator();
         Schema schema = this.recordOrder.toSchema();
-        HashMap <VirtualRowSnapshot, Integer> hMap = new HashMap<>(this.maxSize);
-        List <VirtualRowSnapshot> toRemove = new ArrayList<>(this.maxSize);
-        int i;
-        do {
+        @Nullable FreqKList result = this.createFromCodes(data, schema);
+        if (result != null)
+            return result;
+        // SpaceSaving with maxSize + 1 counters, less the smallest count, computes the
+        // same counters as Misra-Gries with maxSize counters, in constant time per row.
+        RowFingerprinter fingerprinter = new RowFingerprinter(data, schema);
+        StreamSummary summary = new StreamSummary(this.maxSize + 1);
+        IRowIterator rowIt = data.getRowIterator();
+        CancellationToken token = CancellationToken.current();
+        int scanned = 0;
+        int i = rowIt.getNextRow();
+        while (i >= 0) {
+            if ((++scanned % CancellationToken.checkInterval) == 0)
+                token.throwIfCancelled();
+            summary.add(fingerprinter.fingerprint(i), i);
             i = rowIt.getNextRow();
-            if (i != -1) {
-                VirtualRowSnapshot vrs = new VirtualRowSnapshot(data, i, schema);
-                if (hMap.containsKey(vrs)) {
-                    hMap.put(vrs, hMap.get(vrs) + 1);
-                    }
-                else if (hMap.size() < this.maxSize)
-                    hMap.put(vrs, 1);
-                else {
-                    toRemove.clear();
-                    for (VirtualRowSnapshot vr: hMap.keySet()) {
-                        hMap.put(vr, hMap.get(vr) -1);
-                        if(hMap.get(vr) == 0)
-                            toRemove.add(vr);
-                        }
-                    toRemove.forEach(hMap::remove);
-                    }
-                }
-            } while(i != -1);
+        }
+        long minCount = summary.getMinCount();
         HashMap<RowSnapshot,Integer> hm = new HashMap<>(this.maxSize);
-        for (VirtualRowSnapshot vrs : hMap.keySet()) {
-            hm.put(vrs.materialize(), hMap.get(vrs));
+        for (int c = 0; c < summary.size(); c++) {
+            int count = (int) (summary.getCount(c) - minCount);
+            if (count > 0) {
+                RowSnapshot rs = new VirtualRowSnapshot(data, summary.getRow(c), schema).materialize();
+                hm.merge(rs, count, Integer::sum);
+            }
         }
         return new FreqKList(data.getNumOfRows(), this.maxSize, hm);
     }
+
+    /**
+     * If all columns are category columns, and the number of possible value combinations
+     * is not larger than the table, every combination is counted exactly in an array
+     * indexed by codes, without hashing any row.
+     * @return The frequent elements, or null if the table is not suitable.
+     */
+    @Nullable
+    private FreqKList createFromCodes(ITable data, Schema schema) {
+        List<String> colNames = new ArrayList<>(schema.getColumnNames());
+        ICategoryColumn[] columns = new ICategoryColumn[colNames.size()];
+        // Codes are shifted by one, so that a missing value gets index 0.
+        int[] radix = new int[columns.length];
+        long combinations = 1;
+        for (int c = 0; c < columns.length; c++) {
+            IColumn col = data.getColumn(colNames.get(c));
+            if (!(col instanceof ICategoryColumn))
+                return null;
+            columns[c] = (ICategoryColumn) col;
+            radix[c] = columns[c].getDictionarySize() + 1;
+            combinations *= radix[c];
+            if (combinations > Math.max(1024, data.getNumOfRows()))
+                return null;
+        }
+        int[] counts = new int[(int) combinations];
+        int[] firstRow = new int[(int) combinations];
+        IRowIterator rowIt = data.getRowIterator();
+        CancellationToken token = CancellationToken.current();
+        int scanned = 0;
+        int i = rowIt.getNextRow();
+        while (i >= 0) {
+            if ((++scanned % CancellationToken.checkInterval) == 0)
+                token.throwIfCancelled();
+            int key = 0;
+            for (int c = 0; c < columns.length; c++)
+                key = (key * radix[c]) + columns[c].getCode(i) + 1;
+            if (counts[key] == 0)
+                firstRow[key] = i;
+            counts[key]++;
+            i = rowIt.getNextRow();
+        }
+        List<Pair<RowSnapshot, Integer>> pList = new ArrayList<>();
+        for (int key = 0; key < counts.length; key++) {
+            if (counts[key] > 0) {
+                RowSnapshot rs = new VirtualRowSnapshot(data, firstRow[key], schema).materialize();
+                pList.add(new Pair<RowSnapshot, Integer>(rs, counts[key]));
+            }
+        }
+        return this.truncate(data.getNumOfRows(), pList);
+    }
 }
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.hiero.sketch.dataset.api.IJson;
+import org.hiero.sketch.dataset.api.IMemoryUsage;
+import org.hiero.sketch.table.RowSnapshot;
+import org.hiero.sketch.table.Schema;
+import org.hiero.utils.IntSort;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * For each distinct combination of values of some key columns, the number of rows and the
+ * count, sum, minimum and maximum of the non-missing values of some numeric columns.
+ * At most maxGroups groups are kept: when there are more, the groups with the most rows are
+ * kept, and the rows of the other groups are only counted in otherRows.  The aggregates are
+ * exact if otherRows is 0.
+ */
+public class GroupByAggregates implements Serializable, IJson, IMemoryUsage {
+    public final Schema keySchema;
+    public final List<String> valueColumns;
+    public final int maxGroups;
+    private final List<RowSnapshot> keys;
+    private final Accumulators accumulators;
+    private final long otherRows;
+
+    GroupByAggregates(final Schema keySchema, final List<String> valueColumns,
+                      final int maxGroups, final List<RowSnapshot> keys,
+                      final Accumulators accumulators, final long otherRows) {
+        this.keySchema = keySchema;
+        this.valueColumns = valueColumns;
+        this.maxGroups = maxGroups;
+        this.keys = keys;
+        this.accumulators = accumulators;
+        this.otherRows = otherRows;
+    }
+
+    /**
+     * An empty result.
+     */
+    public GroupByAggregates(final Schema keySchema, final List<String> valueColumns,
+                             final int maxGroups) {
+        this(keySchema, valueColumns, maxGroups, new ArrayList<RowSnapshot>(),
+                new Accumulators(valueColumns.size(), 0), 0);
+    }
+
+    public int getGroupCount() { return this.keys.size(); }
+
+    /**
+     * Counts the keys, and the count and four accumulators of each value column per group.
+     */
+    @Override
+    public long getMemoryUsage(@Nullable final Object unused) {
+        long bytes = 8L * this.accumulators.counts.length * (1 + (4 * this.valueColumns.size()));
+        for (final RowSnapshot key : this.keys)
+            bytes += key.getMemoryUsage();
+        return bytes;
+    }
+
+    public RowSnapshot getKey(final int group) { return this.keys.get(group); }
+
+    /**
+     * @return The number of rows in the group.
+     */
+    public long getCount(final int group) { return this.accumulators.counts[group]; }
+
+    /**
+     * @return The number of rows with a non-missing value in the value column.
+     */
+    public long getValueCount(final int column, final int group) {
+        return this.accumulators.valueCounts[column][group];
+    }
+
+    public double getSum(final int column, final int group) {
+        return this.accumulators.sums[column][group];
+    }
+
+    /**
+     * @return The minimum value in the group; positive infinity if there are no values.
+     */
+    public double getMin(final int column, final int group) {
+        return this.accumulators.mins[column][group];
+    }
+
+    /**
+     * @return The maximum value in the group; negative infinity if there are no values.
+     */
+    public double getMax(final int column, final int group) {
+        return this.accumulators.maxs[column][group];
+    }
+
+    /**
+     * @return The mean value in the group; NaN if there are no values.
+     */
+    public double getMean(final int column, final int group) {
+        return this.getSum(column, group) / this.getValueCount(column, group);
+    }
+
+    /**
+     * @return The number of rows which are not in any of the groups kept.
+     */
+    public long getOtherRows() { return this.otherRows; }
+
+    /**
+     * @return The group with the specified key, or -1 if there is none; takes linear time.
+     */
+    public int findGroup(final RowSnapshot key) {
+        return this.keys.indexOf(key);
+    }
+
+    /**
+     * Merges the groups with equal keys of two results; it does not modify them.
+     */
+    public GroupByAggregates union(final GroupByAggregates other) {
+        final int maxGroups = Math.max(this.maxGroups, other.maxGroups);
+        // The zero of the sketch has an empty key schema.
+        final Schema keySchema =
+                (this.keySchema.getColumnCount() > 0) ? this.keySchema : other.keySchema;
+        final HashMap<RowSnapshot, Integer> index = new HashMap<RowSnapshot, Integer>();
+        final List<RowSnapshot> keys = new ArrayList<RowSnapshot>(this.keys);
+        final Accumulators merged = new Accumulators(this.valueColumns.size(),
+                this.getGroupCount() + other.getGroupCount());
+        for (int g = 0; g < this.getGroupCount(); g++) {
+            index.put(this.keys.get(g), g);
+            merged.merge(merged.addGroup(), this.accumulators, g);
+        }
+        for (int g = 0; g < other.getGroupCount(); g++) {
+            final RowSnapshot key = other.keys.get(g);
+            Integer group = index.get(key);
+            if (group == null) {
+                group = merged.addGroup();
+                index.put(key, group);
+                keys.add(key);
+            }
+            merged.merge(group, other.accumulators, g);
+        }
+        long otherRows = this.otherRows + other.otherRows;
+        if (keys.size() <= maxGroups)
+            return new GroupByAggregates(keySchema, this.valueColumns, maxGroups,
+                    keys, merged, otherRows);
+
+        // Keep the largest groups.
+        final int[] order = new int[keys.size()];
+        for (int g = 0; g < order.length; g++)
+            order[g] = g;
+        IntSort.sort(order, (i, j) -> Long.compare(merged.counts[j], merged.counts[i]));
+        final List<RowSnapshot> keptKeys = new ArrayList<RowSnapshot>(maxGroups);
+        final Accumulators kept = new Accumulators(this.valueColumns.size(), maxGroups);
+        for (int i = 0; i < order.length; i++) {
+            if (i < maxGroups) {
+                keptKeys.add(keys.get(order[i]));
+                kept.merge(kept.addGroup(), merged, order[i]);
+            } else {
+                otherRows += merged.counts[order[i]];
+            }
+        }
+        return new GroupByAggregates(keySchema, this.valueColumns, maxGroups,
+                keptKeys, kept, otherRows);
+    }
+
+    /**
+     * The groups are in decreasing order of their number of rows.
+     */
+    @Override
+    public JsonElement toJsonTree() {
+        final JsonObject result = new JsonObject();
+        result.add("keySchema", IJson.gsonInstance.toJsonTree(this.keySchema));
+        result.add("valueColumns", IJson.gsonInstance.toJsonTree(this.valueColumns));
+        result.addProperty("otherRows", this.otherRows);
+        final int[] order = new int[this.getGroupCount()];
+        for (int g = 0; g < order.length; g++)
+            order[g] = g;
+        IntSort.sort(order, (i, j) -> Long.compare(this.getCount(j), this.getCount(i)));
+        final JsonArray groups = new JsonArray();
+        for (final int g : order) {
+            final JsonObject group = new JsonObject();
+            group.add("key", this.keys.get(g).toJsonTree());
+            group.addProperty("count", this.getCount(g));
+            final JsonArray values = new JsonArray();
+            for (int c = 0; c < this.valueColumns.size(); c++) {
+                final JsonObject value = new JsonObject();
+                final long count = this.getValueCount(c, g);
+                value.addProperty("count", count);
+                value.addProperty("sum", this.getSum(c, g));
+                if (count > 0) {
+                    value.addProperty("min", this.getMin(c, g));
+                    value.addProperty("max", this.getMax(c, g));
+                    value.addProperty("mean", this.getMean(c, g));
+                }
+                values.add(value);
+            }
+            group.add("values", values);
+            groups.add(group);
+        }
+        result.add("groups", groups);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "GroupByAggregates(" + this.getGroupCount() + " groups, " +
+                this.otherRows + " other rows)";
+    }
+
+    /**
+     * The aggregates of all groups, as one array per aggregate and value column,
+     * indexed by group.  Arrays grow as groups are added.
+     */
+    static final class Accumulators implements Serializable {
+        int size;
+        long[] counts;
+        final long[][] valueCounts;
+        final double[][] sums;
+        final double[][] mins;
+        final double[][] maxs;
+
+        Accumulators(final int valueColumns, final int capacity) {
+            final int length = Math.max(capacity, 16);
+            this.size = 0;
+            this.counts = new long[length];
+            this.valueCounts = new long[valueColumns][length];
+            this.sums = new double[valueColumns][length];
+            this.mins = new double[valueColumns][length];
+            this.maxs = new double[valueColumns][length];
+        }
+
+        /**
+         * @return The index of a new empty group.
+         */
+        int addGroup() {
+            if (this.size == this.counts.length) {
+                final int length = 2 * this.size;
+                this.counts = Arrays.copyOf(this.counts, length);
+                for (int c = 0; c < this.sums.length; c++) {
+                    this.valueCounts[c] = Arrays.copyOf(this.valueCounts[c], length);
+                    this.sums[c] = Arrays.copyOf(this.sums[c], length);
+                    this.mins[c] = Arrays.copyOf(this.mins[c], length);
+                    this.maxs[c] = Arrays.copyOf(this.maxs[c], length);
+                }
+            }
+            for (int c = 0; c < this.sums.length; c++) {
+                this.mins[c][this.size] = Double.POSITIVE_INFINITY;
+                this.maxs[c][this.size] = Double.NEGATIVE_INFINITY;
+            }
+            return this.size++;
+        }
+
+        /**
+         * Adds a batch of rows to their groups.
+         * @param groups The group of each row of the batch; rows with a negative group
+         *               are skipped.
+         * @param count  The number of rows in the batch.
+         * @param values For each value column, its values in the batch.
+         */
+        void add(final int[] groups, final int count, final RowBatch.ColumnValues[] values) {
+            for (int i = 0; i < count; i++) {
+                final int g = groups[i];
+                if (g >= 0)
+                    this.counts[g]++;
+            }
+            for (int c = 0; c < values.length; c++) {
+                final RowBatch.ColumnValues v = values[c];
+                final long[] valueCounts = this.valueCounts[c];
+                final double[] sums = this.sums[c];
+                final double[] mins = this.mins[c];
+                final double[] maxs = this.maxs[c];
+                for (int i = 0; i < count; i++) {
+                    final int g = groups[i];
+                    if ((g < 0) || v.isMissing(i))
+                        continue;
+                    final double d = v.getValue(i);
+                    valueCounts[g]++;
+                    sums[g] += d;
+                    if (d < mins[g])
+                        mins[g] = d;
+                    if (d > maxs[g])
+                        maxs[g] = d;
+                }
+            }
+        }
+
+        /**
+         * Adds the aggregates of group otherGroup of other to group.
+         */
+        void merge(final int group, final Accumulators other, final int otherGroup) {
+            this.counts[group] += other.counts[otherGroup];
+            for (int c = 0; c < this.sums.length; c++) {
+                this.valueCounts[c][group] += other.valueCounts[c][otherGroup];
+                this.sums[c][group] += other.sums[c][otherGroup];
+                this.mins[c][group] = Math.min(this.mins[c][group], other.mins[c][otherGroup]);
+                this.maxs[c][group] = Math.max(this.maxs[c][group], other.maxs[c][otherGroup]);
+            }
+        }
+    }
+}
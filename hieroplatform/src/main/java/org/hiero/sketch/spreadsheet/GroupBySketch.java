@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+import org.hiero.sketch.dataset.api.CancellationToken;
+import org.hiero.sketch.dataset.api.ISketch;
+import org.hiero.sketch.table.RowSnapshot;
+import org.hiero.sketch.table.Schema;
+import org.hiero.sketch.table.VirtualRowSnapshot;
+import org.hiero.sketch.table.api.IRowIterator;
+import org.hiero.sketch.table.api.ITable;
+import org.hiero.utils.Converters;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Groups the rows of a table by the values of some key columns, and computes for each
+ * group the number of rows and the count, sum, min, max and mean of some numeric columns.
+ * Rows are processed in batches: the group of each row is found by its RowKeys in
+ * RowGroups, which also compares the values of rows whose keys are equal, then the
+ * accumulators are updated one value column at a time.
+ * If a table has more than maxGroups groups, its maxGroups heaviest groups are found
+ * with a StreamSummary, and a second scan aggregates only these groups.  The StreamSummary
+ * counts rows by key, so groups whose fingerprints collide share an estimate; the second
+ * scan still aggregates only the rows equal to the key of each group.
+ */
+public class GroupBySketch implements ISketch<ITable, GroupByAggregates> {
+    private final List<String> keyColumns;
+    private final List<String> valueColumns;
+    private final int maxGroups;
+    /**
+     * Default bound on the number of groups.
+     */
+    public static final int defaultMaxGroups = 1000;
+
+    /**
+     * @param keyColumns   Columns whose values define the groups.
+     * @param valueColumns Numeric columns which are aggregated in each group.
+     * @param maxGroups    Maximum number of groups kept.
+     */
+    public GroupBySketch(final List<String> keyColumns, final List<String> valueColumns,
+                         final int maxGroups) {
+        if (keyColumns.isEmpty())
+            throw new IllegalArgumentException("No key columns");
+        if (maxGroups <= 0)
+            throw new IllegalArgumentException("Maximum number of groups must be positive");
+        this.keyColumns = keyColumns;
+        this.valueColumns = valueColumns;
+        this.maxGroups = maxGroups;
+    }
+
+    private Schema getKeySchema(final ITable data) {
+        final Schema schema = new Schema();
+        for (final String col : this.keyColumns)
+            schema.append(data.getSchema().getDescription(col));
+        return schema;
+    }
+
+    @Override
+    public GroupByAggregates create(final ITable data) {
+        final Schema keySchema = this.getKeySchema(data);
+        final RowKeys rowKeys = new RowKeys(data, keySchema);
+        final RowGroups groups = new RowGroups(rowKeys, 16);
+        final GroupByAggregates.Accumulators accumulators =
+                new GroupByAggregates.Accumulators(this.valueColumns.size(), 16);
+        final RowBatch batch = new RowBatch(data.getMembershipSet());
+        final long[] keys = new long[IRowIterator.batchSize];
+        final int[] batchGroups = new int[IRowIterator.batchSize];
+        final RowBatch.ColumnValues[] values = new RowBatch.ColumnValues[this.valueColumns.size()];
+        while (batch.next()) {
+            final int count = batch.getCount();
+            rowKeys.getKeys(batch.rows, count, keys);
+            for (int i = 0; i < count; i++) {
+                final int row = batch.getRow(i);
+                int group = groups.find(keys[i], row);
+                if (group < 0) {
+                    if (groups.size() == this.maxGroups)
+                        return this.createBounded(data, keySchema, rowKeys);
+                    group = groups.add(keys[i], row);
+                    accumulators.addGroup();
+                }
+                batchGroups[i] = group;
+            }
+            this.getValues(data, batch, values);
+            accumulators.add(batchGroups, count, values);
+        }
+        return this.getResult(data, keySchema, groups, accumulators, 0);
+    }
+
+    /**
+     * Aggregates the maxGroups groups with the most rows, which are found by a first scan.
+     */
+    private GroupByAggregates createBounded(final ITable data, final Schema keySchema,
+                                           final RowKeys rowKeys) {
+        final StreamSummary heavyHitters = new StreamSummary(this.maxGroups);
+        final IRowIterator rowIt = data.getRowIterator();
+        final CancellationToken token = CancellationToken.current();
+        int scanned = 0;
+        for (int row = rowIt.getNextRow(); row >= 0; row = rowIt.getNextRow()) {
+            if ((++scanned % CancellationToken.checkInterval) == 0)
+                token.throwIfCancelled();
+            heavyHitters.add(rowKeys.getKey(row), row);
+        }
+
+        final RowGroups groups = new RowGroups(rowKeys, heavyHitters.size());
+        final GroupByAggregates.Accumulators accumulators =
+                new GroupByAggregates.Accumulators(this.valueColumns.size(), heavyHitters.size());
+        for (int g = 0; g < heavyHitters.size(); g++) {
+            final int row = heavyHitters.getRow(g);
+            groups.add(rowKeys.getKey(row), row);
+            accumulators.addGroup();
+        }
+
+        long otherRows = 0;
+        final RowBatch batch = new RowBatch(data.getMembershipSet());
+        final long[] keys = new long[IRowIterator.batchSize];
+        final int[] batchGroups = new int[IRowIterator.batchSize];
+        final RowBatch.ColumnValues[] values = new RowBatch.ColumnValues[this.valueColumns.size()];
+        while (batch.next()) {
+            final int count = batch.getCount();
+            rowKeys.getKeys(batch.rows, count, keys);
+            for (int i = 0; i < count; i++) {
+                batchGroups[i] = groups.find(keys[i], batch.getRow(i));
+                if (batchGroups[i] < 0)
+                    otherRows++;
+            }
+            this.getValues(data, batch, values);
+            accumulators.add(batchGroups, count, values);
+        }
+        return this.getResult(data, keySchema, groups, accumulators, otherRows);
+    }
+
+    private void getValues(final ITable data, final RowBatch batch,
+                           final RowBatch.ColumnValues[] values) {
+        for (int c = 0; c < values.length; c++)
+            values[c] = batch.getValues(
+                    Converters.checkNull(data.getColumn(this.valueColumns.get(c))), null);
+    }
+
+    private GroupByAggregates getResult(final ITable data, final Schema keySchema,
+                                        final RowGroups groups,
+                                        final GroupByAggregates.Accumulators accumulators,
+                                        final long otherRows) {
+        final List<RowSnapshot> keys = new ArrayList<RowSnapshot>(accumulators.size);
+        for (int g = 0; g < accumulators.size; g++)
+            keys.add(new VirtualRowSnapshot(data, groups.getRow(g), keySchema).materialize());
+        return new GroupByAggregates(keySchema, this.valueColumns, this.maxGroups,
+                keys, accumulators, otherRows);
+    }
+
+    /**
+     * The zero has no key schema; adding it to a result returns the result.
+     */
+    @Override
+    public GroupByAggregates zero() {
+        return new GroupByAggregates(new Schema(), this.valueColumns, this.maxGroups);
+    }
+
+    @Override
+    public GroupByAggregates add(@Nullable final GroupByAggregates left,
+                                 @Nullable final GroupByAggregates right) {
+        return Converters.checkNull(left).union(Converters.checkNull(right));
+    }
+
+    @Override
+    public Object getCacheKey() {
+        return Arrays.asList(this.getClass(), this.keyColumns, this.valueColumns, this.maxGroups);
+    }
+
+    @Override
+    public String toString() {
+        return "GroupBySketch(" + this.keyColumns + ", " + this.valueColumns + ")";
+    }
+}
@@ -20,7 +20,6 @@ package org.hiero.sketch.spreadsheet;
 
 import org.hiero.sketch.table.api.IColumn;
 import org.hiero.sketch.table.api.IMembershipSet;
-import org.hiero.sketch.table.api.IRowIterator;
 import org.hiero.sketch.table.api.IStringConverter;
 
 import javax.annotation.Nullable;
@@ -61,31 +60,40 @@ public class HeatMap {
         if (this.initialized) //a histogram had already been created
             throw new IllegalAccessError("A histogram cannot be created twice");
         this.initialized = true;
-        final IRowIterator myIter = membershipSet.getIterator();
-        int currRow = myIter.getNextRow();
-        while (currRow >= 0) {
-            boolean isMissingD1 = columnD1.isMissing(currRow);
-            boolean isMissingD2 = columnD2.isMissing(currRow);
+        final RowBatch batch = new RowBatch(membershipSet);
+        while (batch.next())
+            this.addBatch(batch.getValues(columnD1, converterD1),
+                          batch.getValues(columnD2, converterD2));
+    }
+
+    /**
+     * Adds the rows of a batch to the histogram.
+     * @param valuesD1 Values of the first column for the rows of the batch.
+     * @param valuesD2 Values of the second column for the same rows.
+     */
+    public void addBatch(final RowBatch.ColumnValues valuesD1,
+                         final RowBatch.ColumnValues valuesD2) {
+        this.initialized = true;
+        for (int i = 0; i < valuesD1.count; i++) {
+            boolean isMissingD1 = valuesD1.isMissing(i);
+            boolean isMissingD2 = valuesD2.isMissing(i);
             if (isMissingD1 || isMissingD2) {
                 if (!isMissingD1)  //only column 2 is missing
-                    this.histogramMissingD1.addValue(columnD1.asDouble(currRow, converterD1));
+                    this.histogramMissingD1.addValue(valuesD1.values[i]);
                 else if (!isMissingD2) // only column 1 is missing
-                    this.histogramMissingD2.addValue(columnD2.asDouble(currRow, converterD2));
+                    this.histogramMissingD2.addValue(valuesD2.values[i]);
                 else
                     this.missingData++; // both are missing
-                }
+            }
             else {
-                double val1 = columnD1.asDouble(currRow,converterD1);
-                double val2 = columnD2.asDouble(currRow,converterD2);
-                int index1 = this.bucketDescDim1.indexOf(val1);
-                int index2 = this.bucketDescDim2.indexOf(val2);
+                int index1 = this.bucketDescDim1.indexOf(valuesD1.values[i]);
+                int index2 = this.bucketDescDim2.indexOf(valuesD2.values[i]);
                 if ((index1 >= 0) && (index2 >= 0)) {
                     this.buckets[index1][index2]++;
                     this.totalsize++;
                 }
                 else this.outOfRange++;
             }
-            currRow = myIter.getNextRow();
         }
     }
 
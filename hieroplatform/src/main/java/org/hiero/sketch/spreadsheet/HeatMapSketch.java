@@ -17,14 +17,13 @@
  */
 
 package org.hiero.sketch.spreadsheet;
-import org.hiero.sketch.dataset.api.ISketch;
 import org.hiero.sketch.table.api.IStringConverter;
 import org.hiero.sketch.table.api.ITable;
 import org.hiero.utils.Converters;
 
 import javax.annotation.Nullable;
 
-public class HeatMapSketch implements ISketch<ITable, HeatMap> {
+public class HeatMapSketch implements IBatchSketch<HeatMap> {
     final IBucketsDescription1D bucketDescD1;
     final IBucketsDescription1D bucketDescD2;
     final String colNameD1;
@@ -58,11 +57,12 @@ public class HeatMapSketch implements ISketch<ITable, HeatMap> {
     }
 
     @Override
-    public HeatMap create(final ITable data) {
-        HeatMap result = this.getZero();
-        result.createHistogram(data.getColumn(this.colNameD1), data.getColumn(this.colNameD2),
-                this.converterD1, this.converterD2, data.getMembershipSet().sample(this.rate));
-        return result;
+    public double getSamplingRate() { return this.rate; }
+
+    @Override
+    public void addBatch(final ITable data, final HeatMap result, final RowBatch batch) {
+        result.addBatch(batch.getValues(data.getColumn(this.colNameD1), this.converterD1),
+                        batch.getValues(data.getColumn(this.colNameD2), this.converterD2));
     }
 
     @Override
@@ -17,14 +17,14 @@
  */
 
 package org.hiero.sketch.spreadsheet;
-import org.hiero.sketch.dataset.api.ISketch;
 import org.hiero.sketch.table.api.IStringConverter;
 import org.hiero.sketch.table.api.ITable;
 import org.hiero.utils.Converters;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
 
-public class Hist1DLightSketch implements ISketch<ITable, Histogram1DLight> {
+public class Hist1DLightSketch implements IBatchSketch<Histogram1DLight> {
     final IBucketsDescription1D bucketDesc;
     final String colName;
     @Nullable
@@ -48,11 +48,22 @@ public class Hist1DLightSketch implements ISketch<ITable, Histogram1DLight> {
     }
 
     @Override
-    public Histogram1DLight create(final ITable data) {
-        Histogram1DLight result = this.getZero();
-        result.createHistogram(data.getColumn(this.colName),
-                               data.getMembershipSet().sample(this.rate), this.converter);
-        return result;
+    public double getSamplingRate() { return this.rate; }
+
+    /**
+     * Sampled results are not cached, so that each request draws a new sample.
+     */
+    @Nullable
+    @Override
+    public Object getCacheKey() {
+        if (this.rate < 1)
+            return null;
+        return Arrays.asList(this.getClass(), this.bucketDesc, this.colName, this.converter);
+    }
+
+    @Override
+    public void addBatch(final ITable data, final Histogram1DLight result, final RowBatch batch) {
+        result.addBatch(batch.getValues(data.getColumn(this.colName), this.converter));
     }
 
     @Override
@@ -18,14 +18,14 @@
 
 package org.hiero.sketch.spreadsheet;
 
-import org.hiero.sketch.dataset.api.ISketch;
 import org.hiero.sketch.table.api.IStringConverter;
 import org.hiero.sketch.table.api.ITable;
 import org.hiero.utils.Converters;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
 
-public class Hist1DSketch implements ISketch<ITable, Histogram1D> {
+public class Hist1DSketch implements IBatchSketch<Histogram1D> {
     final IBucketsDescription1D bucketDesc;
     final String colName;
     @Nullable
@@ -49,11 +49,22 @@ public class Hist1DSketch implements ISketch<ITable, Histogram1D> {
     }
 
     @Override
-    public Histogram1D create(final ITable data) {
-        Histogram1D result = this.getZero();
-        result.createHistogram(data.getColumn(this.colName),
-                data.getMembershipSet().sample(this.rate), this.converter);
-        return result;
+    public double getSamplingRate() { return this.rate; }
+
+    /**
+     * Sampled results are not cached, so that each request draws a new sample.
+     */
+    @Nullable
+    @Override
+    public Object getCacheKey() {
+        if (this.rate < 1)
+            return null;
+        return Arrays.asList(this.getClass(), this.bucketDesc, this.colName, this.converter);
+    }
+
+    @Override
+    public void addBatch(final ITable data, final Histogram1D result, final RowBatch batch) {
+        result.addBatch(batch.getValues(data.getColumn(this.colName), this.converter));
     }
 
     @Override
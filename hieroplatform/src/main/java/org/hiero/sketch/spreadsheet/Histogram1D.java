@@ -21,7 +21,6 @@ package org.hiero.sketch.spreadsheet;
 import org.hiero.sketch.dataset.api.IJson;
 import org.hiero.sketch.table.api.IColumn;
 import org.hiero.sketch.table.api.IMembershipSet;
-import org.hiero.sketch.table.api.IRowIterator;
 import org.hiero.sketch.table.api.IStringConverter;
 
 import javax.annotation.Nullable;
@@ -47,19 +46,27 @@ public class Histogram1D extends BaseHist1D implements IJson {
     @Override
     public void createHistogram(final IColumn column, final IMembershipSet membershipSet,
                                 @Nullable final IStringConverter converter) {
-        final IRowIterator myIter = membershipSet.getIterator();
-        int currRow = myIter.getNextRow();
-        while (currRow >= 0) {
-            if (column.isMissing(currRow))
-                this.missingData++;
-            else {
-                double val = column.asDouble(currRow, converter);
-                int index = this.bucketDescription.indexOf(val);
-                if (index >= 0)
-                    this.buckets[index].add(val, column.getObject(currRow));
-                else this.outOfRange++;
+        final RowBatch batch = new RowBatch(membershipSet);
+        while (batch.next())
+            this.addBatch(batch.getValues(column, converter));
+    }
+
+    /**
+     * Adds the rows of a batch to the histogram.
+     */
+    public void addBatch(final RowBatch.ColumnValues values) {
+        this.missingData += values.missingCount;
+        for (int i = 0; i < values.count; i++) {
+            if (values.isMissing(i))
+                continue;
+            double val = values.values[i];
+            int index = this.bucketDescription.indexOf(val);
+            if (index >= 0) {
+                Bucket1D bucket = this.buckets[index];
+                // The row object is only kept if it becomes the new minimum or maximum.
+                bucket.add(val, bucket.changesBounds(val) ? values.getObject(i) : null);
             }
-            currRow = myIter.getNextRow();
+            else this.outOfRange++;
         }
     }
 
@@ -20,7 +20,6 @@ package org.hiero.sketch.spreadsheet;
 
 import org.hiero.sketch.table.api.IColumn;
 import org.hiero.sketch.table.api.IMembershipSet;
-import org.hiero.sketch.table.api.IRowIterator;
 import org.hiero.sketch.table.api.IStringConverter;
 
 import javax.annotation.Nullable;
@@ -59,20 +58,25 @@ public class Histogram1DLight extends BaseHist1D {
                                 @Nullable final IStringConverter converter) {
         if (this.initialized) //a histogram had already been created
             throw new IllegalAccessError("A histogram cannot be created twice");
+        final RowBatch batch = new RowBatch(membershipSet);
+        while (batch.next())
+            this.addBatch(batch.getValues(column, converter));
         this.initialized = true;
-        final IRowIterator myIter = membershipSet.getIterator();
-        int currRow = myIter.getNextRow();
-        while (currRow >= 0) {
-            if (column.isMissing(currRow))
-                this.missingData++;
-            else {
-                double val = column.asDouble(currRow, converter);
-                int index = this.bucketDescription.indexOf(val);
-                if (index >= 0)
-                    this.buckets[index]++;
-                else this.outOfRange++;
-            }
-            currRow = myIter.getNextRow();
+    }
+
+    /**
+     * Adds the rows of a batch to the histogram.
+     */
+    public void addBatch(final RowBatch.ColumnValues values) {
+        this.initialized = true;
+        this.missingData += values.missingCount;
+        for (int i = 0; i < values.count; i++) {
+            if (values.isMissing(i))
+                continue;
+            int index = this.bucketDescription.indexOf(values.values[i]);
+            if (index >= 0)
+                this.buckets[index]++;
+            else this.outOfRange++;
         }
     }
 
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.hiero.sketch.dataset.api.IJson;
+import org.hiero.sketch.dataset.api.IMemoryUsage;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+
+/**
+ * A HyperLogLog estimate of the number of distinct values in a set, as described by
+ * Flajolet, Fusy, Gandouet and Meunier, with linear counting for small sets.
+ * Values are added as 64-bit hashes.  The relative standard error is about
+ * 1.04 / sqrt(2^precision), and the estimates of two sets can be merged.
+ */
+public class HyperLogLog implements Serializable, IJson, IMemoryUsage {
+    /**
+     * Log of the number of registers.
+     */
+    private final int precision;
+    /**
+     * Register i holds the largest rank of the hashes whose top bits are i.
+     */
+    private final byte[] registers;
+    private long missingCount;
+
+    public HyperLogLog(final int precision) {
+        if ((precision < 4) || (precision > 18))
+            throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 18: "
+                    + precision);
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+        this.missingCount = 0;
+    }
+
+    public int getPrecision() { return this.precision; }
+
+    @Override
+    public long getMemoryUsage(@Nullable final Object unused) {
+        return this.registers.length;
+    }
+
+    public long getMissingCount() { return this.missingCount; }
+
+    public void addMissing() { this.missingCount++; }
+
+    /**
+     * Adds a value to the set, given a well-mixed 64-bit hash of the value.
+     */
+    public void add(final long hash) {
+        final int index = (int) (hash >>> (64 - this.precision));
+        // The low bits, followed by a 1 which bounds the rank.
+        final long rest = (hash << this.precision) | (1L << (this.precision - 1));
+        final byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > this.registers[index])
+            this.registers[index] = rank;
+    }
+
+    /**
+     * @return An estimate for the union of the two sets; neither is modified.
+     */
+    public HyperLogLog union(final HyperLogLog other) {
+        if (this.precision != other.precision)
+            throw new IllegalArgumentException("HyperLogLog union with different precision");
+        final HyperLogLog result = new HyperLogLog(this.precision);
+        for (int i = 0; i < this.registers.length; i++)
+            result.registers[i] = (byte) Math.max(this.registers[i], other.registers[i]);
+        result.missingCount = this.missingCount + other.missingCount;
+        return result;
+    }
+
+    /**
+     * @return The estimated number of distinct values.
+     */
+    public long distinctCount() {
+        final int m = this.registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : this.registers) {
+            sum += Math.scalb(1.0, -r);
+            if (r == 0)
+                zeros++;
+        }
+        final double alpha;
+        switch (m) {
+            case 16:
+                alpha = 0.673;
+                break;
+            case 32:
+                alpha = 0.697;
+                break;
+            case 64:
+                alpha = 0.709;
+                break;
+            default:
+                alpha = 0.7213 / (1 + (1.079 / m));
+        }
+        final double estimate = (alpha * m * m) / sum;
+        if ((estimate <= (2.5 * m)) && (zeros > 0))
+            return Math.round(m * Math.log((double) m / zeros));
+        return Math.round(estimate);
+    }
+
+    @Override
+    public JsonElement toJsonTree() {
+        final JsonObject result = new JsonObject();
+        result.addProperty("distinctCount", this.distinctCount());
+        result.addProperty("missingCount", this.missingCount);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog(" + this.distinctCount() + ")";
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+import org.hiero.sketch.dataset.api.ISketch;
+import org.hiero.sketch.table.api.ITable;
+
+/**
+ * A sketch of a table computed by adding batches of rows to an initially zero result.
+ * Sketches of this kind can share one scan of a table; see ConcurrentBatchSketch.
+ * @param <R> Output data type; it is mutated by addBatch.
+ */
+public interface IBatchSketch<R> extends ISketch<ITable, R> {
+    /**
+     * @return The fraction of the rows of the table that are sketched.
+     */
+    double getSamplingRate();
+
+    /**
+     * Adds the rows of a batch of data to result.
+     * @param data   Table that the batch comes from.
+     * @param result A value obtained from zero() and only modified by addBatch.
+     * @param batch  Batch of rows of data.
+     */
+    void addBatch(ITable data, R result, RowBatch batch);
+
+    @Override
+    default R create(final ITable data) {
+        final R result = this.getZero();
+        final RowBatch batch = new RowBatch(
+                data.getMembershipSet().sample(this.getSamplingRate()));
+        while (batch.next())
+            this.addBatch(data, result, batch);
+        return result;
+    }
+}
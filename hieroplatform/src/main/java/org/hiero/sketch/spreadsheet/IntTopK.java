@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+import org.hiero.sketch.table.api.IntComparator;
+import org.hiero.utils.IntSort;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the maxSize smallest distinct rows pushed, according to an IntComparator, and
+ * counts how many pushed rows are equal to each of them.  This is a primitive version
+ * of TreeTopK for row indexes.  Rows are appended to a buffer; when the buffer is full
+ * it is sorted, equal rows are merged, and only the smallest maxSize are kept.  Once
+ * maxSize distinct rows are kept, a row larger than all of them is rejected with a single
+ * comparison.
+ */
+public class IntTopK {
+    private final int maxSize;
+    private final IntComparator greater;
+    /**
+     * The first size entries of rows and counts hold the buffered rows and their counts.
+     */
+    private int[] rows;
+    private int[] counts;
+    private int size;
+    /**
+     * The first kept entries are sorted distinct rows, the result of the last compaction.
+     */
+    private int kept;
+    /**
+     * The largest row kept; only valid if full is true.
+     */
+    private int cutoff;
+    private boolean full;
+    /**
+     * True if the buffer is sorted and holds distinct rows.
+     */
+    private boolean compacted;
+    // Temporary arrays for merging.
+    private int[] tmpRows;
+    private int[] tmpCounts;
+
+    public IntTopK(final int maxSize, final IntComparator greater) {
+        if (maxSize < 0)
+            throw new IllegalArgumentException("Size should not be negative");
+        this.maxSize = maxSize;
+        this.greater = greater;
+        final int capacity = maxSize + Math.max(maxSize, 1024);
+        this.rows = new int[capacity];
+        this.counts = new int[capacity];
+        this.tmpRows = new int[capacity];
+        this.tmpCounts = new int[capacity];
+        this.size = 0;
+        this.kept = 0;
+        this.full = false;
+        this.compacted = true;
+    }
+
+    public void push(final int row) {
+        if (this.full && (this.greater.compare(row, this.cutoff) > 0))
+            return;
+        if (this.size == this.rows.length)
+            this.compact();
+        this.rows[this.size] = row;
+        this.counts[this.size] = 1;
+        this.size++;
+        this.compacted = false;
+    }
+
+    /**
+     * Sorts the rows pushed since the last compaction, merges them with the rows kept,
+     * combining equal rows, and keeps the smallest maxSize.
+     */
+    private void compact() {
+        if (this.compacted)
+            return;
+        IntSort.sort(this.rows, this.kept, this.size, this.greater);
+        int i = 0, j = this.kept, distinct = 0;
+        while ((i < this.kept) || (j < this.size)) {
+            final int row;
+            final int count;
+            if ((j == this.size) ||
+                    ((i < this.kept) && (this.greater.compare(this.rows[j], this.rows[i]) >= 0))) {
+                row = this.rows[i];
+                count = this.counts[i++];
+            } else {
+                row = this.rows[j];
+                count = this.counts[j++];
+            }
+            if ((distinct > 0) && (this.greater.compare(this.tmpRows[distinct - 1], row) == 0)) {
+                this.tmpCounts[distinct - 1] += count;
+            } else {
+                if (distinct == this.maxSize)
+                    break;
+                this.tmpRows[distinct] = row;
+                this.tmpCounts[distinct] = count;
+                distinct++;
+            }
+        }
+        int[] swap = this.rows;
+        this.rows = this.tmpRows;
+        this.tmpRows = swap;
+        swap = this.counts;
+        this.counts = this.tmpCounts;
+        this.tmpCounts = swap;
+        this.size = distinct;
+        this.kept = distinct;
+        if ((this.size == this.maxSize) && (this.size > 0)) {
+            this.full = true;
+            this.cutoff = this.rows[this.size - 1];
+        }
+        this.compacted = true;
+    }
+
+    /**
+     * @return The number of distinct rows kept.
+     */
+    public int size() {
+        this.compact();
+        return this.size;
+    }
+
+    /**
+     * @return The distinct rows kept, in increasing order.
+     */
+    public int[] getRows() {
+        this.compact();
+        return Arrays.copyOf(this.rows, this.size);
+    }
+
+    /**
+     * @return For each row returned by getRows, the number of pushed rows equal to it.
+     */
+    public int[] getCounts() {
+        this.compact();
+        return Arrays.copyOf(this.counts, this.size);
+    }
+}
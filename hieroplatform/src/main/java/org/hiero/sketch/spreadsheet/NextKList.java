@@ -26,7 +26,9 @@ import org.hiero.sketch.table.Schema;
 import org.hiero.sketch.table.SmallTable;
 import org.hiero.sketch.table.api.IRowIterator;
 import org.hiero.sketch.dataset.api.IJson;
+import org.hiero.sketch.dataset.api.IMemoryUsage;
 
+import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -35,7 +37,7 @@ import java.util.List;
  * The data structure used to store the next K rows in a Table from a given starting point (topRow)
  * according to a RecordSortOrder.
  */
-public class NextKList implements Serializable, IJson {
+public class NextKList implements Serializable, IJson, IMemoryUsage {
     public final SmallTable table;
     /**
      * The number of times each row in the above table occurs in the original DataSet.
@@ -60,6 +62,11 @@ public class NextKList implements Serializable, IJson {
             throw new IllegalArgumentException("Mismatched table and count length");
     }
 
+    @Override
+    public long getMemoryUsage(@Nullable final Object unused) {
+        return this.table.getMemoryUsage(null) + (16L * this.count.size());
+    }
+
     /**
      * A NextK list containing an empty table with the specified schema.
      */
@@ -18,6 +18,7 @@
 
 package org.hiero.sketch.spreadsheet;
 
+import org.hiero.sketch.dataset.api.CancellationToken;
 import org.hiero.sketch.dataset.api.ISketch;
 import org.hiero.sketch.table.*;
 import org.hiero.sketch.table.api.*;
@@ -25,8 +26,8 @@ import org.hiero.utils.Converters;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.SortedMap;
 
 /**
  * Given a data set, the NextKSketch generates the Next K items in Sorted Order (specified by a
@@ -58,27 +59,31 @@ public class NextKSketch implements ISketch<ITable, NextKList> {
      */
     @Override
     public NextKList create(ITable data) {
-        IndexComparator comp = this.recordOrder.getComparator(data);
-        TreeTopK<Integer> topK = new TreeTopK<Integer>(this.maxSize, comp);
-        IRowIterator rowIt = data.getRowIterator();
+        IntTopK topK = new IntTopK(this.maxSize, this.recordOrder.getComparator(data));
         RowTableComparison rowToTable = new RowTableComparison(this.topRow, data, this.recordOrder);
-        int i, position = 0;
-        do {
-            i = rowIt.getNextRow();
-            if (i >= 0) {
+        IRowIterator rowIt = data.getRowIterator();
+        int[] batch = new int[IRowIterator.batchSize];
+        int position = 0;
+        CancellationToken token = CancellationToken.current();
+        int count = rowIt.getNextBatch(batch);
+        while (count > 0) {
+            token.throwIfCancelled();
+            for (int b = 0; b < count; b++) {
+                int i = batch[b];
                 if (rowToTable.compareToRow(i) >= 0) {
                     topK.push(i);
                 } else {
                     position++;
                 }
             }
-        } while (i >= 0);
-        SortedMap<Integer, Integer> topKList = topK.getTopK();
-        IRowOrder rowOrder = new ArrayRowOrder(topKList.keySet());
+            count = rowIt.getNextBatch(batch);
+        }
+        IRowOrder rowOrder = new ArrayRowOrder(topK.getRows());
         SmallTable topKRows = data.compress(this.recordOrder.toSubSchema(), rowOrder);
-        List<Integer> count = new ArrayList<Integer>();
-        count.addAll(topKList.values());
-        return new NextKList(topKRows, count, position, data.getNumOfRows());
+        List<Integer> counts = new ArrayList<Integer>(topK.size());
+        for (int c : topK.getCounts())
+            counts.add(c);
+        return new NextKList(topKRows, counts, position, data.getNumOfRows());
     }
 
     /**
@@ -176,6 +181,11 @@ public class NextKSketch implements ISketch<ITable, NextKList> {
         return new NextKList(this.recordOrder.toSchema());
     }
 
+    @Override
+    public Object getCacheKey() {
+        return Arrays.asList(this.getClass(), this.recordOrder, this.topRow, this.maxSize);
+    }
+
     @Override
     public String toString() {
         return "NextKSketch(" + this.maxSize + ")";
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+import org.hiero.sketch.table.api.IStringConverter;
+import org.hiero.sketch.table.api.ITable;
+import org.hiero.utils.Converters;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Computes approximate quantiles of a numeric column over all its rows; the result
+ * of a distributed computation has the same rank error as that of a single table.
+ */
+public class NumericQuantileSketch implements IBatchSketch<NumericQuantiles> {
+    final String colName;
+    @Nullable
+    final IStringConverter converter;
+    final int k;
+    /**
+     * Default accuracy: a rank error of about 1%.
+     */
+    public static final int defaultK = 200;
+
+    public NumericQuantileSketch(final String colName, @Nullable final IStringConverter converter) {
+        this(colName, converter, defaultK);
+    }
+
+    public NumericQuantileSketch(final String colName, @Nullable final IStringConverter converter,
+                                 final int k) {
+        this.colName = colName;
+        this.converter = converter;
+        this.k = k;
+    }
+
+    @Override
+    public double getSamplingRate() { return 1.0; }
+
+    @Override
+    public Object getCacheKey() {
+        return Arrays.asList(this.getClass(), this.colName, this.converter, this.k);
+    }
+
+    @Override
+    public void addBatch(final ITable data, final NumericQuantiles result, final RowBatch batch) {
+        result.addBatch(batch.getValues(data.getColumn(this.colName), this.converter));
+    }
+
+    @Override
+    public NumericQuantiles add(@Nullable final NumericQuantiles left,
+                                @Nullable final NumericQuantiles right) {
+        return Converters.checkNull(left).union(Converters.checkNull(right));
+    }
+
+    @Override
+    public NumericQuantiles zero() {
+        return new NumericQuantiles(this.k);
+    }
+}
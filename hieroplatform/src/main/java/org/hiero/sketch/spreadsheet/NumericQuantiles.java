@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.hiero.sketch.dataset.api.IJson;
+import org.hiero.sketch.dataset.api.IMemoryUsage;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A mergeable summary of a stream of doubles from which approximate quantiles can be
+ * read, following the KLL sketch of Karnin, Lang and Liberty.  Values are kept in levels
+ * of double buffers; each value in level h stands for 2^h values of the data.  When the
+ * summary becomes too large the lowest full level is compacted: it is sorted and every
+ * other value, starting at a random offset, is promoted to the next level.
+ * The rank error is about 2/k of the number of values with high probability, for
+ * any number of values and any number of merges.
+ */
+public class NumericQuantiles implements Serializable, IJson, IMemoryUsage {
+    /**
+     * Capacity of the top level; lower levels have geometrically smaller capacities.
+     */
+    private final int k;
+    /**
+     * Ratio between the capacities of consecutive levels.
+     */
+    private static final double capacityRatio = 2.0 / 3.0;
+    /**
+     * Level h holds sizes[h] values, stored at the start of levels[h].
+     */
+    private double[][] levels;
+    private int[] sizes;
+    /**
+     * Number of values held in all levels, and the maximum before compacting.
+     */
+    private int retained;
+    private int maxRetained;
+    private long count;
+    private long missingCount;
+    // Meaningful only if count > 0.
+    private double min;
+    private double max;
+
+    /**
+     * @param k  Accuracy parameter; the summary holds about 3k values.
+     */
+    public NumericQuantiles(final int k) {
+        if (k < 8)
+            throw new IllegalArgumentException("Quantile accuracy must be at least 8: " + k);
+        this.k = k;
+        this.levels = new double[][] { new double[k] };
+        this.sizes = new int[1];
+        this.retained = 0;
+        this.maxRetained = this.computeMaxRetained();
+        this.count = 0;
+        this.missingCount = 0;
+    }
+
+    public int getK() { return this.k; }
+
+    /**
+     * @return The number of values summarized.
+     */
+    public long getCount() { return this.count; }
+
+    public long getMissingCount() { return this.missingCount; }
+
+    /**
+     * @return The number of values held by the summary.
+     */
+    public int getRetained() { return this.retained; }
+
+    public double getMin() { return this.min; }
+
+    public double getMax() { return this.max; }
+
+    @Override
+    public long getMemoryUsage(@Nullable final Object unused) {
+        long bytes = 0;
+        for (final double[] level : this.levels)
+            bytes += 8L * level.length;
+        return bytes;
+    }
+
+    private int capacity(final int level) {
+        final int depth = this.levels.length - 1 - level;
+        return Math.max(2, (int) Math.ceil(this.k * Math.pow(capacityRatio, depth)));
+    }
+
+    private int computeMaxRetained() {
+        int total = 0;
+        for (int h = 0; h < this.levels.length; h++)
+            total += this.capacity(h);
+        return total;
+    }
+
+    private void append(final int level, final double value) {
+        double[] buffer = this.levels[level];
+        if (this.sizes[level] == buffer.length) {
+            buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            this.levels[level] = buffer;
+        }
+        buffer[this.sizes[level]++] = value;
+    }
+
+    private void addLevel() {
+        final int height = this.levels.length;
+        this.levels = Arrays.copyOf(this.levels, height + 1);
+        this.levels[height] = new double[this.k];
+        this.sizes = Arrays.copyOf(this.sizes, height + 1);
+        this.maxRetained = this.computeMaxRetained();
+    }
+
+    /**
+     * Compacts the lowest level that is at capacity, halving its weight in the summary.
+     */
+    private void compact() {
+        int level = 0;
+        while (this.sizes[level] < this.capacity(level))
+            level++;
+        if (level == (this.levels.length - 1))
+            this.addLevel();
+        final double[] buffer = this.levels[level];
+        final int size = this.sizes[level];
+        Arrays.sort(buffer, 0, size);
+        // An odd value out stays in this level.
+        final int even = size & ~1;
+        int i = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+        for (; i < even; i += 2)
+            this.append(level + 1, buffer[i]);
+        if (even != size)
+            buffer[0] = buffer[size - 1];
+        this.sizes[level] = size - even;
+        this.retained -= even / 2;
+    }
+
+    private void compress() {
+        while (this.retained > this.maxRetained)
+            this.compact();
+    }
+
+    public void add(final double value) {
+        if (this.count == 0) {
+            this.min = value;
+            this.max = value;
+        } else if (value < this.min) {
+            this.min = value;
+        } else if (value > this.max) {
+            this.max = value;
+        }
+        this.count++;
+        this.append(0, value);
+        this.retained++;
+        if (this.retained > this.maxRetained)
+            this.compress();
+    }
+
+    public void addMissing() { this.missingCount++; }
+
+    /**
+     * Adds the values of a batch to the summary.
+     */
+    public void addBatch(final RowBatch.ColumnValues values) {
+        for (int i = 0; i < values.count; i++) {
+            if (values.isMissing(i))
+                this.missingCount++;
+            else
+                this.add(values.values[i]);
+        }
+    }
+
+    /**
+     * @return A summary of the values in this and other; neither is modified.
+     */
+    public NumericQuantiles union(final NumericQuantiles other) {
+        if (this.k != other.k)
+            throw new IllegalArgumentException("Quantile union with different accuracy");
+        final NumericQuantiles result = new NumericQuantiles(this.k);
+        final int height = Math.max(this.levels.length, other.levels.length);
+        result.levels = new double[height][];
+        result.sizes = new int[height];
+        for (int h = 0; h < height; h++) {
+            final int left = (h < this.levels.length) ? this.sizes[h] : 0;
+            final int right = (h < other.levels.length) ? other.sizes[h] : 0;
+            final double[] buffer = new double[Math.max(this.k, left + right)];
+            if (left > 0)
+                System.arraycopy(this.levels[h], 0, buffer, 0, left);
+            if (right > 0)
+                System.arraycopy(other.levels[h], 0, buffer, left, right);
+            result.levels[h] = buffer;
+            result.sizes[h] = left + right;
+        }
+        result.retained = this.retained + other.retained;
+        result.maxRetained = result.computeMaxRetained();
+        result.count = this.count + other.count;
+        result.missingCount = this.missingCount + other.missingCount;
+        if (this.count == 0) {
+            result.min = other.min;
+            result.max = other.max;
+        } else if (other.count == 0) {
+            result.min = this.min;
+            result.max = this.max;
+        } else {
+            result.min = Math.min(this.min, other.min);
+            result.max = Math.max(this.max, other.max);
+        }
+        result.compress();
+        return result;
+    }
+
+    /**
+     * @return The approximate fraction of the values that are less than or equal to value.
+     */
+    public double getRank(final double value) {
+        if (this.count == 0)
+            return 0;
+        long weight = 0;
+        for (int h = 0; h < this.levels.length; h++) {
+            final double[] buffer = this.levels[h];
+            int below = 0;
+            for (int i = 0; i < this.sizes[h]; i++)
+                if (buffer[i] <= value)
+                    below++;
+            weight += (long) below << h;
+        }
+        return (double) weight / this.count;
+    }
+
+    /**
+     * @param fractions  Sorted fractions between 0 and 1.
+     * @return For each fraction q, a value whose rank is approximately q.  The values
+     * for 0 and 1 are the exact minimum and maximum.
+     */
+    public double[] getQuantiles(final double[] fractions) {
+        if (this.count == 0)
+            throw new RuntimeException("Quantiles of empty data");
+        final double[] values = new double[this.retained];
+        final long[] weights = new long[this.retained];
+        this.getSortedValues(values, weights);
+        final double[] result = new double[fractions.length];
+        long cumulative = 0;
+        int index = 0;
+        for (int i = 0; i < fractions.length; i++) {
+            final double q = fractions[i];
+            if ((q < 0) || (q > 1) || ((i > 0) && (q < fractions[i - 1])))
+                throw new IllegalArgumentException("Fractions must be sorted between 0 and 1");
+            if (q == 0) {
+                result[i] = this.min;
+                continue;
+            }
+            if (q == 1) {
+                result[i] = this.max;
+                continue;
+            }
+            final double target = q * this.count;
+            while ((index < (values.length - 1)) && ((cumulative + weights[index]) < target)) {
+                cumulative += weights[index];
+                index++;
+            }
+            result[i] = values[index];
+        }
+        return result;
+    }
+
+    public double getQuantile(final double fraction) {
+        return this.getQuantiles(new double[] { fraction })[0];
+    }
+
+    /**
+     * @return Boundaries of bucketCount buckets holding approximately equal numbers of values.
+     */
+    public BucketsDescription1D getEqualDepthBuckets(final int bucketCount) {
+        if (bucketCount <= 0)
+            throw new IllegalArgumentException("Number of buckets must be positive: " + bucketCount);
+        final double[] fractions = new double[bucketCount + 1];
+        for (int i = 0; i <= bucketCount; i++)
+            fractions[i] = (double) i / bucketCount;
+        // Rounding may produce a last fraction slightly below 1.
+        fractions[bucketCount] = 1;
+        return new BucketsDescription1D(this.getQuantiles(fractions));
+    }
+
+    /**
+     * Fills values with all retained values in sorted order, and weights with their weights.
+     * Each level is sorted and merged into the levels below it.
+     */
+    private void getSortedValues(final double[] values, final long[] weights) {
+        final double[] mergedValues = new double[values.length];
+        final long[] mergedWeights = new long[weights.length];
+        int size = 0;
+        for (int h = 0; h < this.levels.length; h++) {
+            final int levelSize = this.sizes[h];
+            if (levelSize == 0)
+                continue;
+            final double[] level = Arrays.copyOf(this.levels[h], levelSize);
+            Arrays.sort(level);
+            final long weight = 1L << h;
+            int i = 0, j = 0, m = 0;
+            while ((i < size) || (j < levelSize)) {
+                if ((j == levelSize) || ((i < size) && (values[i] <= level[j]))) {
+                    mergedValues[m] = values[i];
+                    mergedWeights[m] = weights[i];
+                    i++;
+                } else {
+                    mergedValues[m] = level[j];
+                    mergedWeights[m] = weight;
+                    j++;
+                }
+                m++;
+            }
+            size = m;
+            System.arraycopy(mergedValues, 0, values, 0, size);
+            System.arraycopy(mergedWeights, 0, weights, 0, size);
+        }
+    }
+
+    /**
+     * Serialized as the count, minimum, maximum and the 101 percentiles of the values.
+     */
+    @Override
+    public JsonElement toJsonTree() {
+        final JsonObject result = new JsonObject();
+        result.addProperty("count", this.count);
+        result.addProperty("missingCount", this.missingCount);
+        result.addProperty("min", this.count == 0 ? 0 : this.min);
+        result.addProperty("max", this.count == 0 ? 0 : this.max);
+        final JsonArray percentiles = new JsonArray();
+        if (this.count > 0) {
+            final double[] fractions = new double[101];
+            for (int i = 0; i <= 100; i++)
+                fractions[i] = i / 100.0;
+            for (double v : this.getQuantiles(fractions))
+                percentiles.add(v);
+        }
+        result.add("percentiles", percentiles);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "NumericQuantiles(" + this.count + " values, " + this.retained + " retained)";
+    }
+}
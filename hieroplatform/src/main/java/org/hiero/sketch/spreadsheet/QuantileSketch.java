@@ -80,7 +80,7 @@ public class QuantileSketch implements ISketch<ITable, QuantileList> {
         /* Sample a set of rows from the table, then sort the sampled rows. */
         final IMembershipSet sampleSet = data.getMembershipSet().sample(this.resolution * perBin);
         final SmallTable sampleTable = data.compress(sampleSet);
-        final Integer[] order = this.colSortOrder.getSortedRowOrder(sampleTable);
+        final int[] order = this.colSortOrder.getSortedRowOrder(sampleTable);
         /* We will shrink the set of samples  down to slack*resolution. Number of samples might be
             less than resolution*perBin, because of repetitions. */
         final int newRes = Math.min(this.slack * this.resolution, sampleSet.getSize());
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+import org.hiero.sketch.dataset.api.CancellationToken;
+import org.hiero.sketch.table.api.ICategoryColumn;
+import org.hiero.sketch.table.api.IColumn;
+import org.hiero.sketch.table.api.IMembershipSet;
+import org.hiero.sketch.table.api.IRowIterator;
+import org.hiero.sketch.table.api.IStringConverter;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of rows of a membership set, together with the values read from columns
+ * for these rows.  Sketches scanning the same rows can share a RowBatch; a column is then
+ * read once per batch, however many sketches use it.  Moving to the next batch checks the
+ * CancellationToken of the computation that created the RowBatch.
+ */
+public final class RowBatch {
+    private final IRowIterator iterator;
+    private final CancellationToken token;
+    final int[] rows;
+    int count;
+    private final List<ColumnValues> columns;
+
+    public RowBatch(final IMembershipSet membershipSet) {
+        this.iterator = membershipSet.getIterator();
+        this.rows = new int[IRowIterator.batchSize];
+        this.count = 0;
+        this.columns = new ArrayList<ColumnValues>();
+        this.token = CancellationToken.current();
+    }
+
+    /**
+     * Moves to the next batch of rows.
+     * @return False when there are no more rows.
+     * @throws java.util.concurrent.CancellationException if the computation is cancelled.
+     */
+    public boolean next() {
+        this.token.throwIfCancelled();
+        this.count = this.iterator.getNextBatch(this.rows);
+        for (ColumnValues c : this.columns)
+            c.valid = false;
+        return this.count > 0;
+    }
+
+    /**
+     * @return The number of rows in the current batch.
+     */
+    public int getCount() { return this.count; }
+
+    /**
+     * @return The index in the table of the i-th row of the current batch.
+     */
+    public int getRow(final int i) { return this.rows[i]; }
+
+    /**
+     * The values of a column, converted to doubles, for the rows of the current batch.
+     */
+    public ColumnValues getValues(final IColumn column,
+                                  @Nullable final IStringConverter converter) {
+        for (ColumnValues c : this.columns) {
+            if ((c.column == column) && (c.converter == converter)) {
+                c.read(this);
+                return c;
+            }
+        }
+        final ColumnValues result = new ColumnValues(this.rows, column, converter);
+        this.columns.add(result);
+        result.read(this);
+        return result;
+    }
+
+    public static final class ColumnValues {
+        final IColumn column;
+        @Nullable
+        final IStringConverter converter;
+        // For a category column: the value of each code, computed once.
+        @Nullable
+        private final double[] codeValues;
+        final boolean[] missing;
+        final double[] values;
+        int missingCount;
+        int count;
+        // Shared with the RowBatch.
+        private final int[] rows;
+        private boolean valid;
+
+        private ColumnValues(final int[] rows, final IColumn column,
+                             @Nullable final IStringConverter converter) {
+            this.rows = rows;
+            this.column = column;
+            this.converter = converter;
+            if (column instanceof ICategoryColumn)
+                this.codeValues = ((ICategoryColumn) column).decodeAsDouble(converter);
+            else
+                this.codeValues = null;
+            this.missing = new boolean[IRowIterator.batchSize];
+            this.values = new double[IRowIterator.batchSize];
+            this.valid = false;
+        }
+
+        private void read(final RowBatch batch) {
+            if (this.valid)
+                return;
+            this.count = batch.count;
+            if (this.codeValues != null) {
+                final ICategoryColumn categories = (ICategoryColumn) this.column;
+                this.missingCount = 0;
+                for (int i = 0; i < this.count; i++) {
+                    final int code = categories.getCode(this.rows[i]);
+                    this.missing[i] = code < 0;
+                    if (code < 0)
+                        this.missingCount++;
+                    else
+                        this.values[i] = this.codeValues[code];
+                }
+            } else {
+                this.missingCount = this.column.getMissing(this.rows, this.count, this.missing);
+                this.column.asDoubles(this.rows, this.count, this.converter, this.values);
+            }
+            this.valid = true;
+        }
+
+        public int getCount() { return this.count; }
+
+        public int getMissingCount() { return this.missingCount; }
+
+        public boolean isMissing(final int i) {
+            return (this.missingCount > 0) && this.missing[i];
+        }
+
+        /**
+         * @return The value of the i-th row of the batch; unspecified if it is missing.
+         */
+        public double getValue(final int i) { return this.values[i]; }
+
+        /**
+         * The value of the i-th row of the batch as an object; this is slow.
+         */
+        @Nullable
+        public Object getObject(final int i) { return this.column.getObject(this.rows[i]); }
+    }
+}
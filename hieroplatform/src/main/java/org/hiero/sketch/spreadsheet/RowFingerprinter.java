@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+import org.hiero.sketch.table.Schema;
+import org.hiero.sketch.table.api.ContentsKind;
+import org.hiero.sketch.table.api.ICategoryColumn;
+import org.hiero.sketch.table.api.IColumn;
+import org.hiero.sketch.table.api.ITable;
+import org.hiero.utils.Converters;
+
+import java.util.List;
+
+/**
+ * Computes 64-bit fingerprints of the values of some columns in the rows of a table,
+ * without allocating objects for numeric and category values.  Rows with equal values
+ * have equal fingerprints, also across tables; distinct rows collide with probability
+ * about 2^-64.  The strings of a category column are hashed once per code.
+ */
+final class RowFingerprinter {
+    private static final long missingValue = 0x5bd1e9955bd1e995L;
+    private final IColumn[] columns;
+    // For category columns: the hash of each code.
+    private final long[][] codeHashes;
+    private final ContentsKind[] kinds;
+
+    RowFingerprinter(final ITable data, final Schema schema) {
+        final List<String> colNames = schema.getColumnNames();
+        this.columns = new IColumn[colNames.size()];
+        this.codeHashes = new long[this.columns.length][];
+        this.kinds = new ContentsKind[this.columns.length];
+        for (int c = 0; c < this.columns.length; c++) {
+            this.columns[c] = data.getColumn(colNames.get(c));
+            if (this.columns[c] instanceof ICategoryColumn) {
+                final ICategoryColumn category = (ICategoryColumn) this.columns[c];
+                this.codeHashes[c] = new long[category.getDictionarySize()];
+                for (int code = 0; code < this.codeHashes[c].length; code++)
+                    this.codeHashes[c][code] = hashString(category.decode(code));
+            }
+            this.kinds[c] = this.columns[c].getDescription().kind;
+        }
+    }
+
+    /**
+     * The finalizer of the 64-bit MurmurHash3.
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * A 64-bit hash of the chars of a string, in the style of the 128-bit MurmurHash3:
+     * each block of 4 chars is scrambled and mixed into the state, and the length is
+     * mixed in at the end.  Strings of the same length with at most 4 chars never collide.
+     */
+    private static long hashString(final String s) {
+        final int length = s.length();
+        long h = 0x9368e53c2f6af274L;
+        int i = 0;
+        for (; (i + 4) <= length; i += 4) {
+            final long block = s.charAt(i) | ((long) s.charAt(i + 1) << 16) |
+                    ((long) s.charAt(i + 2) << 32) | ((long) s.charAt(i + 3) << 48);
+            h = mixBlock(h, block);
+        }
+        if (i < length) {
+            long block = 0;
+            for (int shift = 0; i < length; i++, shift += 16)
+                block |= (long) s.charAt(i) << shift;
+            h = mixBlock(h, block);
+        }
+        return mix(h ^ length);
+    }
+
+    private static long mixBlock(final long h, long block) {
+        block *= 0x87c37b91114253d5L;
+        block = Long.rotateLeft(block, 31);
+        block *= 0x4cf5ad432745937fL;
+        return (Long.rotateLeft(h ^ block, 27) * 5) + 0x52dce729L;
+    }
+
+    long fingerprint(final int rowIndex) {
+        long h = this.columns.length;
+        for (int c = 0; c < this.columns.length; c++) {
+            final IColumn column = this.columns[c];
+            final long value;
+            final long[] hashes = this.codeHashes[c];
+            if (hashes != null) {
+                final int code = ((ICategoryColumn) column).getCode(rowIndex);
+                value = (code < 0) ? missingValue : hashes[code];
+            } else if (column.isMissing(rowIndex)) {
+                value = missingValue;
+            } else {
+                switch (this.kinds[c]) {
+                    case Integer:
+                        value = mix(column.getInt(rowIndex));
+                        break;
+                    case Double:
+                        value = mix(Double.doubleToLongBits(column.getDouble(rowIndex)));
+                        break;
+                    case Date:
+                    case Duration:
+                        value = mix(column.getLong(rowIndex));
+                        break;
+                    default:
+                        value = hashString(Converters.checkNull(column.getString(rowIndex)));
+                }
+            }
+            h = mix((h * 0x9e3779b97f4a7c15L) + value);
+        }
+        return h;
+    }
+
+    /**
+     * @return True if the two rows have the same values in the fingerprinted columns.
+     * Category columns are compared on codes.
+     */
+    boolean sameValues(final int row, final int otherRow) {
+        for (int c = 0; c < this.columns.length; c++) {
+            final IColumn column = this.columns[c];
+            if (this.codeHashes[c] != null) {
+                final ICategoryColumn category = (ICategoryColumn) column;
+                if (category.getCode(row) != category.getCode(otherRow))
+                    return false;
+                continue;
+            }
+            final boolean missing = column.isMissing(row);
+            if (missing != column.isMissing(otherRow))
+                return false;
+            if (missing)
+                continue;
+            final boolean same;
+            switch (this.kinds[c]) {
+                case Integer:
+                    same = column.getInt(row) == column.getInt(otherRow);
+                    break;
+                case Double:
+                    same = Double.doubleToLongBits(column.getDouble(row)) ==
+                            Double.doubleToLongBits(column.getDouble(otherRow));
+                    break;
+                case Date:
+                case Duration:
+                    same = column.getLong(row) == column.getLong(otherRow);
+                    break;
+                default:
+                    same = Converters.checkNull(column.getString(row)).equals(
+                            column.getString(otherRow));
+            }
+            if (!same)
+                return false;
+        }
+        return true;
+    }
+}
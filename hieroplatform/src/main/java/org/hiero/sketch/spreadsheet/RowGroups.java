@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+import org.hiero.utils.LongIntMap;
+
+import java.util.Arrays;
+
+/**
+ * Assigns consecutive group numbers to the distinct rows of a table, which are found by
+ * their RowKeys in a LongIntMap.  Since a key may be a fingerprint, a row only belongs to
+ * a group with the same key if it also has the same values as the first row of the group;
+ * groups whose keys collide are chained.
+ */
+final class RowGroups {
+    private final RowKeys rowKeys;
+    /**
+     * Maps each key to the first group with this key.
+     */
+    private final LongIntMap groups;
+    /**
+     * For each group, the next group with the same key, or -1.
+     */
+    private int[] next;
+    /**
+     * For each group, the first row of the table in the group.
+     */
+    private int[] firstRow;
+    private int size;
+
+    RowGroups(final RowKeys rowKeys, final int capacity) {
+        this.rowKeys = rowKeys;
+        this.groups = new LongIntMap(capacity);
+        this.next = new int[Math.max(capacity, 16)];
+        this.firstRow = new int[this.next.length];
+        this.size = 0;
+    }
+
+    /**
+     * @param key  The key of the row.
+     * @return The group of the row, or -1 if it is not in any group.
+     */
+    int find(final long key, final int row) {
+        int group = this.groups.get(key, -1);
+        while ((group >= 0) && !this.rowKeys.sameValues(row, this.firstRow[group]))
+            group = this.next[group];
+        return group;
+    }
+
+    /**
+     * Adds a new group for a row which is not in any group.
+     * @param key  The key of the row.
+     * @return The number of the new group.
+     */
+    int add(final long key, final int row) {
+        final int group = this.size;
+        if (group == this.next.length) {
+            this.next = Arrays.copyOf(this.next, 2 * group);
+            this.firstRow = Arrays.copyOf(this.firstRow, 2 * group);
+        }
+        this.firstRow[group] = row;
+        final int head = this.groups.getOrPut(key, group);
+        if (head == group) {
+            this.next[group] = -1;
+        } else {
+            this.next[group] = this.next[head];
+            this.next[head] = group;
+        }
+        this.size++;
+        return group;
+    }
+
+    int size() { return this.size; }
+
+    int getRow(final int group) { return this.firstRow[group]; }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+import org.hiero.sketch.table.Schema;
+import org.hiero.sketch.table.api.ICategoryColumn;
+import org.hiero.sketch.table.api.IColumn;
+import org.hiero.sketch.table.api.ITable;
+import org.hiero.utils.Converters;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes a 64-bit key for the values of some columns in the rows of a table.  When all
+ * columns are category columns with few enough codes the key packs the dictionary codes,
+ * so that distinct rows have distinct keys; otherwise it is the RowFingerprinter
+ * fingerprint.  Keys of different tables can only be compared in the second case.
+ */
+final class RowKeys {
+    private final ICategoryColumn[] categories;
+    /**
+     * For each column, the number of codes plus one; null if the codes are not packed.
+     */
+    @Nullable
+    private final int[] radix;
+    @Nullable
+    private final RowFingerprinter fingerprinter;
+
+    RowKeys(final ITable data, final Schema schema) {
+        final List<String> colNames = schema.getColumnNames();
+        final IColumn[] columns = new IColumn[colNames.size()];
+        for (int c = 0; c < columns.length; c++)
+            columns[c] = data.getColumn(colNames.get(c));
+        this.categories = new ICategoryColumn[columns.length];
+        this.radix = getRadix(columns, this.categories);
+        this.fingerprinter = (this.radix == null) ? new RowFingerprinter(data, schema) : null;
+    }
+
+    /**
+     * @return For each column, the number of codes plus one, or null if the rows
+     * cannot be keyed by packing their codes into a long.
+     */
+    @Nullable
+    private static int[] getRadix(final IColumn[] columns, final ICategoryColumn[] categories) {
+        final int[] radix = new int[columns.length];
+        long combinations = 1;
+        for (int c = 0; c < columns.length; c++) {
+            if (!(columns[c] instanceof ICategoryColumn))
+                return null;
+            categories[c] = (ICategoryColumn) columns[c];
+            // Codes are shifted by one, so that a missing value gets 0.
+            radix[c] = categories[c].getDictionarySize() + 1;
+            if (combinations > (Long.MAX_VALUE / radix[c]))
+                return null;
+            combinations *= radix[c];
+        }
+        return radix;
+    }
+
+    long getKey(final int rowIndex) {
+        if (this.radix == null)
+            return Converters.checkNull(this.fingerprinter).fingerprint(rowIndex);
+        long key = 0;
+        for (int c = 0; c < this.radix.length; c++)
+            key = (key * this.radix[c]) + this.categories[c].getCode(rowIndex) + 1;
+        return key;
+    }
+
+    /**
+     * @return True if the two rows have the same values.  This only needs to be checked
+     * when the rows have the same key, and the keys are fingerprints.
+     */
+    boolean sameValues(final int row, final int otherRow) {
+        if (this.radix != null)
+            return true;
+        return Converters.checkNull(this.fingerprinter).sameValues(row, otherRow);
+    }
+
+    /**
+     * Batch version of getKey: keys[i] is the key of rowIndexes[i], for i smaller than count.
+     */
+    void getKeys(final int[] rowIndexes, final int count, final long[] keys) {
+        if (this.radix == null) {
+            final RowFingerprinter fp = Converters.checkNull(this.fingerprinter);
+            for (int i = 0; i < count; i++)
+                keys[i] = fp.fingerprint(rowIndexes[i]);
+            return;
+        }
+        // Column at a time: the key of each row is updated with one column at a time.
+        Arrays.fill(keys, 0, count, 0);
+        for (int c = 0; c < this.radix.length; c++) {
+            final ICategoryColumn column = this.categories[c];
+            final int r = this.radix[c];
+            for (int i = 0; i < count; i++)
+                keys[i] = (keys[i] * r) + column.getCode(rowIndexes[i]) + 1;
+        }
+    }
+}
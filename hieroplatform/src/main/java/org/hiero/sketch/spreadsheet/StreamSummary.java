@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+/**
+ * The SpaceSaving algorithm of Metwally, Agrawal and El Abbadi for approximate counts
+ * of frequent keys, using the stream-summary structure: counters are kept in buckets of
+ * equal counts, and the buckets are kept in a list sorted by count, so every update
+ * takes constant time.  Keys are 64-bit fingerprints; each counter also remembers a row
+ * where its key occurs.  When all counters are in use, a new key replaces a key with
+ * the smallest count and inherits that count.  All state is held in primitive arrays.
+ */
+final class StreamSummary {
+    private final int capacity;
+    private int used;
+    // Per counter: key, representative row, bucket, and neighbors in the bucket.
+    private final long[] keys;
+    private final int[] rows;
+    private final int[] bucketOf;
+    private final int[] next;
+    private final int[] prev;
+    // Per bucket: count, first counter, and neighbors in the list of buckets.
+    private final long[] bucketCount;
+    private final int[] bucketHead;
+    private final int[] bucketNext;
+    private final int[] bucketPrev;
+    // Bucket with the smallest count, and first unused bucket (linked by bucketNext).
+    private int minBucket;
+    private int freeBucket;
+    // Open-addressing index from key to counter + 1; 0 marks an empty slot.
+    private final long[] indexKeys;
+    private final int[] indexValues;
+    private final int indexMask;
+
+    StreamSummary(final int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        this.capacity = capacity;
+        this.used = 0;
+        this.keys = new long[capacity];
+        this.rows = new int[capacity];
+        this.bucketOf = new int[capacity];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.bucketCount = new long[capacity + 1];
+        this.bucketHead = new int[capacity + 1];
+        this.bucketNext = new int[capacity + 1];
+        this.bucketPrev = new int[capacity + 1];
+        for (int b = 0; b < this.bucketNext.length; b++)
+            this.bucketNext[b] = b + 1;
+        this.bucketNext[capacity] = -1;
+        this.freeBucket = 0;
+        this.minBucket = -1;
+        final int indexSize = Integer.highestOneBit(Math.max(2, capacity) * 4);
+        this.indexKeys = new long[indexSize];
+        this.indexValues = new int[indexSize];
+        this.indexMask = indexSize - 1;
+    }
+
+    /**
+     * Counts one occurrence of key in the given row.
+     */
+    void add(final long key, final int row) {
+        int slot = (int) RowFingerprinter.mix(key) & this.indexMask;
+        while (this.indexValues[slot] != 0) {
+            if (this.indexKeys[slot] == key) {
+                this.increment(this.indexValues[slot] - 1);
+                return;
+            }
+            slot = (slot + 1) & this.indexMask;
+        }
+        final int counter;
+        if (this.used < this.capacity) {
+            counter = this.used++;
+            this.insertAtCountOne(counter);
+        } else {
+            counter = this.bucketHead[this.minBucket];
+            this.removeFromIndex(this.keys[counter]);
+            // Removing may have shifted the slot of key; search again.
+            slot = (int) RowFingerprinter.mix(key) & this.indexMask;
+            while (this.indexValues[slot] != 0)
+                slot = (slot + 1) & this.indexMask;
+            this.increment(counter);
+        }
+        this.keys[counter] = key;
+        this.rows[counter] = row;
+        this.indexKeys[slot] = key;
+        this.indexValues[slot] = counter + 1;
+    }
+
+    /**
+     * Deletes key from the index, shifting back the following entries of its cluster.
+     */
+    private void removeFromIndex(final long key) {
+        int slot = (int) RowFingerprinter.mix(key) & this.indexMask;
+        while (this.indexKeys[slot] != key)
+            slot = (slot + 1) & this.indexMask;
+        int hole = slot;
+        int current = (slot + 1) & this.indexMask;
+        while (this.indexValues[current] != 0) {
+            final int home = (int) RowFingerprinter.mix(this.indexKeys[current]) & this.indexMask;
+            // Move the entry into the hole unless its home lies cyclically in (hole, current].
+            if (((current - home) & this.indexMask) >= ((current - hole) & this.indexMask)) {
+                this.indexKeys[hole] = this.indexKeys[current];
+                this.indexValues[hole] = this.indexValues[current];
+                hole = current;
+            }
+            current = (current + 1) & this.indexMask;
+        }
+        this.indexValues[hole] = 0;
+    }
+
+    private int newBucket(final long count, final int after) {
+        final int bucket = this.freeBucket;
+        this.freeBucket = this.bucketNext[bucket];
+        this.bucketCount[bucket] = count;
+        this.bucketHead[bucket] = -1;
+        this.bucketPrev[bucket] = after;
+        if (after < 0) {
+            this.bucketNext[bucket] = this.minBucket;
+            this.minBucket = bucket;
+        } else {
+            this.bucketNext[bucket] = this.bucketNext[after];
+            this.bucketNext[after] = bucket;
+        }
+        if (this.bucketNext[bucket] >= 0)
+            this.bucketPrev[this.bucketNext[bucket]] = bucket;
+        return bucket;
+    }
+
+    private void freeBucket(final int bucket) {
+        final int before = this.bucketPrev[bucket];
+        final int after = this.bucketNext[bucket];
+        if (before < 0)
+            this.minBucket = after;
+        else
+            this.bucketNext[before] = after;
+        if (after >= 0)
+            this.bucketPrev[after] = before;
+        this.bucketNext[bucket] = this.freeBucket;
+        this.freeBucket = bucket;
+    }
+
+    private void link(final int counter, final int bucket) {
+        final int head = this.bucketHead[bucket];
+        this.bucketOf[counter] = bucket;
+        this.prev[counter] = -1;
+        this.next[counter] = head;
+        if (head >= 0)
+            this.prev[head] = counter;
+        this.bucketHead[bucket] = counter;
+    }
+
+    private void unlink(final int counter) {
+        final int bucket = this.bucketOf[counter];
+        if (this.prev[counter] < 0)
+            this.bucketHead[bucket] = this.next[counter];
+        else
+            this.next[this.prev[counter]] = this.next[counter];
+        if (this.next[counter] >= 0)
+            this.prev[this.next[counter]] = this.prev[counter];
+    }
+
+    private void insertAtCountOne(final int counter) {
+        int bucket = this.minBucket;
+        if ((bucket < 0) || (this.bucketCount[bucket] != 1))
+            bucket = this.newBucket(1, -1);
+        this.link(counter, bucket);
+    }
+
+    private void increment(final int counter) {
+        final int bucket = this.bucketOf[counter];
+        final long count = this.bucketCount[bucket] + 1;
+        final int after = this.bucketNext[bucket];
+        final boolean alone = (this.bucketHead[bucket] == counter) && (this.next[counter] < 0);
+        if ((after >= 0) && (this.bucketCount[after] == count)) {
+            this.unlink(counter);
+            if (alone)
+                this.freeBucket(bucket);
+            this.link(counter, after);
+        } else if (alone) {
+            this.bucketCount[bucket] = count;
+        } else {
+            this.unlink(counter);
+            this.link(counter, this.newBucket(count, bucket));
+        }
+    }
+
+    /**
+     * @return The number of counters in use.
+     */
+    int size() { return this.used; }
+
+    /**
+     * @return A row where the key of counter i occurs.
+     */
+    int getRow(final int i) { return this.rows[i]; }
+
+    /**
+     * @return The count of counter i; it overestimates the occurrences of its key by at
+     * most getMinCount().
+     */
+    long getCount(final int i) { return this.bucketCount[this.bucketOf[i]]; }
+
+    /**
+     * @return The smallest count, or 0 if some counters are not in use yet.
+     */
+    long getMinCount() {
+        if (this.used < this.capacity)
+            return 0;
+        return this.bucketCount[this.minBucket];
+    }
+}
@@ -92,6 +92,9 @@ public class SummarySketch implements ISketch<ITable, SummarySketch.TableSummary
         return left.add(right);
     }
 
+    @Override
+    public Object getCacheKey() { return this.getClass(); }
+
     @Override
     public TableSummary create(ITable data) {
         return new TableSummary(data.getSchema(), data.getNumOfRows());
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.spreadsheet;
+
+import org.hiero.sketch.dataset.TripleSketch;
+import org.hiero.sketch.dataset.api.Triple;
+import org.hiero.sketch.table.api.ITable;
+import org.hiero.utils.Converters;
+
+/**
+ * A TripleSketch of three batch sketches which computes all of them in a single scan
+ * of the table.
+ */
+public class TripleBatchSketch<R1, R2, R3> extends TripleSketch<ITable, R1, R2, R3>
+        implements IBatchSketch<Triple<R1, R2, R3>> {
+    private final IBatchSketch<R1> firstBatch;
+    private final IBatchSketch<R2> secondBatch;
+    private final IBatchSketch<R3> thirdBatch;
+
+    public TripleBatchSketch(final IBatchSketch<R1> first, final IBatchSketch<R2> second,
+                             final IBatchSketch<R3> third) {
+        super(first, second, third);
+        if ((first.getSamplingRate() != second.getSamplingRate()) ||
+                (first.getSamplingRate() != third.getSamplingRate()))
+            throw new IllegalArgumentException("Sketches scanned together must use the same rate");
+        this.firstBatch = first;
+        this.secondBatch = second;
+        this.thirdBatch = third;
+    }
+
+    @Override
+    public double getSamplingRate() { return this.firstBatch.getSamplingRate(); }
+
+    @Override
+    public void addBatch(final ITable data, final Triple<R1, R2, R3> result,
+                         final RowBatch batch) {
+        this.firstBatch.addBatch(data, Converters.checkNull(result.first), batch);
+        this.secondBatch.addBatch(data, Converters.checkNull(result.second), batch);
+        this.thirdBatch.addBatch(data, Converters.checkNull(result.third), batch);
+    }
+
+    @Override
+    public Triple<R1, R2, R3> create(final ITable data) {
+        return IBatchSketch.super.create(data);
+    }
+}
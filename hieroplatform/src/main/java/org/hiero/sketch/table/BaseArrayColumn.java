@@ -23,6 +23,7 @@ import org.hiero.utils.Converters;
 import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.security.InvalidParameterException;
+import java.util.Arrays;
 import java.util.BitSet;
 
 /**
@@ -45,6 +46,35 @@ public abstract class BaseArrayColumn extends BaseColumn implements Serializable
         return this.description.allowMissing && Converters.checkNull(this.missing).get(rowIndex);
     }
 
+    /**
+     * Implementation of the batch getMissing for columns whose missing values are
+     * tracked by the bit vector.
+     */
+    int getMissingFromBitmap(final int[] rowIndexes, final int count, final boolean[] missing) {
+        @Nullable final BitSet bits = this.missing;
+        if (!this.description.allowMissing || (bits == null) || bits.isEmpty()) {
+            Arrays.fill(missing, 0, count, false);
+            return 0;
+        }
+        int missingCount = 0;
+        for (int i = 0; i < count; i++) {
+            missing[i] = bits.get(rowIndexes[i]);
+            if (missing[i])
+                missingCount++;
+        }
+        return missingCount;
+    }
+
+    /**
+     * @return The bit vector of missing values, or null if no row is missing.
+     */
+    @Nullable
+    BitSet getMissingBits() {
+        if (!this.description.allowMissing || (this.missing == null) || this.missing.isEmpty())
+            return null;
+        return this.missing;
+    }
+
     public void setMissing(final int rowIndex) {
         Converters.checkNull(this.missing).set(rowIndex);
     }
@@ -56,6 +86,7 @@ public abstract class BaseArrayColumn extends BaseColumn implements Serializable
     public static BaseArrayColumn create(ColumnDescription description) {
         switch (description.kind) {
             case Category:
+                return new CategoryArrayColumn(description, 0);
             case Json:
             case String:
                 return new StringArrayColumn(description, 0);
@@ -60,6 +60,11 @@ abstract class BaseColumn implements IColumn {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public long getLong(final int rowIndex) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public String getString(final int rowIndex) {
         throw new UnsupportedOperationException();
@@ -20,9 +20,13 @@ package org.hiero.sketch.table;
 
 import org.hiero.sketch.table.api.*;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -105,6 +109,29 @@ public abstract class BaseTable implements ITable {
         return this.columns.get(colName);
     }
 
+    /**
+     * The memory used by the membership set and the columns, except those which are
+     * also used by the shared table.
+     */
+    @Override
+    public long getMemoryUsage(@Nullable final Object shared) {
+        final Set<Object> sharedParts = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        if (shared instanceof ITable) {
+            final ITable table = (ITable) shared;
+            sharedParts.add(table.getMembershipSet());
+            for (String colName : table.getSchema().getColumnNames())
+                sharedParts.add(table.getColumn(colName));
+        }
+        long bytes = 0;
+        if (!sharedParts.contains(this.getMembershipSet()))
+            bytes += this.getMembershipSet().getMemoryUsage();
+        for (IColumn c : this.columns.values()) {
+            if (!sharedParts.contains(c))
+                bytes += c.getMemoryUsage();
+        }
+        return bytes;
+    }
+
     /**
      * Compress generates a table that contains only the columns referred to by subSchema,
      * and only the rows contained in IMembership Set with consecutive numbering.
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.hiero.sketch.table;
+
+import org.hiero.sketch.table.api.ContentsKind;
+import org.hiero.sketch.table.api.ICategoryColumn;
+
+import javax.annotation.Nullable;
+import java.security.InvalidParameterException;
+
+/**
+ * Column of categorical strings, implemented as an array of codes into a dictionary
+ * of distinct values.
+ */
+public final class CategoryArrayColumn extends BaseArrayColumn implements ICategoryColumn {
+    private final int size;
+    private final CategoryDictionary dictionary;
+    private final CategoryCodes codes;
+
+    public CategoryArrayColumn(final ColumnDescription description, final int size) {
+        super(description, size);
+        if (this.description.kind != ContentsKind.Category)
+            throw new InvalidParameterException("Kind should be Category " + this.description.kind);
+        this.size = size;
+        this.dictionary = new CategoryDictionary();
+        this.codes = new CategoryCodes(size);
+    }
+
+    public CategoryArrayColumn(final ColumnDescription description, final String[] data) {
+        this(description, data.length);
+        for (int i = 0; i < data.length; i++)
+            this.set(i, data[i]);
+    }
+
+    @Override
+    public int sizeInRows() {
+        return this.size;
+    }
+
+    @Override
+    public int getCode(final int rowIndex) {
+        return this.codes.get(rowIndex);
+    }
+
+    @Override
+    public int getDictionarySize() {
+        return this.dictionary.size();
+    }
+
+    @Override
+    public String decode(final int code) {
+        return this.dictionary.decode(code);
+    }
+
+    @Nullable
+    @Override
+    public String getString(final int rowIndex) {
+        final int code = this.getCode(rowIndex);
+        return code < 0 ? null : this.decode(code);
+    }
+
+    public void set(final int rowIndex, @Nullable final String value) {
+        this.codes.set(rowIndex, value == null ? -1 : this.encode(value));
+    }
+
+    /**
+     * @return The code of the value in the dictionary of this column, which is
+     * allocated if the value is new.
+     */
+    public int encode(final String value) {
+        return this.dictionary.encode(value);
+    }
+
+    /**
+     * Sets a row to a code returned by encode, or to a negative code for a missing value.
+     */
+    public void setCode(final int rowIndex, final int code) {
+        this.codes.set(rowIndex, code < 0 ? -1 : code);
+    }
+
+    @Override
+    public boolean isMissing(final int rowIndex) { return this.getCode(rowIndex) < 0; }
+
+    @Override
+    public void setMissing(final int rowIndex) { this.set(rowIndex, null); }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.hiero.sketch.table;
+
+import org.hiero.utils.Converters;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A fixed-size array of category codes.  Codes are stored in bytes while they fit,
+ * and the array is widened to shorts and then to ints when a larger code is written.
+ * All entries start as -1, which stands for a missing value.
+ */
+final class CategoryCodes implements Serializable {
+    @Nullable
+    private byte[] bytes;
+    @Nullable
+    private short[] shorts;
+    @Nullable
+    private int[] ints;
+
+    CategoryCodes(final int size) {
+        this.bytes = new byte[size];
+        Arrays.fill(this.bytes, (byte)-1);
+    }
+
+    int get(final int index) {
+        if (this.bytes != null)
+            return this.bytes[index];
+        if (this.shorts != null)
+            return this.shorts[index];
+        return Converters.checkNull(this.ints)[index];
+    }
+
+    void set(final int index, final int code) {
+        if (this.bytes != null) {
+            if (code <= Byte.MAX_VALUE) {
+                this.bytes[index] = (byte)code;
+                return;
+            }
+            this.shorts = new short[this.bytes.length];
+            for (int i = 0; i < this.bytes.length; i++)
+                this.shorts[i] = this.bytes[i];
+            this.bytes = null;
+        }
+        if (this.shorts != null) {
+            if (code <= Short.MAX_VALUE) {
+                this.shorts[index] = (short)code;
+                return;
+            }
+            this.ints = new int[this.shorts.length];
+            for (int i = 0; i < this.shorts.length; i++)
+                this.ints[i] = this.shorts[i];
+            this.shorts = null;
+        }
+        Converters.checkNull(this.ints)[index] = code;
+    }
+}
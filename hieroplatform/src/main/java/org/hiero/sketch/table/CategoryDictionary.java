@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.hiero.sketch.table;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Assigns consecutive integer codes to the distinct strings of a category column.
+ */
+final class CategoryDictionary implements Serializable {
+    private final ArrayList<String> values;
+    private final HashMap<String, Integer> codes;
+
+    CategoryDictionary() {
+        this.values = new ArrayList<String>();
+        this.codes = new HashMap<String, Integer>();
+    }
+
+    /**
+     * @return The code of the value, allocating a new one if the value was not seen before.
+     */
+    int encode(final String value) {
+        Integer code = this.codes.get(value);
+        if (code == null) {
+            code = this.values.size();
+            this.values.add(value);
+            this.codes.put(value, code);
+        }
+        return code;
+    }
+
+    String decode(final int code) {
+        return this.values.get(code);
+    }
+
+    int size() {
+        return this.values.size();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.hiero.sketch.table;
+
+import org.hiero.sketch.table.api.ContentsKind;
+import org.hiero.sketch.table.api.ICategoryColumn;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+
+/**
+ * A column of categorical strings that can grow in size.  Each distinct string
+ * is stored once, in a dictionary; rows hold codes into the dictionary.
+ */
+public class CategoryListColumn extends BaseListColumn implements ICategoryColumn {
+    private final CategoryDictionary dictionary;
+    private final ArrayList<CategoryCodes> segments;
+
+    public CategoryListColumn(final ColumnDescription desc) {
+        super(desc);
+        if (desc.kind != ContentsKind.Category)
+            throw new IllegalArgumentException("Unexpected column kind " + desc.kind);
+        this.dictionary = new CategoryDictionary();
+        this.segments = new ArrayList<CategoryCodes>();
+    }
+
+    @Override
+    public int getCode(final int rowIndex) {
+        final int segmentId = rowIndex >> this.LogSegmentSize;
+        final int localIndex = rowIndex & this.SegmentMask;
+        return this.segments.get(segmentId).get(localIndex);
+    }
+
+    @Override
+    public int getDictionarySize() {
+        return this.dictionary.size();
+    }
+
+    @Override
+    public String decode(final int code) {
+        return this.dictionary.decode(code);
+    }
+
+    @Nullable
+    @Override
+    public String getString(final int rowIndex) {
+        final int code = this.getCode(rowIndex);
+        return code < 0 ? null : this.decode(code);
+    }
+
+    public void append(@Nullable final String value) {
+        final int segmentId = this.size >> this.LogSegmentSize;
+        final int localIndex = this.size & this.SegmentMask;
+        if (this.segments.size() <= segmentId) {
+            this.segments.add(new CategoryCodes(this.SegmentSize));
+            this.growMissing();
+        }
+        this.segments.get(segmentId).set(localIndex,
+                value == null ? -1 : this.dictionary.encode(value));
+        this.size++;
+    }
+
+    @Override
+    public boolean isMissing(final int rowIndex) {
+        return this.getCode(rowIndex) < 0;
+    }
+
+    @Override
+    public void appendMissing() {
+        this.append(null);
+    }
+
+    @Override
+    public void parseAndAppendString(final String s) {
+        this.append(s);
+    }
+}
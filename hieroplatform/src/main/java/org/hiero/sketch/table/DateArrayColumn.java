@@ -20,18 +20,24 @@ package org.hiero.sketch.table;
 
 import org.hiero.sketch.table.api.ContentsKind;
 import org.hiero.sketch.table.api.IDateColumn;
+import org.hiero.sketch.table.api.IStringConverter;
+import org.hiero.sketch.table.api.IndexComparator;
+import org.hiero.utils.Converters;
 
 import javax.annotation.Nullable;
 import java.security.InvalidParameterException;
 import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
 
 /*
- * Column of dates, implemented as an array of dates and a BitSet of missing values
+ * Column of dates, implemented as an array of longs holding microseconds since
+ * Jan 1st 1970 and a BitSet of missing values
  */
 public final class DateArrayColumn
         extends BaseArrayColumn
         implements IDateColumn {
-    private final LocalDateTime[] data;
+    private final long[] data;
 
     private void validate() {
         if (this.description.kind != ContentsKind.Date)
@@ -41,34 +47,105 @@ public final class DateArrayColumn
     public DateArrayColumn(final ColumnDescription description, final int size) {
         super(description, size);
         this.validate();
-        this.data = new LocalDateTime[size];
+        this.data = new long[size];
     }
 
     public DateArrayColumn(final ColumnDescription description,
-                           final LocalDateTime[] data) {
+                           final long[] data) {
         super(description, data.length);
         this.validate();
         this.data = data;
     }
 
+    public DateArrayColumn(final ColumnDescription description,
+                           final LocalDateTime[] data) {
+        this(description, data.length);
+        for (int i = 0; i < data.length; i++)
+            this.set(i, data[i]);
+    }
+
     @Override
     public int sizeInRows() {
         return this.data.length;
     }
 
-    @Nullable
     @Override
-    public LocalDateTime getDate(final int rowIndex) {
+    public long getLong(final int rowIndex) {
         return this.data[rowIndex];
     }
 
-    private void set(final int rowIndex, @Nullable final LocalDateTime value) {
-        this.data[rowIndex] = value;
+    @Override
+    public int getMissing(final int[] rowIndexes, final int count, final boolean[] missing) {
+        return this.getMissingFromBitmap(rowIndexes, count, missing);
+    }
+
+    @Override
+    public void asDoubles(final int[] rowIndexes, final int count,
+                          @Nullable final IStringConverter unused, final double[] values) {
+        for (int i = 0; i < count; i++)
+            values[i] = Converters.microsToDouble(this.data[rowIndexes[i]]);
     }
 
+    @Nullable
+    @Override
+    public LocalDateTime getDate(final int rowIndex) {
+        if (this.isMissing(rowIndex))
+            return null;
+        return Converters.fromEpochMicros(this.data[rowIndex]);
+    }
+
+    /**
+     * Compares the values in the array directly.
+     */
     @Override
-    public boolean isMissing(final int rowIndex) { return this.getDate(rowIndex) == null; }
+    public IndexComparator getComparator() {
+        final long[] data = this.data;
+        @Nullable final BitSet missing = this.getMissingBits();
+        if (missing == null)
+            return new IndexComparator() {
+                @Override
+                public int compare(final int i, final int j) {
+                    return Long.compare(data[i], data[j]);
+                }
+            };
+        return new IndexComparator() {
+            @Override
+            public int compare(final int i, final int j) {
+                final boolean iMissing = missing.get(i);
+                final boolean jMissing = missing.get(j);
+                if (iMissing || jMissing)
+                    return Boolean.compare(iMissing, jMissing);
+                return Long.compare(data[i], data[j]);
+            }
+        };
+    }
 
     @Override
-    public void setMissing(final int rowIndex) { this.set(rowIndex, null);}
+    public IntPredicate getRangePredicate(final double min, final double max,
+                                          @Nullable final IStringConverter unused) {
+        final long[] data = this.data;
+        @Nullable final BitSet missing = this.getMissingBits();
+        if (missing == null)
+            return row -> {
+                final double d = Converters.microsToDouble(data[row]);
+                return (min <= d) && (d <= max);
+            };
+        return row -> {
+            if (missing.get(row))
+                return false;
+            final double d = Converters.microsToDouble(data[row]);
+            return (min <= d) && (d <= max);
+        };
+    }
+
+    public void set(final int rowIndex, final long value) {
+        this.data[rowIndex] = value;
+    }
+
+    public void set(final int rowIndex, @Nullable final LocalDateTime value) {
+        if (value == null)
+            this.setMissing(rowIndex);
+        else
+            this.set(rowIndex, Converters.toEpochMicros(value));
+    }
 }
@@ -20,6 +20,7 @@ package org.hiero.sketch.table;
 
 import org.hiero.sketch.table.api.ContentsKind;
 import org.hiero.sketch.table.api.IDateColumn;
+import org.hiero.utils.Converters;
 
 import javax.annotation.Nullable;
 import java.time.LocalDate;
@@ -29,12 +30,13 @@ import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 
 /**
- * A column of Dates that can grow in size.
+ * A column of Dates that can grow in size.  Dates are stored as microseconds
+ * since Jan 1st 1970.
  */
 public class DateListColumn
         extends BaseListColumn
         implements IDateColumn {
-    private final ArrayList<LocalDateTime[]> segments;
+    private final ArrayList<long[]> segments;
     /**
      * Used when parsing; this is set the first time when parsing a date
      * and used subsequently.
@@ -53,37 +55,52 @@ public class DateListColumn
         super(desc);
         if (desc.kind != ContentsKind.Date)
             throw new IllegalArgumentException("Unexpected column kind " + desc.kind);
-        this.segments = new ArrayList<LocalDateTime[]>();
+        this.segments = new ArrayList<long[]>();
         this.parserFormatter = null;
     }
 
-    @Nullable
     @Override
-    public LocalDateTime getDate(final int rowIndex) {
+    public long getLong(final int rowIndex) {
         final int segmentId = rowIndex >> this.LogSegmentSize;
         final int localIndex = rowIndex & this.SegmentMask;
         return this.segments.get(segmentId)[localIndex];
     }
 
-    private void append(@Nullable final LocalDateTime value) {
+    @Nullable
+    @Override
+    public LocalDateTime getDate(final int rowIndex) {
+        if (this.isMissing(rowIndex))
+            return null;
+        return Converters.fromEpochMicros(this.getLong(rowIndex));
+    }
+
+    /**
+     * Makes sure that the segment holding the next appended row exists.
+     */
+    private void growSegments() {
         final int segmentId = this.size >> this.LogSegmentSize;
-        final int localIndex = this.size & this.SegmentMask;
         if (this.segments.size() <= segmentId) {
-            this.segments.add(new LocalDateTime[this.SegmentSize]);
+            this.segments.add(new long[this.SegmentSize]);
             this.growMissing();
         }
+    }
+
+    public void append(final long value) {
+        this.growSegments();
+        final int segmentId = this.size >> this.LogSegmentSize;
+        final int localIndex = this.size & this.SegmentMask;
         this.segments.get(segmentId)[localIndex] = value;
         this.size++;
     }
 
-    @Override
-    public boolean isMissing(final int rowIndex) {
-        return this.getDate(rowIndex) == null;
+    public void append(final LocalDateTime value) {
+        this.append(Converters.toEpochMicros(value));
     }
 
     @Override
     public void appendMissing() {
-        this.append(null);
+        this.growSegments();
+        super.appendMissing();
     }
 
     static final DateTimeFormatter[] toTry = {
@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.table;
+
+import org.hiero.sketch.table.api.IMembershipSet;
+import org.hiero.sketch.table.api.IRowIterator;
+import org.hiero.utils.IntSet;
+import org.hiero.utils.Randomness;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * This implementation stores the membership as a bitmap, one bit per row.  Membership tests
+ * are constant time, iteration is in increasing row order, and unions, intersections and
+ * differences of two bitmaps proceed 64 rows at a time.  This implementation is best when
+ * the set contains a sizable fraction of the rows of a table.
+ */
+public class DenseMembership implements IMembershipSet {
+    private final long[] bits;
+    /**
+     * The index of the first word of the bitmap: bits[0] holds rows 64 * firstWord and up.
+     * This is not 0 only for slices.
+     */
+    private final int firstWord;
+    private final int size;
+    /**
+     * Number of words in each block of blockRanks.
+     */
+    private static final int blockWords = 8;
+    /**
+     * Computed on the first slice: blockRanks[b] is the number of members in the words
+     * before word b * blockWords.
+     */
+    @Nullable
+    private volatile int[] blockRanks;
+    /**
+     * A filter result holding fewer than 1/sparseFraction of the rows it was selected
+     * from is stored in a SparseMembership.  A bitmap costs 1/8 byte per row of the table,
+     * while the IntSet of a SparseMembership costs at least 4/0.75 bytes per member,
+     * so this is about the selectivity where the two use the same memory.
+     */
+    static final int sparseFraction = 32;
+
+    /**
+     * Wraps a bitmap; bit i of word (i / 64) is set if row i is a member.
+     */
+    DenseMembership(final long[] bits) {
+        this(bits, 0);
+    }
+
+    private DenseMembership(final long[] bits, final int firstWord) {
+        this.bits = bits;
+        this.firstWord = firstWord;
+        int count = 0;
+        for (long w : bits)
+            count += Long.bitCount(w);
+        this.size = count;
+    }
+
+    /**
+     * Converts the implementation of the baseMap into a bitmap.
+     * @param baseMap of type IMembershipSet
+     */
+    public DenseMembership(final IMembershipSet baseMap) {
+        this(toBits(baseMap, row -> true, 0));
+    }
+
+    /**
+     * Builds a bitmap with the rows of baseMap for which filter is true.
+     * @param universe  A hint: the largest row index plus one.
+     */
+    private static long[] toBits(final IMembershipSet baseMap, final IntPredicate filter,
+                                 final int universe) {
+        long[] result = new long[wordCount(universe)];
+        final IRowIterator baseIterator = baseMap.getIterator();
+        int tmp = baseIterator.getNextRow();
+        while (tmp >= 0) {
+            if (filter.test(tmp)) {
+                final int word = tmp >> 6;
+                if (word >= result.length)
+                    result = Arrays.copyOf(result, Math.max(word + 1, 2 * result.length));
+                result[word] |= 1L << tmp;
+            }
+            tmp = baseIterator.getNextRow();
+        }
+        return result;
+    }
+
+    private static int wordCount(final int rows) {
+        return (rows + 63) >> 6;
+    }
+
+    /**
+     * Selects the rows of baseMap for which the predicate is true, choosing the
+     * representation of the result from the number of rows selected: a FullMembership
+     * if all rows of a full baseMap are selected, a SparseMembership if few rows are
+     * selected, and a DenseMembership otherwise.
+     * @param universe  The largest row index in baseMap plus one.
+     */
+    static IMembershipSet filter(final IMembershipSet baseMap, final int universe,
+                                 final IntPredicate predicate) {
+        final DenseMembership result = new DenseMembership(toBits(baseMap, predicate, universe));
+        if ((baseMap instanceof FullMembership) && (result.getSize() == baseMap.getSize()))
+            return baseMap;
+        if (((long)result.getSize() * sparseFraction) < universe)
+            return new SparseMembership(result);
+        return result;
+    }
+
+    @Override
+    public boolean isMember(final int rowIndex) {
+        final int word = (rowIndex >> 6) - this.firstWord;
+        return (rowIndex >= 0) && (word >= 0) && (word < this.bits.length) &&
+                ((this.bits[word] & (1L << rowIndex)) != 0);
+    }
+
+    @Override
+    public int getSize() {
+        return this.size;
+    }
+
+    @Override
+    public long getMemoryUsage() {
+        return 8L * this.bits.length;
+    }
+
+    @Override
+    public IRowIterator getIterator() {
+        return new DenseIterator(this.bits, this.firstWord);
+    }
+
+    @Override
+    public IMembershipSet filter(final IntPredicate predicate) {
+        return filter(this, this.getUniverse(), predicate);
+    }
+
+    @Override
+    public IMembershipSet sample(final int k) {
+        return this.sampleUtil(Randomness.getInstance(), k);
+    }
+
+    @Override
+    public IMembershipSet sample(final int k, final long seed) {
+        final Randomness randomGenerator = Randomness.getInstance();
+        randomGenerator.setSeed(seed);
+        return this.sampleUtil(randomGenerator, k);
+    }
+
+    /**
+     * Selection sampling: scans the members in order and keeps each one with probability
+     * (still needed) / (still available), which produces exactly k distinct rows.
+     */
+    private IMembershipSet sampleUtil(final Randomness randomGenerator, final int k) {
+        if (k >= this.size)
+            return this;
+        final IntSet s = new IntSet(k);
+        final IRowIterator iter = this.getIterator();
+        int needed = k;
+        int available = this.size;
+        int curr = iter.getNextRow();
+        while ((curr >= 0) && (needed > 0)) {
+            if ((randomGenerator.nextDouble() * available) < needed) {
+                s.add(curr);
+                needed--;
+            }
+            available--;
+            curr = iter.getNextRow();
+        }
+        return new SparseMembership(s);
+    }
+
+    /**
+     * The largest row index that can be a member plus one.
+     */
+    private int getUniverse() {
+        return (this.firstWord + this.bits.length) << 6;
+    }
+
+    /**
+     * @return The bitmap starting at row 0.
+     */
+    private long[] getWordsFromZero() {
+        if (this.firstWord == 0)
+            return this.bits;
+        final long[] result = new long[this.firstWord + this.bits.length];
+        System.arraycopy(this.bits, 0, result, this.firstWord, this.bits.length);
+        return result;
+    }
+
+    private int[] getBlockRanks() {
+        int[] result = this.blockRanks;
+        if (result == null) {
+            final int blocks = (this.bits.length + blockWords - 1) / blockWords;
+            result = new int[blocks + 1];
+            for (int word = 0; word < this.bits.length; word++)
+                result[(word / blockWords) + 1] += Long.bitCount(this.bits[word]);
+            for (int b = 1; b <= blocks; b++)
+                result[b] += result[b - 1];
+            this.blockRanks = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of members in the words of bits before the specified word.
+     */
+    private int getRank(final int[] ranks, final int word) {
+        int rank = ranks[word / blockWords];
+        for (int w = word - (word % blockWords); w < word; w++)
+            rank += Long.bitCount(this.bits[w]);
+        return rank;
+    }
+
+    /**
+     * @return The index in bits of the word holding the member at the specified position.
+     */
+    private int findWord(final int[] ranks, final int position) {
+        int low = 0;
+        int high = ranks.length - 1;
+        // The block is the last one starting at or before position.
+        while (high - low > 1) {
+            final int mid = (low + high) >>> 1;
+            if (ranks[mid] <= position)
+                low = mid;
+            else
+                high = mid;
+        }
+        int word = low * blockWords;
+        int rank = ranks[low];
+        while (rank + Long.bitCount(this.bits[word]) <= position) {
+            rank += Long.bitCount(this.bits[word]);
+            word++;
+        }
+        return word;
+    }
+
+    /**
+     * The slice only copies the words holding its members; the words are found with
+     * a rank index computed once per set.
+     */
+    @Override
+    public IMembershipSet slice(final int start, int end) {
+        end = Math.min(end, this.size);
+        if (end <= start)
+            return new DenseMembership(new long[0]);
+        final int[] ranks = this.getBlockRanks();
+        final int first = this.findWord(ranks, start);
+        final int last = this.findWord(ranks, end - 1);
+        final long[] result = Arrays.copyOfRange(this.bits, first, last + 1);
+        // Keep the members of the last word before end, then drop those of the first
+        // word before start.
+        long w = result[result.length - 1];
+        long kept = 0;
+        for (int i = this.getRank(ranks, last); i < end; i++) {
+            final long lowest = w & -w;
+            kept |= lowest;
+            w ^= lowest;
+        }
+        result[result.length - 1] = kept;
+        for (int i = this.getRank(ranks, first); i < start; i++)
+            result[0] &= result[0] - 1;
+        return new DenseMembership(result, this.firstWord + first);
+    }
+
+    @Override
+    public IMembershipSet union(final IMembershipSet otherSet) {
+        final long[] bits = this.getWordsFromZero();
+        if (otherSet instanceof DenseMembership) {
+            final long[] other = ((DenseMembership) otherSet).getWordsFromZero();
+            final long[] result = Arrays.copyOf(
+                    bits, Math.max(bits.length, other.length));
+            for (int i = 0; i < other.length; i++)
+                result[i] |= other[i];
+            return new DenseMembership(result);
+        }
+        long[] result = Arrays.copyOf(bits, bits.length);
+        final IRowIterator iter = otherSet.getIterator();
+        int curr = iter.getNextRow();
+        while (curr >= 0) {
+            final int word = curr >> 6;
+            if (word >= result.length)
+                result = Arrays.copyOf(result, Math.max(word + 1, 2 * result.length));
+            result[word] |= 1L << curr;
+            curr = iter.getNextRow();
+        }
+        return new DenseMembership(result);
+    }
+
+    @Override
+    public IMembershipSet intersection(final IMembershipSet otherSet) {
+        if (otherSet instanceof DenseMembership) {
+            final long[] bits = this.getWordsFromZero();
+            final long[] other = ((DenseMembership) otherSet).getWordsFromZero();
+            final long[] result = Arrays.copyOf(
+                    bits, Math.min(bits.length, other.length));
+            for (int i = 0; i < result.length; i++)
+                result[i] &= other[i];
+            return new DenseMembership(result);
+        }
+        if (otherSet instanceof FullMembership) {
+            // Keep only the rows below the size of the full set.
+            final int rows = otherSet.getSize();
+            final long[] bits = this.getWordsFromZero();
+            final long[] result = Arrays.copyOf(
+                    bits, Math.min(bits.length, wordCount(rows)));
+            if (((rows & 63) != 0) && (result.length == wordCount(rows)))
+                result[result.length - 1] &= (1L << rows) - 1;
+            return new DenseMembership(result);
+        }
+        final IntSet intersectSet = new IntSet();
+        final IRowIterator iter = otherSet.getIterator();
+        int curr = iter.getNextRow();
+        while (curr >= 0) {
+            if (this.isMember(curr))
+                intersectSet.add(curr);
+            curr = iter.getNextRow();
+        }
+        return new SparseMembership(intersectSet);
+    }
+
+    @Override
+    public IMembershipSet setMinus(final IMembershipSet otherSet) {
+        if (otherSet instanceof DenseMembership) {
+            final long[] bits = this.getWordsFromZero();
+            final long[] other = ((DenseMembership) otherSet).getWordsFromZero();
+            final long[] result = Arrays.copyOf(bits, bits.length);
+            for (int i = 0; i < Math.min(result.length, other.length); i++)
+                result[i] &= ~other[i];
+            return new DenseMembership(result);
+        }
+        return new DenseMembership(
+                toBits(this, row -> !otherSet.isMember(row), this.getUniverse()));
+    }
+
+    private static class DenseIterator implements IRowIterator {
+        private final long[] bits;
+        private final int firstWord;
+        private int wordIndex;
+        // Bits of the current word that have not been returned yet.
+        private long word;
+
+        private DenseIterator(final long[] bits, final int firstWord) {
+            this.bits = bits;
+            this.firstWord = firstWord;
+            this.wordIndex = 0;
+            this.word = (bits.length > 0) ? bits[0] : 0;
+        }
+
+        @Override
+        public int getNextRow() {
+            while (this.word == 0) {
+                if ((this.wordIndex + 1) >= this.bits.length)
+                    return -1;
+                this.wordIndex++;
+                this.word = this.bits[this.wordIndex];
+            }
+            final int bit = Long.numberOfTrailingZeros(this.word);
+            this.word &= this.word - 1;
+            return ((this.firstWord + this.wordIndex) << 6) + bit;
+        }
+
+        @Override
+        public int getNextBatch(final int[] rows) {
+            int count = 0;
+            while (count < rows.length) {
+                while (this.word == 0) {
+                    if ((this.wordIndex + 1) >= this.bits.length)
+                        return count;
+                    this.wordIndex++;
+                    this.word = this.bits[this.wordIndex];
+                }
+                final int base = (this.firstWord + this.wordIndex) << 6;
+                while ((this.word != 0) && (count < rows.length)) {
+                    rows[count++] = base + Long.numberOfTrailingZeros(this.word);
+                    this.word &= this.word - 1;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -20,8 +20,13 @@ package org.hiero.sketch.table;
 
 import org.hiero.sketch.table.api.ContentsKind;
 import org.hiero.sketch.table.api.IDoubleColumn;
+import org.hiero.sketch.table.api.IStringConverter;
+import org.hiero.sketch.table.api.IndexComparator;
 
+import javax.annotation.Nullable;
 import java.security.InvalidParameterException;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
 
 /**
  * Column of doubles, implemented as an array of doubles and a BitSet of missing values.
@@ -55,5 +60,53 @@ public final class DoubleArrayColumn
     @Override
     public double getDouble(final int rowIndex) { return this.data[rowIndex];}
 
+    @Override
+    public int getMissing(final int[] rowIndexes, final int count, final boolean[] missing) {
+        return this.getMissingFromBitmap(rowIndexes, count, missing);
+    }
+
+    @Override
+    public void asDoubles(final int[] rowIndexes, final int count,
+                          @Nullable final IStringConverter unused, final double[] values) {
+        for (int i = 0; i < count; i++)
+            values[i] = this.data[rowIndexes[i]];
+    }
+
+    /**
+     * Compares the values in the array directly.
+     */
+    @Override
+    public IndexComparator getComparator() {
+        final double[] data = this.data;
+        @Nullable final BitSet missing = this.getMissingBits();
+        if (missing == null)
+            return new IndexComparator() {
+                @Override
+                public int compare(final int i, final int j) {
+                    return Double.compare(data[i], data[j]);
+                }
+            };
+        return new IndexComparator() {
+            @Override
+            public int compare(final int i, final int j) {
+                final boolean iMissing = missing.get(i);
+                final boolean jMissing = missing.get(j);
+                if (iMissing || jMissing)
+                    return Boolean.compare(iMissing, jMissing);
+                return Double.compare(data[i], data[j]);
+            }
+        };
+    }
+
+    @Override
+    public IntPredicate getRangePredicate(final double min, final double max,
+                                          @Nullable final IStringConverter unused) {
+        final double[] data = this.data;
+        @Nullable final BitSet missing = this.getMissingBits();
+        if (missing == null)
+            return row -> (min <= data[row]) && (data[row] <= max);
+        return row -> !missing.get(row) && (min <= data[row]) && (data[row] <= max);
+    }
+
     public void set(final int rowIndex, final double value) {this.data[rowIndex] = value;}
 }
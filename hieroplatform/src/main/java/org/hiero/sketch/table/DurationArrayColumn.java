@@ -20,17 +20,23 @@ package org.hiero.sketch.table;
 
 import org.hiero.sketch.table.api.ContentsKind;
 import org.hiero.sketch.table.api.IDurationColumn;
+import org.hiero.sketch.table.api.IStringConverter;
+import org.hiero.sketch.table.api.IndexComparator;
+import org.hiero.utils.Converters;
 
 import javax.annotation.Nullable;
 import java.security.InvalidParameterException;
 import java.time.Duration;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
 
 /*
- * Column of durations, implemented as an array of Durations and a BitSet of missing values
+ * Column of durations, implemented as an array of longs holding nanoseconds
+ * and a BitSet of missing values
  */
 
 public final class DurationArrayColumn extends BaseArrayColumn implements IDurationColumn {
-    private final Duration[] data;
+    private final long[] data;
 
     private void validate() {
         if (this.description.kind != ContentsKind.Duration)
@@ -41,35 +47,105 @@ public final class DurationArrayColumn extends BaseArrayColumn implements IDurat
     public DurationArrayColumn(final ColumnDescription description, final int size) {
         super(description, size);
         this.validate();
-        this.data = new Duration[size];
+        this.data = new long[size];
     }
 
     public DurationArrayColumn(final ColumnDescription description,
-                               final Duration[] data) {
+                               final long[] data) {
         super(description, data.length);
         this.validate();
         this.data = data;
     }
 
+    public DurationArrayColumn(final ColumnDescription description,
+                               final Duration[] data) {
+        this(description, data.length);
+        for (int i = 0; i < data.length; i++)
+            this.set(i, data[i]);
+    }
 
     @Override
     public int sizeInRows() {
         return this.data.length;
     }
 
-    @Nullable
     @Override
-    public Duration getDuration(final int rowIndex) {
+    public long getLong(final int rowIndex) {
         return this.data[rowIndex];
     }
 
-    private void set(final int rowIndex, @Nullable final Duration value) {
-        this.data[rowIndex] = value;
+    @Override
+    public int getMissing(final int[] rowIndexes, final int count, final boolean[] missing) {
+        return this.getMissingFromBitmap(rowIndexes, count, missing);
     }
 
     @Override
-    public boolean isMissing(final int rowIndex) {return this.getDuration(rowIndex) == null; }
+    public void asDoubles(final int[] rowIndexes, final int count,
+                          @Nullable final IStringConverter unused, final double[] values) {
+        for (int i = 0; i < count; i++)
+            values[i] = Converters.nanosToDouble(this.data[rowIndexes[i]]);
+    }
 
+    @Nullable
     @Override
-    public void setMissing(final int rowIndex) { this.set(rowIndex, null);}
+    public Duration getDuration(final int rowIndex) {
+        if (this.isMissing(rowIndex))
+            return null;
+        return Converters.fromNanos(this.data[rowIndex]);
+    }
+
+    /**
+     * Compares the values in the array directly.
+     */
+    @Override
+    public IndexComparator getComparator() {
+        final long[] data = this.data;
+        @Nullable final BitSet missing = this.getMissingBits();
+        if (missing == null)
+            return new IndexComparator() {
+                @Override
+                public int compare(final int i, final int j) {
+                    return Long.compare(data[i], data[j]);
+                }
+            };
+        return new IndexComparator() {
+            @Override
+            public int compare(final int i, final int j) {
+                final boolean iMissing = missing.get(i);
+                final boolean jMissing = missing.get(j);
+                if (iMissing || jMissing)
+                    return Boolean.compare(iMissing, jMissing);
+                return Long.compare(data[i], data[j]);
+            }
+        };
+    }
+
+    @Override
+    public IntPredicate getRangePredicate(final double min, final double max,
+                                          @Nullable final IStringConverter unused) {
+        final long[] data = this.data;
+        @Nullable final BitSet missing = this.getMissingBits();
+        if (missing == null)
+            return row -> {
+                final double d = Converters.nanosToDouble(data[row]);
+                return (min <= d) && (d <= max);
+            };
+        return row -> {
+            if (missing.get(row))
+                return false;
+            final double d = Converters.nanosToDouble(data[row]);
+            return (min <= d) && (d <= max);
+        };
+    }
+
+    public void set(final int rowIndex, final long value) {
+        this.data[rowIndex] = value;
+    }
+
+    public void set(final int rowIndex, @Nullable final Duration value) {
+        if (value == null)
+            this.setMissing(rowIndex);
+        else
+            this.set(rowIndex, Converters.toNanos(value));
+    }
 }
@@ -20,51 +20,68 @@ package org.hiero.sketch.table;
 
 import org.hiero.sketch.table.api.ContentsKind;
 import org.hiero.sketch.table.api.IDurationColumn;
+import org.hiero.utils.Converters;
 
 import javax.annotation.Nullable;
 import java.time.Duration;
 import java.util.ArrayList;
 
 /**
- * A column of time durations that can grow in size.
+ * A column of time durations that can grow in size.  Durations are stored
+ * as nanoseconds.
  */
 class DurationListColumn extends BaseListColumn implements IDurationColumn {
-    private final ArrayList<Duration[]> segments;
+    private final ArrayList<long[]> segments;
 
     public DurationListColumn(final ColumnDescription desc) {
         super(desc);
         if (desc.kind != ContentsKind.Duration)
             throw new IllegalArgumentException("Unexpected column kind " + desc.kind);
-        this.segments = new ArrayList<Duration []>();
+        this.segments = new ArrayList<long[]>();
     }
 
-    @Nullable
     @Override
-    public Duration getDuration(final int rowIndex) {
+    public long getLong(final int rowIndex) {
         final int segmentId = rowIndex >> this.LogSegmentSize;
         final int localIndex = rowIndex & this.SegmentMask;
         return this.segments.get(segmentId)[localIndex];
     }
 
-    private void append(@Nullable final Duration value) {
+    @Nullable
+    @Override
+    public Duration getDuration(final int rowIndex) {
+        if (this.isMissing(rowIndex))
+            return null;
+        return Converters.fromNanos(this.getLong(rowIndex));
+    }
+
+    /**
+     * Makes sure that the segment holding the next appended row exists.
+     */
+    private void growSegments() {
         final int segmentId = this.size >> this.LogSegmentSize;
-        final int localIndex = this.size & this.SegmentMask;
         if (this.segments.size() <= segmentId) {
-            this.segments.add(new Duration[this.SegmentSize]);
+            this.segments.add(new long[this.SegmentSize]);
             this.growMissing();
         }
+    }
+
+    public void append(final long value) {
+        this.growSegments();
+        final int segmentId = this.size >> this.LogSegmentSize;
+        final int localIndex = this.size & this.SegmentMask;
         this.segments.get(segmentId)[localIndex] = value;
         this.size++;
     }
 
-    @Override
-    public boolean isMissing(final int rowIndex) {
-        return this.getDuration(rowIndex) == null;
+    public void append(final Duration value) {
+        this.append(Converters.toNanos(value));
     }
 
     @Override
     public void appendMissing() {
-        this.append(null);
+        this.growSegments();
+        super.appendMissing();
     }
 
     @Override
@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.table;
+
+import org.hiero.sketch.table.api.ICategoryColumn;
+import org.hiero.sketch.table.api.IColumn;
+import org.hiero.sketch.table.api.IMembershipSet;
+import org.hiero.sketch.table.api.ITable;
+import org.hiero.utils.Converters;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * A serializable boolean expression over the columns of a table, used to filter its rows.
+ * The expression is evaluated one column at a time over membership sets: each operand of an
+ * And only tests the rows selected by the previous ones (intersection), and each operand of
+ * an Or only tests the rows not selected yet (union); operands are evaluated in increasing
+ * order of cost.  As a TableFilter the expression can also be tested one row at a time.
+ * Numeric tests convert values with asDouble and apply only to columns that do not hold
+ * strings; missing values never satisfy a comparison.
+ */
+public abstract class FilterExpression implements TableFilter, Serializable {
+    @Nullable
+    private transient IntPredicate predicate;
+
+    /**
+     * @return A relative estimate of the cost of testing a row.
+     */
+    public abstract int getCost();
+
+    /**
+     * @return The rows of the set that satisfy the expression.
+     */
+    public IMembershipSet filter(final ITable table, final IMembershipSet rows) {
+        return rows.filter(this.getPredicate(table));
+    }
+
+    @Override
+    public abstract IntPredicate getPredicate(final ITable table);
+
+    @Override
+    public IMembershipSet filter(final ITable table) {
+        return this.filter(table, table.getMembershipSet());
+    }
+
+    @Override
+    public void setTable(final ITable table) {
+        this.predicate = this.getPredicate(table);
+    }
+
+    @Override
+    public boolean test(final int rowIndex) {
+        return Converters.checkNull(this.predicate).test(rowIndex);
+    }
+
+    static IColumn getColumn(final ITable table, final String columnName) {
+        return Converters.checkNull(table.getColumn(columnName));
+    }
+
+    /**
+     * Numeric tests convert values without a string converter, so they reject string columns.
+     */
+    static IColumn getNumericColumn(final ITable table, final String columnName) {
+        final IColumn column = getColumn(table, columnName);
+        if (column.getDescription().kind.isObject())
+            throw new IllegalArgumentException("Cannot compare numerically column " +
+                    columnName + " of kind " + column.getDescription().kind);
+        return column;
+    }
+
+    /**
+     * @return The operands sorted by increasing cost.
+     */
+    static List<FilterExpression> byCost(final List<FilterExpression> operands) {
+        final List<FilterExpression> result = new ArrayList<FilterExpression>(operands);
+        result.sort(Comparator.comparingInt(FilterExpression::getCost));
+        return result;
+    }
+
+    /**
+     * Selects the rows where the value of a string column is one of the specified values.
+     */
+    public static FilterExpression equalTo(final String columnName, final String value) {
+        return new In(columnName, value);
+    }
+
+    /**
+     * True for the rows where the column is missing.
+     */
+    public static final class Missing extends FilterExpression {
+        public final String columnName;
+
+        public Missing(final String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public int getCost() { return 1; }
+
+        @Override
+        public IntPredicate getPredicate(final ITable table) {
+            return getColumn(table, this.columnName)::isMissing;
+        }
+    }
+
+    /**
+     * True for the rows where the value of the column is between min and max, inclusive.
+     */
+    public static final class Range extends FilterExpression {
+        public final String columnName;
+        public final double min;
+        public final double max;
+
+        public Range(final String columnName, final double min, final double max) {
+            this.columnName = columnName;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public int getCost() { return 2; }
+
+        @Override
+        public IntPredicate getPredicate(final ITable table) {
+            return getNumericColumn(table, this.columnName).getRangePredicate(
+                    this.min, this.max, null);
+        }
+    }
+
+    public enum Comparison {
+        LessThan("<"),
+        LessOrEqual("<="),
+        Equal("=="),
+        NotEqual("!="),
+        GreaterOrEqual(">="),
+        GreaterThan(">");
+
+        public final String symbol;
+
+        Comparison(final String symbol) {
+            this.symbol = symbol;
+        }
+
+        public static Comparison fromSymbol(final String symbol) {
+            for (final Comparison c : Comparison.values())
+                if (c.symbol.equals(symbol))
+                    return c;
+            throw new IllegalArgumentException("Unknown comparison " + symbol);
+        }
+    }
+
+    /**
+     * Compares the value of the column with a constant.
+     */
+    public static final class Compare extends FilterExpression {
+        public final String columnName;
+        public final Comparison comparison;
+        public final double value;
+
+        public Compare(final String columnName, final Comparison comparison, final double value) {
+            this.columnName = columnName;
+            this.comparison = comparison;
+            this.value = value;
+        }
+
+        @Override
+        public int getCost() { return 2; }
+
+        @Override
+        public IntPredicate getPredicate(final ITable table) {
+            final IColumn column = getNumericColumn(table, this.columnName);
+            final double v = this.value;
+            final double inf = Double.POSITIVE_INFINITY;
+            switch (this.comparison) {
+                case LessThan:
+                    return column.getRangePredicate(-inf, Math.nextDown(v), null);
+                case LessOrEqual:
+                    return column.getRangePredicate(-inf, v, null);
+                case Equal:
+                    return column.getRangePredicate(v, v, null);
+                case GreaterOrEqual:
+                    return column.getRangePredicate(v, inf, null);
+                case GreaterThan:
+                    return column.getRangePredicate(Math.nextUp(v), inf, null);
+                case NotEqual:
+                    return row -> !column.isMissing(row) && (column.asDouble(row, null) != v);
+                default:
+                    throw new RuntimeException("Unexpected comparison " + this.comparison);
+            }
+        }
+    }
+
+    /**
+     * Base class for the tests on the strings of a column.  For category columns
+     * each dictionary entry is tested once, and rows are tested by their code.
+     */
+    abstract static class StringTest extends FilterExpression {
+        public final String columnName;
+
+        StringTest(final String columnName) {
+            this.columnName = columnName;
+        }
+
+        abstract boolean accepts(String value);
+
+        @Override
+        public IntPredicate getPredicate(final ITable table) {
+            final IColumn column = getColumn(table, this.columnName);
+            if (column instanceof ICategoryColumn) {
+                final ICategoryColumn categories = (ICategoryColumn) column;
+                final boolean[] selected = new boolean[categories.getDictionarySize()];
+                for (int code = 0; code < selected.length; code++)
+                    selected[code] = this.accepts(categories.decode(code));
+                return row -> {
+                    final int code = categories.getCode(row);
+                    return (code >= 0) && selected[code];
+                };
+            }
+            return row -> {
+                @Nullable final String s = column.getString(row);
+                return (s != null) && this.accepts(s);
+            };
+        }
+    }
+
+    /**
+     * True for the rows where the string value of the column is one of a set of values.
+     */
+    public static final class In extends StringTest {
+        public final Set<String> values;
+
+        public In(final String columnName, final String... values) {
+            super(columnName);
+            this.values = new HashSet<String>(Arrays.asList(values));
+        }
+
+        @Override
+        public int getCost() { return 3; }
+
+        @Override
+        boolean accepts(final String value) {
+            return this.values.contains(value);
+        }
+    }
+
+    /**
+     * True for the rows where the string value of the column starts with a prefix.
+     */
+    public static final class Prefix extends StringTest {
+        public final String prefix;
+
+        public Prefix(final String columnName, final String prefix) {
+            super(columnName);
+            this.prefix = prefix;
+        }
+
+        @Override
+        public int getCost() { return 4; }
+
+        @Override
+        boolean accepts(final String value) {
+            return value.startsWith(this.prefix);
+        }
+    }
+
+    /**
+     * True for the rows that satisfy all operands.
+     */
+    public static final class And extends FilterExpression {
+        public final List<FilterExpression> operands;
+
+        public And(final List<FilterExpression> operands) {
+            this.operands = byCost(operands);
+        }
+
+        public And(final FilterExpression... operands) {
+            this(Arrays.asList(operands));
+        }
+
+        @Override
+        public int getCost() {
+            return this.operands.stream().mapToInt(FilterExpression::getCost).sum();
+        }
+
+        @Override
+        public IMembershipSet filter(final ITable table, final IMembershipSet rows) {
+            IMembershipSet result = rows;
+            for (final FilterExpression operand : this.operands) {
+                if (result.getSize() == 0)
+                    break;
+                result = operand.filter(table, result);
+            }
+            return result;
+        }
+
+        @Override
+        public IntPredicate getPredicate(final ITable table) {
+            IntPredicate result = row -> true;
+            for (final FilterExpression operand : this.operands)
+                result = result.and(operand.getPredicate(table));
+            return result;
+        }
+    }
+
+    /**
+     * True for the rows that satisfy at least one operand.
+     */
+    public static final class Or extends FilterExpression {
+        public final List<FilterExpression> operands;
+
+        public Or(final List<FilterExpression> operands) {
+            this.operands = byCost(operands);
+        }
+
+        public Or(final FilterExpression... operands) {
+            this(Arrays.asList(operands));
+        }
+
+        @Override
+        public int getCost() {
+            return this.operands.stream().mapToInt(FilterExpression::getCost).sum();
+        }
+
+        @Override
+        public IMembershipSet filter(final ITable table, final IMembershipSet rows) {
+            IMembershipSet result = rows.filter(row -> false);
+            IMembershipSet remaining = rows;
+            for (final FilterExpression operand : this.operands) {
+                if (remaining.getSize() == 0)
+                    break;
+                final IMembershipSet selected = operand.filter(table, remaining);
+                if (selected.getSize() == 0)
+                    continue;
+                result = result.union(selected);
+                remaining = remaining.setMinus(selected);
+            }
+            return result;
+        }
+
+        @Override
+        public IntPredicate getPredicate(final ITable table) {
+            IntPredicate result = row -> false;
+            for (final FilterExpression operand : this.operands)
+                result = result.or(operand.getPredicate(table));
+            return result;
+        }
+    }
+
+    /**
+     * True for the rows that do not satisfy the operand; this includes the rows where
+     * a column tested by the operand is missing.
+     */
+    public static final class Not extends FilterExpression {
+        public final FilterExpression operand;
+
+        public Not(final FilterExpression operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public int getCost() { return this.operand.getCost(); }
+
+        @Override
+        public IMembershipSet filter(final ITable table, final IMembershipSet rows) {
+            return rows.setMinus(this.operand.filter(table, rows));
+        }
+
+        @Override
+        public IntPredicate getPredicate(final ITable table) {
+            return this.operand.getPredicate(table).negate();
+        }
+    }
+}
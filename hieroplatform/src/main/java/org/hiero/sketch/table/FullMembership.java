@@ -23,7 +23,8 @@ import org.hiero.sketch.table.api.IRowIterator;
 import org.hiero.utils.IntSet;
 import org.hiero.utils.Randomness;
 
-import java.util.function.Predicate;
+import java.util.List;
+import java.util.function.IntPredicate;
 
 /**
  * A IMembershipSet which contains all rows.
@@ -49,6 +50,11 @@ public class FullMembership implements IMembershipSet {
         return this.rowCount;
     }
 
+    @Override
+    public long getMemoryUsage() {
+        return 0;
+    }
+
     @Override
     public IRowIterator getIterator() {
         return new FullMembershipIterator(this.rowCount);
@@ -71,8 +77,8 @@ public class FullMembership implements IMembershipSet {
     }
 
     @Override
-    public IMembershipSet filter(Predicate<Integer> predicate) {
-        return new SparseMembership(this, predicate);
+    public IMembershipSet filter(IntPredicate predicate) {
+        return DenseMembership.filter(this, this.rowCount, predicate);
     }
 
     /**
@@ -120,6 +126,17 @@ public class FullMembership implements IMembershipSet {
         return new SparseMembership(baseMap);
     }
 
+    @Override
+    public IMembershipSet slice(final int start, final int end) {
+        final int last = Math.min(end, this.rowCount);
+        return new RangeMembership(Math.min(start, last), last);
+    }
+
+    @Override
+    public List<IMembershipSet> split(final int maxPartSize) {
+        return new RangeMembership(0, this.rowCount).split(maxPartSize);
+    }
+
     private IMembershipSet sampleUtil(final Randomness randomGenerator, final int k) {
         int l = k;
         if (k > (int) (this.rowCount * 0.7)) // sample the items that are not returned
@@ -151,5 +168,14 @@ public class FullMembership implements IMembershipSet {
             }
             else return - 1;
         }
+
+        @Override
+        public int getNextBatch(final int[] rows) {
+            final int count = Math.min(rows.length, this.range - this.cursor);
+            for (int i = 0; i < count; i++)
+                rows[i] = this.cursor + i;
+            this.cursor += count;
+            return count;
+        }
     }
 }
@@ -22,19 +22,24 @@ import org.hiero.sketch.table.api.IndexComparator;
 
 import java.util.List;
 
+/**
+ * Compares rows lexicographically on a sequence of column comparators.
+ * RecordOrder uses MethodHandleComparator instead, and this class only where method
+ * handles are not available.
+ */
 public class ListComparator extends IndexComparator {
-    private final List<IndexComparator> comparatorList;
+    private final IndexComparator[] comparators;
 
     public ListComparator(final List<IndexComparator> comparatorList) {
-        this.comparatorList = comparatorList;
+        this.comparators = comparatorList.toArray(new IndexComparator[comparatorList.size()]);
     }
 
     @Override
-    public int compare(final Integer o1, final Integer o2) {
-        for (final IndexComparator aComparator : this.comparatorList) {
-            final int val = aComparator.compare(o1, o2);
+    public int compare(final int i, final int j) {
+        for (final IndexComparator aComparator : this.comparators) {
+            final int val = aComparator.compare(i, j);
             if (val != 0) { return val; }
         }
         return 0;
     }
-}
\ No newline at end of file
+}
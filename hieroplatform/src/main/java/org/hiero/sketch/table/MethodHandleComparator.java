@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.table;
+
+import org.hiero.sketch.table.api.IntComparator;
+import org.hiero.sketch.table.api.IndexComparator;
+
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * Compares rows lexicographically on a sequence of column comparators, like ListComparator,
+ * but the comparators are composed with method handles when it is constructed:
+ * compare(i, j) is c0(i, j) if not 0, else c1(i, j) if not 0, and so on.  Each column
+ * comparator is bound to its own call site in the composed handle, so the per-column calls
+ * are monomorphic instead of all going through the megamorphic call site of the loop in
+ * ListComparator.
+ */
+public final class MethodHandleComparator extends IndexComparator {
+    private final MethodHandle handle;
+
+    /**
+     * IntComparator.compare(int, int); null if method handles cannot be looked up.
+     */
+    @Nullable
+    private static final MethodHandle compare;
+    /**
+     * (int, int, int) -> int returning its first argument.
+     */
+    @Nullable
+    private static final MethodHandle first;
+    @Nullable
+    private static final MethodHandle isZero;
+
+    static {
+        MethodHandle c = null, f = null, z = null;
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            c = lookup.findVirtual(IntComparator.class, "compare",
+                    MethodType.methodType(int.class, int.class, int.class));
+            z = lookup.findStatic(MethodHandleComparator.class, "isZero",
+                    MethodType.methodType(boolean.class, int.class));
+            f = MethodHandles.dropArguments(
+                    MethodHandles.identity(int.class), 1, int.class, int.class);
+        } catch (final ReflectiveOperationException | SecurityException e) {
+            // compose falls back to ListComparator.
+        }
+        compare = c;
+        first = f;
+        isZero = z;
+    }
+
+    private static boolean isZero(final int value) { return value == 0; }
+
+    private MethodHandleComparator(final MethodHandle handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * @param comparators Column comparators, compared in order.
+     * @return A comparator composed with method handles, or a ListComparator if there are
+     * no comparators or method handles are not available.
+     */
+    public static IndexComparator compose(final List<IndexComparator> comparators) {
+        // Without columns all rows are equal.
+        if (comparators.isEmpty() || (compare == null) || (first == null) || (isZero == null))
+            return new ListComparator(comparators);
+        MethodHandle result = compare.bindTo(comparators.get(comparators.size() - 1));
+        for (int c = comparators.size() - 2; c >= 0; c--) {
+            // (v, i, j) -> (v == 0) ? rest(i, j) : v, with v = comparators[c](i, j)
+            final MethodHandle next = MethodHandles.guardWithTest(
+                    isZero, MethodHandles.dropArguments(result, 0, int.class), first);
+            result = MethodHandles.foldArguments(next, compare.bindTo(comparators.get(c)));
+        }
+        return new MethodHandleComparator(result);
+    }
+
+    @Override
+    public int compare(final int i, final int j) {
+        try {
+            return (int) this.handle.invokeExact(i, j);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            // The composed comparators do not throw checked exceptions.
+            throw new RuntimeException(t);
+        }
+    }
+}
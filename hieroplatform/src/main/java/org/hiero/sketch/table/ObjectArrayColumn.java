@@ -25,6 +25,7 @@ import org.hiero.utils.Converters;
 import javax.annotation.Nullable;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 
 /*
  * Column of objects of any type; only for moving data around. Size of column expected to be small.
@@ -72,41 +73,45 @@ public final class ObjectArrayColumn extends BaseArrayColumn {
         return this.data[rowIndex].toString();
     }
 
+    /**
+     * The value comparison is selected once, on the column kind, rather than on every call.
+     */
     @Override
     public IndexComparator getComparator() {
+        final Comparator<Object> values;
+        switch (this.description.kind) {
+            case Json:
+            case Category:
+            case String:
+                values = (a, b) -> ((String)a).compareTo((String)b);
+                break;
+            case Date:
+                values = (a, b) -> ((LocalDateTime)a).compareTo((LocalDateTime)b);
+                break;
+            case Integer:
+                values = (a, b) -> Integer.compare((int)a, (int)b);
+                break;
+            case Double:
+                values = (a, b) -> Double.compare((double)a, (double)b);
+                break;
+            case Duration:
+                values = (a, b) -> ((Duration)a).compareTo((Duration)b);
+                break;
+            default:
+                throw new RuntimeException("Unexpected data type");
+        }
+        final Object[] data = this.data;
         return new IndexComparator() {
             @Override
-            public int compare(final Integer i, final Integer j) {
-                final boolean iMissing = ObjectArrayColumn.this.isMissing(i);
-                final boolean jMissing = ObjectArrayColumn.this.isMissing(j);
-                if (iMissing && jMissing) {
-                    return 0;
-                } else if (iMissing) {
-                    return 1;
-                } else if (jMissing) {
+            public int compare(final int i, final int j) {
+                final Object iValue = data[i];
+                final Object jValue = data[j];
+                if (iValue == null) {
+                    return (jValue == null) ? 0 : 1;
+                } else if (jValue == null) {
                     return -1;
                 } else {
-                    switch (ObjectArrayColumn.this.description.kind) {
-                        case Json:
-                        case Category:
-                        case String:
-                            return Converters.checkNull(ObjectArrayColumn.this.getString(i)).compareTo(
-                                    Converters.checkNull(ObjectArrayColumn.this.getString(j)));
-                        case Date:
-                            return Converters.checkNull(ObjectArrayColumn.this.getDate(i)).compareTo(
-                                    Converters.checkNull(ObjectArrayColumn.this.getDate(j)));
-                        case Integer:
-                            return Integer.compare(Converters.checkNull(ObjectArrayColumn.this.getInt(i)),
-                                    Converters.checkNull(ObjectArrayColumn.this.getInt(j)));
-                        case Double:
-                            return Double.compare(Converters.checkNull(ObjectArrayColumn.this.getDouble(i)),
-                                    Converters.checkNull(ObjectArrayColumn.this.getDouble(j)));
-                        case Duration:
-                            return Converters.checkNull(ObjectArrayColumn.this.getDuration(i)).
-                                    compareTo(Converters.checkNull(ObjectArrayColumn.this.getDuration(j)));
-                        default:
-                            throw new RuntimeException("Unexpected data type");
-                    }
+                    return values.compare(iValue, jValue);
                 }
             }
         };
@@ -131,6 +136,18 @@ public final class ObjectArrayColumn extends BaseArrayColumn {
     public Duration getDuration(final int rowIndex) {
         return (Duration)this.data[rowIndex];
     }
+    @Override
+    public long getLong(final int rowIndex) {
+        switch (this.description.kind) {
+            case Date:
+                return Converters.toEpochMicros(Converters.checkNull(this.getDate(rowIndex)));
+            case Duration:
+                return Converters.toNanos(Converters.checkNull(this.getDuration(rowIndex)));
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
     @Override
     public String getString(final int rowIndex) {
         return (String)this.data[rowIndex];
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.table;
+
+import org.hiero.sketch.table.api.IMembershipSet;
+import org.hiero.sketch.table.api.IRowIterator;
+import org.hiero.utils.IntSet;
+import org.hiero.utils.Randomness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * A IMembershipSet which contains the consecutive rows start, ..., end - 1.
+ * It is used to split a table into parts without copying its membership.
+ */
+public class RangeMembership implements IMembershipSet {
+    private final int start;
+    private final int end;
+
+    public RangeMembership(final int start, final int end) {
+        if ((start < 0) || (end < start))
+            throw new IllegalArgumentException("Illegal row range " + start + ", " + end);
+        this.start = start;
+        this.end = end;
+    }
+
+    public int getStart() { return this.start; }
+
+    public int getEnd() { return this.end; }
+
+    @Override
+    public boolean isMember(final int rowIndex) {
+        return (rowIndex >= this.start) && (rowIndex < this.end);
+    }
+
+    @Override
+    public int getSize() {
+        return this.end - this.start;
+    }
+
+    @Override
+    public long getMemoryUsage() {
+        return 0;
+    }
+
+    @Override
+    public IRowIterator getIterator() {
+        return new RangeIterator(this.start, this.end);
+    }
+
+    @Override
+    public IMembershipSet filter(final IntPredicate predicate) {
+        return DenseMembership.filter(this, this.end, predicate);
+    }
+
+    @Override
+    public IMembershipSet sample(final int k) {
+        if (k >= this.getSize())
+            return this;
+        return this.sampleUtil(Randomness.getInstance(), k);
+    }
+
+    @Override
+    public IMembershipSet sample(final int k, final long seed) {
+        if (k >= this.getSize())
+            return this;
+        final Randomness randomGenerator = Randomness.getInstance();
+        randomGenerator.setSeed(seed);
+        return this.sampleUtil(randomGenerator, k);
+    }
+
+    /**
+     * Draws distinct rows at random; if most rows are wanted the rows that are left out
+     * are drawn instead.
+     */
+    private IMembershipSet sampleUtil(final Randomness randomGenerator, final int k) {
+        final int size = this.getSize();
+        final int l = (k > (int) (size * 0.7)) ? (size - k) : k;
+        final IntSet s = new IntSet(l);
+        while (s.size() < l)
+            s.add(this.start + randomGenerator.nextInt(size));
+        if (l == k)
+            return new SparseMembership(s);
+        return this.setMinus(new SparseMembership(s));
+    }
+
+    @Override
+    public IMembershipSet union(final IMembershipSet otherSet) {
+        if (otherSet instanceof RangeMembership) {
+            final RangeMembership other = (RangeMembership) otherSet;
+            if ((other.start <= this.end) && (this.start <= other.end))
+                return new RangeMembership(Math.min(this.start, other.start),
+                                           Math.max(this.end, other.end));
+        } else if ((otherSet instanceof FullMembership) && (this.start <= otherSet.getSize())) {
+            return new FullMembership(Math.max(this.end, otherSet.getSize()));
+        }
+        return new DenseMembership(this).union(otherSet);
+    }
+
+    @Override
+    public IMembershipSet intersection(final IMembershipSet otherSet) {
+        if (otherSet instanceof RangeMembership) {
+            final RangeMembership other = (RangeMembership) otherSet;
+            final int newStart = Math.max(this.start, other.start);
+            return new RangeMembership(newStart, Math.max(newStart, Math.min(this.end, other.end)));
+        }
+        if (otherSet instanceof FullMembership) {
+            final int newEnd = Math.min(this.end, otherSet.getSize());
+            return new RangeMembership(Math.min(this.start, newEnd), newEnd);
+        }
+        return this.filter(otherSet::isMember);
+    }
+
+    @Override
+    public IMembershipSet setMinus(final IMembershipSet otherSet) {
+        return this.filter(row -> !otherSet.isMember(row));
+    }
+
+    @Override
+    public IMembershipSet slice(final int start, final int end) {
+        final int last = this.start + Math.min(end, this.getSize());
+        return new RangeMembership(Math.min(this.start + start, last), last);
+    }
+
+    @Override
+    public List<IMembershipSet> split(final int maxPartSize) {
+        if (maxPartSize <= 0)
+            throw new IllegalArgumentException("Part size must be positive: " + maxPartSize);
+        final List<IMembershipSet> result = new ArrayList<IMembershipSet>();
+        for (int partStart = this.start; partStart < this.end; partStart += maxPartSize)
+            result.add(new RangeMembership(
+                    partStart, (int) Math.min((long) partStart + maxPartSize, this.end)));
+        return result;
+    }
+
+    private static class RangeIterator implements IRowIterator {
+        private int cursor;
+        private final int end;
+
+        private RangeIterator(final int start, final int end) {
+            this.cursor = start;
+            this.end = end;
+        }
+
+        @Override
+        public int getNextRow() {
+            if (this.cursor < this.end)
+                return this.cursor++;
+            return -1;
+        }
+
+        @Override
+        public int getNextBatch(final int[] rows) {
+            final int count = Math.min(rows.length, this.end - this.cursor);
+            for (int i = 0; i < count; i++)
+                rows[i] = this.cursor + i;
+            this.cursor += count;
+            return count;
+        }
+    }
+}
@@ -23,10 +23,11 @@ import org.hiero.sketch.table.api.IColumn;
 import org.hiero.sketch.table.api.ISubSchema;
 import org.hiero.sketch.table.api.ITable;
 import org.hiero.sketch.table.api.IndexComparator;
+import org.hiero.sketch.table.api.IntComparator;
 import org.hiero.utils.Converters;
+import org.hiero.utils.IntSort;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -75,8 +76,24 @@ public class RecordOrder implements Iterable<ColumnSortOrientation> {
         return this.sortOrientationList.iterator();
     }
 
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if ((o == null) || (getClass() != o.getClass())) return false;
+        return this.sortOrientationList.equals(((RecordOrder) o).sortOrientationList);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.sortOrientationList.hashCode();
+    }
+
     /**
-     * Returns an IndexComparator for rows in a Table, based on the sort order.
+     * Returns an IndexComparator for rows in a Table, based on the sort order.  Each column
+     * comparator compares primitive values (category columns compare the ranks of their
+     * codes), and an IndexComparator is an IntComparator, so this is also the comparator
+     * to use with IntSort and IntTopK.  The comparators of several columns are composed
+     * once by MethodHandleComparator, so that comparing rows does not loop over them.
      * The table and the RecordOrder need to be compatible.
      * @param table The Table we wish to sort.
      * @return A Comparator that compares two records based on the RecordOrder specified.
@@ -91,7 +108,9 @@ public class RecordOrder implements Iterable<ColumnSortOrientation> {
                 comparatorList.add(nextCol.getComparator().rev());
             }
         }
-        return new ListComparator(comparatorList);
+        if (comparatorList.size() == 1)
+            return comparatorList.get(0);
+        return MethodHandleComparator.compose(comparatorList);
     }
 
     /**
@@ -99,18 +118,81 @@ public class RecordOrder implements Iterable<ColumnSortOrientation> {
      * method above. The table and the RecordOrder need to be compatible.
      * Should only be applied to very small tables.
      * @param table The Table we wish to sort.
-     * @return A Comparator that compares two rows based on the Sort Order specified.
+     * @return The row indexes of the table in sorted order.
      */
-    public Integer[] getSortedRowOrder(final SmallTable table) {
+    public int[] getSortedRowOrder(final SmallTable table) {
         final int size = table.getNumOfRows();
-        final Integer[] order = new Integer[size];
+        final int[] order = new int[size];
         for (int i = 0; i < size; i++) {
             order[i] = i;
         }
-        Arrays.sort(order, this.getComparator(table));
+        IntSort.sort(order, this.getComparator(table));
         return order;
     }
 
+    /**
+     * Returns a comparator between a row of the left table and a row of the right table, which
+     * must have the same schema. The first index passed to the comparator is a left row, the
+     * second one a right row.
+     */
+    private IntComparator getMergeComparator(final SmallTable left, final SmallTable right) {
+        if (!left.schema.equals(right.schema))
+            throw new RuntimeException("Tables do not have matching schemas");
+        final IntComparator[] comparators = new IntComparator[this.sortOrientationList.size()];
+        for (int c = 0; c < comparators.length; c++) {
+            final ColumnSortOrientation ordCol = this.sortOrientationList.get(c);
+            final IntComparator comparator = getMergeComparator(
+                    left.getColumn(ordCol.columnDescription.name),
+                    right.getColumn(ordCol.columnDescription.name));
+            comparators[c] = ordCol.isAscending ? comparator : (i, j) -> -comparator.compare(i, j);
+        }
+        if (comparators.length == 1)
+            return comparators[0];
+        return (i, j) -> {
+            for (final IntComparator comparator : comparators) {
+                final int val = comparator.compare(i, j);
+                if (val != 0)
+                    return val;
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * A comparator between a row of the left column and a row of the right column, specialized
+     * on the kind of the columns; missing values are larger than all others.
+     */
+    private static IntComparator getMergeComparator(final IColumn left, final IColumn right) {
+        final IntComparator values;
+        switch (left.getDescription().kind) {
+            case Json:
+            case Category:
+            case String:
+                values = (i, j) -> Converters.checkNull(left.getString(i)).compareTo(
+                        Converters.checkNull(right.getString(j)));
+                break;
+            case Integer:
+                values = (i, j) -> Integer.compare(left.getInt(i), right.getInt(j));
+                break;
+            case Double:
+                values = (i, j) -> Double.compare(left.getDouble(i), right.getDouble(j));
+                break;
+            case Date:
+            case Duration:
+                values = (i, j) -> Long.compare(left.getLong(i), right.getLong(j));
+                break;
+            default:
+                throw new RuntimeException("Unexpected data type");
+        }
+        return (i, j) -> {
+            final boolean leftMissing = left.isMissing(i);
+            final boolean rightMissing = right.isMissing(j);
+            if (leftMissing || rightMissing)
+                return Boolean.compare(leftMissing, rightMissing);
+            return values.compare(i, j);
+        };
+    }
+
     /**
      * Given two Tables in sorted order, decide the order in which to merge them. We do not treat
      * equality specially: any order is ok. This is used for instance in computing Quantiles.
@@ -120,70 +202,23 @@ public class RecordOrder implements Iterable<ColumnSortOrientation> {
      * comes form the Left.
      */
     public boolean[] getMergeOrder(final SmallTable left, final SmallTable right) {
-        if (!left.schema.equals(right.schema)) {
-            throw new RuntimeException("Tables do not have matching schemas");
-        }
+        final IntComparator comparator = this.getMergeComparator(left, right);
         final int  leftLength = left.getNumOfRows();
         final int  rightLength = right.getNumOfRows();
         final int length = leftLength + rightLength;
         final boolean[] mergeLeft = new boolean[length];
         int i = 0, j = 0, k = 0;
-        int outcome;
         while ((i < leftLength) && (j < rightLength)) {
-            outcome = 0;
-            for (final ColumnSortOrientation ordCol : this.sortOrientationList) {
-                final IColumn leftCol = left.getColumn(ordCol.columnDescription.name);
-                final IColumn rightCol = right.getColumn(ordCol.columnDescription.name);
-                final boolean leftMissing = leftCol.isMissing(i);
-                final boolean rightMissing = rightCol.isMissing(j);
-                if (leftMissing && rightMissing) {
-                    outcome = 0;
-                } else if (leftMissing) {
-                    outcome = 1;
-                } else if (rightMissing) {
-                    outcome = -1;
-                } else {
-                    switch (left.schema.getKind(ordCol.columnDescription.name)) {
-                        case Json:
-                        case Category:
-                        case String:
-                            outcome = Converters.checkNull(leftCol.getString(i))
-                                                .compareTo(Converters.checkNull(rightCol.getString(j)));
-                            break;
-                        case Date:
-                            outcome = Converters.checkNull(leftCol.getDate(i))
-                                                .compareTo(Converters.checkNull(rightCol.getDate(j)));
-                            break;
-                        case Integer:
-                            outcome = Integer.compare(Converters.checkNull(leftCol.getInt(i)),
-                                    Converters.checkNull(rightCol.getInt(j)));
-                            break;
-                        case Double:
-                            outcome = Double.compare(Converters.checkNull(leftCol.getDouble(i)),
-                                    Converters.checkNull(rightCol.getDouble(j)));
-                            break;
-                        case Duration:
-                            outcome = Converters.checkNull(leftCol.getDuration(i))
-                                                .compareTo(Converters.checkNull(rightCol.getDuration(j)));
-                            break;
-                    }
-                }
-                if (!ordCol.isAscending) {
-                    outcome *= -1;
-                }
-                if (outcome < 0) {
-                    mergeLeft[k] = true;
-                    i++;
-                    k++;
-                    break;
-                } else if (outcome > 0) {
-                    mergeLeft[k] = false;
-                    j++;
-                    k++;
-                    break;
-                }
-            }
-            if (outcome == 0) {
+            final int outcome = comparator.compare(i, j);
+            if (outcome < 0) {
+                mergeLeft[k] = true;
+                i++;
+                k++;
+            } else if (outcome > 0) {
+                mergeLeft[k] = false;
+                j++;
+                k++;
+            } else {
                 mergeLeft[k] = true;
                 mergeLeft[k + 1] = false;
                 i++;
@@ -216,71 +251,18 @@ public class RecordOrder implements Iterable<ColumnSortOrientation> {
      * comes form the Left, 1 if it comes from the Right, 0 if the two are equal.
      */
     public List<Integer> getIntMergeOrder(SmallTable left, SmallTable right) {
-        if (!left.schema.equals(right.schema))
-            throw new RuntimeException("Tables do not have matching schemas");
-
+        final IntComparator comparator = this.getMergeComparator(left, right);
         final int leftLength = left.getNumOfRows();
         final int rightLength = right.getNumOfRows();
         final List<Integer> merge = new ArrayList<>();
         int i = 0, j = 0;
-        int outcome;
         while ((i < leftLength) && (j < rightLength)) {
-            outcome = 0;
-            for (final ColumnSortOrientation ordCol : this.sortOrientationList) {
-                final IColumn leftCol = left.getColumn(ordCol.columnDescription.name);
-                final IColumn rightCol = right.getColumn(ordCol.columnDescription.name);
-                final boolean leftMissing = leftCol.isMissing(i);
-                final boolean rightMissing = rightCol.isMissing(j);
-                if (leftMissing && rightMissing) {
-                    outcome = 0;
-                } else if (leftMissing) {
-                    outcome = 1;
-                } else if (rightMissing) {
-                    outcome = -1;
-                } else {
-                    switch (left.schema.getKind(ordCol.columnDescription.name)) {
-                        case Category:
-                        case String:
-                        case Json:
-                            outcome = Converters.checkNull(leftCol.getString(i))
-                                                .compareTo(Converters.checkNull(rightCol.getString(j)));
-                            break;
-                        case Date:
-                            outcome = Converters.checkNull(leftCol.getDate(i))
-                                                .compareTo(Converters.checkNull(rightCol.getDate(j)));
-                            break;
-                        case Integer:
-                            outcome = Integer.compare(Converters.checkNull(leftCol.getInt(i)),
-                                    Converters.checkNull(rightCol.getInt(j)));
-                            break;
-                        case Double:
-                            outcome = Double.compare(Converters.checkNull(leftCol.getDouble(i)),
-                                    Converters.checkNull(rightCol.getDouble(j)));
-                            break;
-                        case Duration:
-                            outcome = Converters.checkNull(leftCol.getDuration(i))
-                                                .compareTo(Converters.checkNull(rightCol.getDuration(j)));
-                            break;
-                    }
-                }
-                if (!ordCol.isAscending) {
-                    outcome *= -1;
-                }
-                if (outcome < 0) {
-                    merge.add(outcome);
-                    i++;
-                    break;
-                } else if (outcome > 0) {
-                    merge.add(outcome);
-                    j++;
-                    break;
-                }
-            }
-            if (outcome == 0) {
-                merge.add(outcome);
+            final int outcome = Integer.signum(comparator.compare(i, j));
+            merge.add(outcome);
+            if (outcome <= 0)
                 i++;
+            if (outcome >= 0)
                 j++;
-            }
         }
         while (i < leftLength) {
             merge.add(-1);
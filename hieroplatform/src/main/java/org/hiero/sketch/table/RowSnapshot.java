@@ -50,6 +50,13 @@ public class RowSnapshot extends BaseRowSnapshot implements Serializable, IJson
             this.field.put(colName, data.getColumn(colName).getObject(rowIndex));
     }
 
+    /**
+     * @return An estimate of the memory held by the snapshot, in bytes.
+     */
+    public long getMemoryUsage() {
+        return 64 + (80L * this.field.size());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -24,6 +24,9 @@ import org.hiero.sketch.table.api.ITable;
 import org.hiero.utils.Converters;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
 
 /**
  * This class lets us compare a RowSnapShot to entries from a Table according to a prescribed
@@ -32,15 +35,58 @@ import javax.annotation.Nullable;
  * NextKSketch.
  */
 public class RowTableComparison {
-    @Nullable
-    private final RowSnapshot topRow;
-    private final ITable table;
-    private final RecordOrder recordOrder;
+    /**
+     * For each column in the order: compares a row of the table to topRow.  Values of
+     * topRow are read once, when the comparison is created.
+     */
+    private final IntUnaryOperator[] columnComparisons;
+    private final boolean hasTopRow;
 
     public RowTableComparison(@Nullable RowSnapshot topRow, ITable table, RecordOrder recordOrder ) {
-        this.topRow = topRow;
-        this.table = table;
-        this.recordOrder = recordOrder;
+        this.hasTopRow = topRow != null;
+        final List<IntUnaryOperator> comparisons = new ArrayList<IntUnaryOperator>();
+        if (topRow != null) {
+            for (ColumnSortOrientation ordCol : recordOrder) {
+                final IntUnaryOperator comparison =
+                        getComparison(topRow, table, ordCol.columnDescription.name);
+                comparisons.add(ordCol.isAscending ? comparison : i -> -comparison.applyAsInt(i));
+            }
+        }
+        this.columnComparisons = comparisons.toArray(new IntUnaryOperator[0]);
+    }
+
+    private static IntUnaryOperator getComparison(RowSnapshot topRow, ITable table, String colName) {
+        final IColumn iCol = table.getColumn(colName);
+        if (topRow.isMissing(colName))
+            return i -> iCol.isMissing(i) ? 0 : -1;
+        final IntUnaryOperator values;
+        switch (table.getSchema().getKind(colName)) {
+            case String:
+            case Category:
+            case Json:
+                final String s = Converters.checkNull(topRow.getString(colName));
+                values = i -> Converters.checkNull(iCol.getString(i)).compareTo(s);
+                break;
+            case Date:
+                final long date = Converters.toEpochMicros(Converters.checkNull(topRow.getDate(colName)));
+                values = i -> Long.compare(iCol.getLong(i), date);
+                break;
+            case Integer:
+                final int n = Converters.checkNull(topRow.getInt(colName));
+                values = i -> Integer.compare(iCol.getInt(i), n);
+                break;
+            case Double:
+                final double d = Converters.checkNull(topRow.getDouble(colName));
+                values = i -> Double.compare(iCol.getDouble(i), d);
+                break;
+            case Duration:
+                final long duration = Converters.toNanos(Converters.checkNull(topRow.getDuration(colName)));
+                values = i -> Long.compare(iCol.getLong(i), duration);
+                break;
+            default:
+                throw new RuntimeException("Unexpected data type");
+        }
+        return i -> iCol.isMissing(i) ? 1 : values.applyAsInt(i);
     }
 
     /**
@@ -49,50 +95,13 @@ public class RowTableComparison {
      * @return 1 if row i is greater, 0 if they are equal, -1 if it is less.
      */
     public int compareToRow(int i) {
-        int outcome = 0;
-        if (this.topRow == null) return 1;
-        for (ColumnSortOrientation ordCol : this.recordOrder) {
-            String colName = ordCol.columnDescription.name;
-            IColumn iCol = this.table.getColumn(colName);
-            if (iCol.isMissing(i) && this.topRow.isMissing(colName)) {
-                outcome = 0;
-            } else if (iCol.isMissing(i)) {
-                outcome = 1;
-            } else if (this.topRow.isMissing(colName)) {
-                outcome = -1;
-            } else {
-                switch (this.table.getSchema().getKind(colName)) {
-                    case String:
-                    case Category:
-                    case Json:
-                        outcome = Converters.checkNull(iCol.getString(i))
-                                            .compareTo(Converters.checkNull(this.topRow.getString(colName)));
-                        break;
-                    case Date:
-                        outcome = Converters.checkNull(iCol.getDate(i)).compareTo(
-                                Converters.checkNull(this.topRow.getDate(colName)));
-                        break;
-                    case Integer:
-                        outcome = Integer.compare(Converters.checkNull(iCol.getInt(i)),
-                                Converters.checkNull(this.topRow.getInt(colName)));
-                        break;
-                    case Double:
-                        outcome = Double.compare(Converters.checkNull(iCol.getDouble(i)),
-                                Converters.checkNull(this.topRow.getDouble(colName)));
-                        break;
-                    case Duration:
-                        outcome = Converters.checkNull(iCol.getDuration(i))
-                                            .compareTo(Converters.checkNull(this.topRow.getDuration(colName)));
-                        break;
-                }
-            }
-            if (!ordCol.isAscending) {
-                outcome *= -1;
-            }
+        if (!this.hasTopRow) return 1;
+        for (IntUnaryOperator comparison : this.columnComparisons) {
+            final int outcome = comparison.applyAsInt(i);
             if (outcome != 0) {
                 return outcome;
             }
         }
         return 0;
     }
-}
\ No newline at end of file
+}
@@ -22,7 +22,9 @@ import org.hiero.sketch.table.api.IMembershipSet;
 import org.hiero.sketch.table.api.IRowIterator;
 import org.hiero.utils.IntSet;
 
-import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
 
 
 /**
@@ -30,10 +32,14 @@ import java.util.function.Predicate;
  * membership and iterator methods. The upside is that it is efficient in space and that the
  * iterator is very efficient. So this implementation is best when the set is sparse.
  * The downside is the constructor that runs in linear time.
+ * The iterator returns rows in increasing order, so that columns are scanned sequentially;
+ * the sorted rows are computed on the first iteration and cached.
  */
 public class SparseMembership implements IMembershipSet {
     private final IntSet membershipMap;
     private static final int sizeEstimationSampleSize = 20;
+    @Nullable
+    private volatile int[] sortedRows;
 
     /**
      * Standard way to construct this map is by supplying a membershipSet (perhaps the full one),
@@ -42,7 +48,7 @@ public class SparseMembership implements IMembershipSet {
      * @param filter  the additional selectRowsFromFullTable to be applied on the base map
      */
     public SparseMembership(final IMembershipSet baseMap,
-                            final Predicate<Integer> filter) {
+                            final IntPredicate filter) {
         final IRowIterator baseIterator = baseMap.getIterator();
         this.membershipMap = new IntSet(this.estimateSize(baseMap, filter));
         int tmp = baseIterator.getNextRow();
@@ -89,7 +95,7 @@ public class SparseMembership implements IMembershipSet {
     }
 
     @Override
-    public IMembershipSet filter(Predicate<Integer> predicate) {
+    public IMembershipSet filter(IntPredicate predicate) {
         return new SparseMembership(this, predicate);
     }
 
@@ -130,7 +136,40 @@ public class SparseMembership implements IMembershipSet {
 
     @Override
     public IRowIterator getIterator() {
-        return new SparseIterator(this.membershipMap);
+        return new SparseIterator(this.getSortedRows());
+    }
+
+    /**
+     * @return The members of the set in increasing order.  Computed once and cached.
+     */
+    private int[] getSortedRows() {
+        int[] rows = this.sortedRows;
+        if (rows == null) {
+            rows = new int[this.membershipMap.size()];
+            final IntSet.IntSetIterator it = this.membershipMap.getIterator();
+            int index = 0;
+            int curr = it.getNext();
+            while (curr >= 0) {
+                rows[index++] = curr;
+                curr = it.getNext();
+            }
+            Arrays.sort(rows);
+            this.sortedRows = rows;
+        }
+        return rows;
+    }
+
+    @Override
+    public IMembershipSet slice(final int start, final int end) {
+        final int[] rows = this.getSortedRows();
+        final int last = Math.min(end, rows.length);
+        final int first = Math.min(start, last);
+        final IntSet set = new IntSet(last - first);
+        for (int i = first; i < last; i++)
+            set.add(rows[i]);
+        final SparseMembership result = new SparseMembership(set);
+        result.sortedRows = Arrays.copyOfRange(rows, first, last);
+        return result;
     }
 
     @Override
@@ -165,7 +204,7 @@ public class SparseMembership implements IMembershipSet {
      * initialization of a hash table sizes.
      */
     private int estimateSize(final IMembershipSet baseMap,
-                             final Predicate<Integer> filter) {
+                             final IntPredicate filter) {
         final IMembershipSet sampleSet = baseMap.sample(sizeEstimationSampleSize);
         if (sampleSet.getSize() == 0)
             return 0;
@@ -180,16 +219,28 @@ public class SparseMembership implements IMembershipSet {
         return (baseMap.getSize() * esize) / sampleSet.getSize();
     }
 
-    private class SparseIterator implements IRowIterator {
-        final private IntSet.IntSetIterator mysetIterator;
+    private static class SparseIterator implements IRowIterator {
+        final private int[] rows;
+        private int index;
 
-        private SparseIterator(final IntSet mySet) {
-            this.mysetIterator = mySet.getIterator();
+        private SparseIterator(final int[] rows) {
+            this.rows = rows;
+            this.index = 0;
         }
 
         @Override
         public int getNextRow() {
-            return this.mysetIterator.getNext();
+            if (this.index >= this.rows.length)
+                return -1;
+            return this.rows[this.index++];
+        }
+
+        @Override
+        public int getNextBatch(final int[] rows) {
+            final int count = Math.min(rows.length, this.rows.length - this.index);
+            System.arraycopy(this.rows, this.index, rows, 0, count);
+            this.index += count;
+            return count;
         }
     }
 }
@@ -17,8 +17,11 @@
  */
 
 package org.hiero.sketch.table;
+import org.hiero.sketch.table.api.IMembershipSet;
 import org.hiero.sketch.table.api.ITable;
 
+import java.util.function.IntPredicate;
+
 /**
  * Interface implemented a selectRowsFromFullTable over a table.
  */
@@ -34,4 +37,22 @@ public interface TableFilter {
      * @param rowIndex Row index in the table.
      */
     boolean test(int rowIndex);
+
+    /**
+     * Returns a predicate on the row indexes of the table.  The default interprets the filter
+     * by calling setTable and then test for each row; filters can instead return a predicate
+     * specialized for the columns of the table, which holds no state in the filter.
+     * @param table: Table on which the filter operates.
+     */
+    default IntPredicate getPredicate(final ITable table) {
+        this.setTable(table);
+        return this::test;
+    }
+
+    /**
+     * @return The rows of the table selected by the filter.
+     */
+    default IMembershipSet filter(final ITable table) {
+        return table.getMembershipSet().filter(this.getPredicate(table));
+    }
 }
@@ -26,7 +26,7 @@ import java.io.Serializable;
 public enum ContentsKind implements Serializable {
     Category, /* Categories and strings are the same, but strings cannot be histogrammed */
     String,
-    Date,  /* java.Util.Date values */
+    Date,  /* java.time.LocalDateTime values */
     Integer,
     Json,
     Double,
@@ -40,10 +40,11 @@ public enum ContentsKind implements Serializable {
         switch (this) {
             case Category:
             case String:
-            case Date:
             case Json:
-            case Duration:
                 return true;
+            case Date:
+            case Duration:
+                // stored as longs
             case Integer:
             case Double:
             default:
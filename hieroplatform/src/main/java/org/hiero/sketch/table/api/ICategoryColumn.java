@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.hiero.sketch.table.api;
+
+import org.hiero.sketch.table.CategoryArrayColumn;
+import org.hiero.utils.Converters;
+import org.hiero.utils.IntSort;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * A column of categorical strings, stored as integer codes indexing a per-column dictionary.
+ * A missing value has a negative code.
+ */
+public interface ICategoryColumn extends IStringColumn {
+    /**
+     * @return The code of the value in the specified row; negative if the value is missing.
+     */
+    int getCode(int rowIndex);
+
+    /**
+     * @return The number of distinct values; all codes are smaller than this value.
+     */
+    int getDictionarySize();
+
+    /**
+     * @return The string encoded by the specified (non-negative) code.
+     */
+    String decode(int code);
+
+    /**
+     * Converts each dictionary entry to a double, so that rows can be converted
+     * with an array lookup instead of a string conversion.
+     * @return An array indexed by code.
+     */
+    default double[] decodeAsDouble(@Nullable final IStringConverter converter) {
+        final double[] result = new double[this.getDictionarySize()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = Converters.checkNull(converter).asDouble(this.decode(i));
+        return result;
+    }
+
+    @Override
+    default double asDouble(final int rowIndex, @Nullable final IStringConverter conv) {
+        final int code = this.getCode(rowIndex);
+        if (code < 0)
+            throw new MissingException(this, rowIndex);
+        return Converters.checkNull(conv).asDouble(this.decode(code));
+    }
+
+    /**
+     * Each dictionary entry is converted once; rows are then tested with an array lookup.
+     */
+    @Override
+    default IntPredicate getRangePredicate(final double min, final double max,
+                                           @Nullable final IStringConverter converter) {
+        if (converter == null)
+            return IStringColumn.super.getRangePredicate(min, max, null);
+        final double[] values = this.decodeAsDouble(converter);
+        final boolean[] selected = new boolean[values.length];
+        for (int code = 0; code < values.length; code++)
+            selected[code] = (min <= values[code]) && (values[code] <= max);
+        return row -> {
+            final int code = this.getCode(row);
+            return (code >= 0) && selected[code];
+        };
+    }
+
+    /**
+     * Rows are compared on the rank of their codes, so each string comparison is done
+     * once per pair of dictionary entries instead of once per pair of rows.
+     */
+    @Override
+    default IndexComparator getComparator() {
+        final int size = this.getDictionarySize();
+        final int[] codes = new int[size];
+        for (int code = 0; code < size; code++)
+            codes[code] = code;
+        IntSort.sort(codes, (a, b) -> this.decode(a).compareTo(this.decode(b)));
+        final int[] rank = new int[size];
+        for (int r = 0; r < size; r++)
+            rank[codes[r]] = r;
+        return new IndexComparator() {
+            @Override
+            public int compare(final int i, final int j) {
+                final int iCode = ICategoryColumn.this.getCode(i);
+                final int jCode = ICategoryColumn.this.getCode(j);
+                if ((iCode < 0) || (jCode < 0))
+                    return Boolean.compare(iCode < 0, jCode < 0);
+                return Integer.compare(rank[iCode], rank[jCode]);
+            }
+        };
+    }
+
+    /**
+     * Compresses the column to a CategoryArrayColumn of the same kind.  Codes are copied
+     * and renumbered; only the strings that are used are encoded, once each.
+     * @param rowOrder specifies the set of rows and their order
+     * @return A CategoryArrayColumn with the specified sequence of rows
+     */
+    @Override
+    default IColumn compress(final IRowOrder rowOrder) {
+        final IRowIterator rowIt = rowOrder.getIterator();
+        final CategoryArrayColumn result = new CategoryArrayColumn(
+                this.getDescription(), rowOrder.getSize());
+        // The code in the result of each code of this column; -1 if not encoded yet.
+        final int[] newCodes = new int[this.getDictionarySize()];
+        Arrays.fill(newCodes, -1);
+        int row = 0;
+        while (true) {
+            final int i = rowIt.getNextRow();
+            if (i < 0)
+                break;
+            final int code = this.getCode(i);
+            if (code >= 0) {
+                if (newCodes[code] < 0)
+                    newCodes[code] = result.encode(this.decode(code));
+                result.setCode(row, newCodes[code]);
+            }
+            row++;
+        }
+        return result;
+    }
+}
@@ -24,6 +24,7 @@ import org.hiero.sketch.table.ObjectArrayColumn;
 import javax.annotation.Nullable;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.function.IntPredicate;
 
 /**
  * Interface describing operations on a column.
@@ -41,6 +42,9 @@ public interface IColumn {
     int getInt(int rowIndex);
     @Nullable
     Duration getDuration(int rowIndex);
+    /* Works for Date and Duration columns: microseconds since Jan 1st 1970 for
+       dates, nanoseconds for durations.  Does not allocate objects. */
+    long getLong(int rowIndex);
     /* This function is inefficient, it should be used sparingly. It
        will cast the value to an Object, boxing it if necessary. It returns null
        if the row is missing.
@@ -72,22 +76,87 @@ public interface IColumn {
      */
     boolean isMissing(int rowIndex);
 
+    /**
+     * Batch version of isMissing.
+     * @param rowIndexes Rows to check; only the first count are used.
+     * @param missing    Set to true for each of the count rows that is missing, false otherwise.
+     * @return The number of missing rows in the batch.
+     */
+    default int getMissing(final int[] rowIndexes, final int count, final boolean[] missing) {
+        int missingCount = 0;
+        for (int i = 0; i < count; i++) {
+            missing[i] = this.isMissing(rowIndexes[i]);
+            if (missing[i])
+                missingCount++;
+        }
+        return missingCount;
+    }
+
     /**
      * @return Number of rows in the column.
      */
     int sizeInRows();
 
+    /**
+     * @return An estimate of the memory used by the values of the column, in bytes;
+     * strings are assumed to be short.
+     */
+    default long getMemoryUsage() {
+        final ColumnDescription description = this.getDescription();
+        final long rows = this.sizeInRows();
+        final long missingBits = description.allowMissing ? rows / 8 : 0;
+        switch (description.kind) {
+            case Category:  // codes; the dictionary is usually small
+            case Integer:
+                return (4 * rows) + missingBits;
+            case Date:
+            case Double:
+            case Duration:
+                return (8 * rows) + missingBits;
+            default:
+                return 48 * rows;
+        }
+    }
+
     /**
      * Whatever the internal data type, return a double.
      */
     double asDouble(int rowIndex, @Nullable IStringConverter converter);
 
+    /**
+     * Batch version of asDouble.  The value of rowIndexes[i] is written to values[i],
+     * for i smaller than count.  The values written for missing rows are unspecified.
+     */
+    default void asDoubles(final int[] rowIndexes, final int count,
+                           @Nullable final IStringConverter converter, final double[] values) {
+        for (int i = 0; i < count; i++) {
+            final int row = rowIndexes[i];
+            if (!this.isMissing(row))
+                values[i] = this.asDouble(row, converter);
+        }
+    }
+
     // Returns null only if the object is missing.
     @Nullable
     String asString(int rowIndex);
 
     IndexComparator getComparator();
 
+    /**
+     * Returns a predicate that is true for the rows whose value, converted with asDouble, is
+     * between min and max inclusive; missing rows are never selected.  Columns backed by arrays
+     * return a predicate bound to their arrays, which does not make virtual calls per row.
+     */
+    default IntPredicate getRangePredicate(final double min, final double max,
+                                           @Nullable final IStringConverter converter) {
+        return row -> {
+            if (this.isMissing(row))
+                return false;
+            final double d = this.asDouble(row, converter);
+            return (min <= d) && (d <= max);
+        };
+    }
+
     /**
      * Compresses an IColumn to an ObjectArrayColumn, ordered according to the specified rowOrder
      * @param rowOrder specifies the set of rows and their order
@@ -18,17 +18,16 @@
 
 package org.hiero.sketch.table.api;
 
+import org.hiero.sketch.table.DateArrayColumn;
 import org.hiero.utils.Converters;
 import javax.annotation.Nullable;
-import java.time.LocalDateTime;
 
 public interface IDateColumn extends IColumn {
     @Override
     default double asDouble(final int rowIndex, @Nullable final IStringConverter unused) {
         if (isMissing(rowIndex))
             throw new MissingException(this, rowIndex);
-        final LocalDateTime tmp = this.getDate(rowIndex);
-        return Converters.toDouble(Converters.checkNull(tmp));
+        return Converters.microsToDouble(this.getLong(rowIndex));
     }
 
     @Nullable
@@ -43,7 +42,7 @@ public interface IDateColumn extends IColumn {
     default IndexComparator getComparator() {
         return new IndexComparator() {
             @Override
-            public int compare(final Integer i, final Integer j) {
+            public int compare(final int i, final int j) {
                 final boolean iMissing = IDateColumn.this.isMissing(i);
                 final boolean jMissing = IDateColumn.this.isMissing(j);
                 if (iMissing && jMissing) {
@@ -53,10 +52,32 @@ public interface IDateColumn extends IColumn {
                 } else if (jMissing) {
                     return -1;
                 } else {
-                    return Converters.checkNull(IDateColumn.this.getDate(i))
-                                     .compareTo(Converters.checkNull(IDateColumn.this.getDate(j)));
+                    return Long.compare(IDateColumn.this.getLong(i), IDateColumn.this.getLong(j));
                 }
             }
         };
     }
+
+    /**
+     * Compresses the column to a DateArrayColumn of the same kind.
+     * @param rowOrder specifies the set of rows and their order
+     * @return A DateArrayColumn with the specified sequence of rows
+     */
+    @Override
+    default IColumn compress(final IRowOrder rowOrder) {
+        final IRowIterator rowIt = rowOrder.getIterator();
+        final DateArrayColumn result = new DateArrayColumn(this.getDescription(), rowOrder.getSize());
+        int row = 0;
+        while (true) {
+            final int i = rowIt.getNextRow();
+            if (i < 0)
+                break;
+            if (this.isMissing(i))
+                result.setMissing(row);
+            else
+                result.set(row, this.getLong(i));
+            row++;
+        }
+        return result;
+    }
 }
@@ -18,6 +18,8 @@
 
 package org.hiero.sketch.table.api;
 
+import org.hiero.sketch.table.DoubleArrayColumn;
+
 import javax.annotation.Nullable;
 
 public interface IDoubleColumn extends IColumn {
@@ -40,7 +42,7 @@ public interface IDoubleColumn extends IColumn {
     default IndexComparator getComparator() {
         return new IndexComparator() {
             @Override
-            public int compare(final Integer i, final Integer j) {
+            public int compare(final int i, final int j) {
                 final boolean iMissing = IDoubleColumn.this.isMissing(i);
                 final boolean jMissing = IDoubleColumn.this.isMissing(j);
                 if (iMissing && jMissing) {
@@ -55,4 +57,27 @@ public interface IDoubleColumn extends IColumn {
             }
         };
     }
+
+    /**
+     * Compresses the column to a DoubleArrayColumn of the same kind.
+     * @param rowOrder specifies the set of rows and their order
+     * @return A DoubleArrayColumn with the specified sequence of rows
+     */
+    @Override
+    default IColumn compress(final IRowOrder rowOrder) {
+        final IRowIterator rowIt = rowOrder.getIterator();
+        final DoubleArrayColumn result = new DoubleArrayColumn(this.getDescription(), rowOrder.getSize());
+        int row = 0;
+        while (true) {
+            final int i = rowIt.getNextRow();
+            if (i < 0)
+                break;
+            if (this.isMissing(i))
+                result.setMissing(row);
+            else
+                result.set(row, this.getDouble(i));
+            row++;
+        }
+        return result;
+    }
 }
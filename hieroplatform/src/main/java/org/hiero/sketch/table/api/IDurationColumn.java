@@ -18,17 +18,16 @@
 
 package org.hiero.sketch.table.api;
 
+import org.hiero.sketch.table.DurationArrayColumn;
 import org.hiero.utils.Converters;
 import javax.annotation.Nullable;
-import java.time.Duration;
 
 public interface IDurationColumn extends IColumn {
     @Override
     default double asDouble(final int rowIndex, @Nullable final IStringConverter unused) {
         if (isMissing(rowIndex))
             throw new MissingException(this, rowIndex);
-        final Duration tmp = this.getDuration(rowIndex);
-        return Converters.toDouble(Converters.checkNull(tmp));
+        return Converters.nanosToDouble(this.getLong(rowIndex));
     }
 
     @Nullable
@@ -43,7 +42,7 @@ public interface IDurationColumn extends IColumn {
     default IndexComparator getComparator() {
         return new IndexComparator() {
             @Override
-            public int compare(final Integer i, final Integer j) {
+            public int compare(final int i, final int j) {
                 final boolean iMissing = IDurationColumn.this.isMissing(i);
                 final boolean jMissing = IDurationColumn.this.isMissing(j);
                 if (iMissing && jMissing) {
@@ -53,10 +52,33 @@ public interface IDurationColumn extends IColumn {
                 } else if (jMissing) {
                     return -1;
                 } else {
-                    return Converters.checkNull(IDurationColumn.this.getDuration(i)).
-                            compareTo(Converters.checkNull(IDurationColumn.this.getDuration(j)));
+                    return Long.compare(IDurationColumn.this.getLong(i), IDurationColumn.this.getLong(j));
                 }
             }
         };
     }
+
+    /**
+     * Compresses the column to a DurationArrayColumn of the same kind.
+     * @param rowOrder specifies the set of rows and their order
+     * @return A DurationArrayColumn with the specified sequence of rows
+     */
+    @Override
+    default IColumn compress(final IRowOrder rowOrder) {
+        final IRowIterator rowIt = rowOrder.getIterator();
+        final DurationArrayColumn result = new DurationArrayColumn(
+                this.getDescription(), rowOrder.getSize());
+        int row = 0;
+        while (true) {
+            final int i = rowIt.getNextRow();
+            if (i < 0)
+                break;
+            if (this.isMissing(i))
+                result.setMissing(row);
+            else
+                result.set(row, this.getLong(i));
+            row++;
+        }
+        return result;
+    }
 }
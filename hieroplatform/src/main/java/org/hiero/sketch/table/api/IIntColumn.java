@@ -18,6 +18,8 @@
 
 package org.hiero.sketch.table.api;
 
+import org.hiero.sketch.table.IntArrayColumn;
+
 import javax.annotation.Nullable;
 
 public interface IIntColumn extends IColumn {
@@ -39,7 +41,7 @@ public interface IIntColumn extends IColumn {
     default IndexComparator getComparator() {
         return new IndexComparator() {
             @Override
-            public int compare(final Integer i, final Integer j) {
+            public int compare(final int i, final int j) {
                 final boolean iMissing = IIntColumn.this.isMissing(i);
                 final boolean jMissing = IIntColumn.this.isMissing(j);
                 if (iMissing && jMissing) {
@@ -54,4 +56,27 @@ public interface IIntColumn extends IColumn {
             }
         };
     }
+
+    /**
+     * Compresses the column to a IntArrayColumn of the same kind.
+     * @param rowOrder specifies the set of rows and their order
+     * @return A IntArrayColumn with the specified sequence of rows
+     */
+    @Override
+    default IColumn compress(final IRowOrder rowOrder) {
+        final IRowIterator rowIt = rowOrder.getIterator();
+        final IntArrayColumn result = new IntArrayColumn(this.getDescription(), rowOrder.getSize());
+        int row = 0;
+        while (true) {
+            final int i = rowIt.getNextRow();
+            if (i < 0)
+                break;
+            if (this.isMissing(i))
+                result.setMissing(row);
+            else
+                result.set(row, this.getInt(i));
+            row++;
+        }
+        return result;
+    }
 }
@@ -22,7 +22,9 @@ import org.hiero.utils.Randomness;
 import org.hiero.sketch.table.SparseMembership;
 import org.hiero.utils.IntSet;
 
-import java.util.function.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
 
 /**
  * A IMembershipSet is a representation of a set of integers.
@@ -37,6 +39,14 @@ public interface IMembershipSet extends IRowOrder {
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     boolean isMember(int rowIndex);
 
+    /**
+     * @return An estimate of the memory used by the set, in bytes.  The default suits sets
+     * which store each member.
+     */
+    default long getMemoryUsage() {
+        return 8L * this.getSize();
+    }
+
     /**
      * @return an IMembershipSet containing k samples from the membership map. The samples are made
      * without replacement. Returns the full set if its size is smaller than k. There is no guarantee that
@@ -49,7 +59,7 @@ public interface IMembershipSet extends IRowOrder {
      * the predicate evaluates to true.
      * @param predicate  Predicate evaluated for each row.
      */
-    IMembershipSet filter(Predicate<Integer> predicate);
+    IMembershipSet filter(IntPredicate predicate);
 
     /**
      * @return an IMembershipSet containing k samples from the membership map. The samples are made
@@ -91,6 +101,54 @@ public interface IMembershipSet extends IRowOrder {
         return new SparseMembership(setMinusSet);
     }
 
+    /**
+     * Splits the set into parts of consecutive rows, so that a table can be split into
+     * smaller tables which are processed independently.
+     * @param maxPartSize  Maximum number of rows in a part.
+     * @return The parts, in increasing row order; their union is this set.
+     */
+    default List<IMembershipSet> split(final int maxPartSize) {
+        if (maxPartSize <= 0)
+            throw new IllegalArgumentException("Part size must be positive: " + maxPartSize);
+        final List<IMembershipSet> result = new ArrayList<IMembershipSet>();
+        final IRowIterator iter = this.getIterator();
+        final int[] rows = new int[IRowIterator.batchSize];
+        IntSet part = new IntSet(Math.min(maxPartSize, this.getSize()));
+        while (true) {
+            final int count = iter.getNextBatch(rows);
+            for (int i = 0; i < count; i++) {
+                part.add(rows[i]);
+                if (part.size() == maxPartSize) {
+                    result.add(new SparseMembership(part));
+                    part = new IntSet(Math.min(maxPartSize, this.getSize()));
+                }
+            }
+            if (count == 0)
+                break;
+        }
+        if (part.size() > 0)
+            result.add(new SparseMembership(part));
+        return result;
+    }
+
+    /**
+     * The members at positions start, ..., end - 1 in the order of the iterator.
+     * Positions beyond the size of the set are ignored.
+     */
+    default IMembershipSet slice(final int start, final int end) {
+        final IntSet result = new IntSet(Math.max(0, Math.min(end, this.getSize()) - start));
+        final IRowIterator iter = this.getIterator();
+        int position = 0;
+        int curr = iter.getNextRow();
+        while ((curr >= 0) && (position < end)) {
+            if (position >= start)
+                result.add(curr);
+            position++;
+            curr = iter.getNextRow();
+        }
+        return new SparseMembership(result);
+    }
+
     default int getSampleSize(double rate, long seed, boolean useSeed) {
         if (rate >= 1)
             return this.getSize();
@@ -105,4 +163,3 @@ public interface IMembershipSet extends IRowOrder {
         return sampleSize;
     }
 }
-//TODO: Add a split membership set method to split a table into smaller tables.
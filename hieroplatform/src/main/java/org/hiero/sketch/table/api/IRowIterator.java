@@ -23,7 +23,28 @@ package org.hiero.sketch.table.api;
  * It returns -1 when the iteration is completed.
  */
 public interface IRowIterator {
+    /**
+     * A good size for the arrays passed to getNextBatch: large enough to amortize
+     * the calls, small enough for the batch to stay in the cache.
+     */
+    int batchSize = 1024;
+
     // Returns -1 when iteration is completed; else it returns
     // the index of the next row.
     int getNextRow();
+
+    /**
+     * Writes the indexes of up to rows.length next rows into rows.
+     * @return The number of rows written; 0 when the iteration is completed.
+     */
+    default int getNextBatch(final int[] rows) {
+        int count = 0;
+        while (count < rows.length) {
+            final int row = this.getNextRow();
+            if (row < 0)
+                break;
+            rows[count++] = row;
+        }
+        return count;
+    }
 }
@@ -18,6 +18,7 @@
 
 package org.hiero.sketch.table.api;
 
+import org.hiero.sketch.table.StringArrayColumn;
 import org.hiero.utils.Converters;
 
 import javax.annotation.Nullable;
@@ -41,7 +42,7 @@ public interface IStringColumn extends IColumn {
     default IndexComparator getComparator() {
         return new IndexComparator() {
             @Override
-            public int compare(final Integer i, final Integer j) {
+            public int compare(final int i, final int j) {
                 final boolean iMissing = IStringColumn.this.isMissing(i);
                 final boolean jMissing = IStringColumn.this.isMissing(j);
                 if (iMissing && jMissing) {
@@ -57,4 +58,24 @@ public interface IStringColumn extends IColumn {
             }
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Compresses the column to a StringArrayColumn of the same kind.
+     * @param rowOrder specifies the set of rows and their order
+     * @return A StringArrayColumn with the specified sequence of rows
+     */
+    @Override
+    default IColumn compress(final IRowOrder rowOrder) {
+        final IRowIterator rowIt = rowOrder.getIterator();
+        final StringArrayColumn result = new StringArrayColumn(this.getDescription(), rowOrder.getSize());
+        int row = 0;
+        while (true) {
+            final int i = rowIt.getNextRow();
+            if (i < 0)
+                break;
+            result.set(row, this.getString(i));
+            row++;
+        }
+        return result;
+    }
+}
@@ -18,14 +18,19 @@
 
 package org.hiero.sketch.table.api;
 
+import org.hiero.sketch.dataset.api.IChunkable;
+import org.hiero.sketch.dataset.api.IMemoryUsage;
 import org.hiero.sketch.table.Schema;
 import org.hiero.sketch.table.SmallTable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * An ITable object has a schema, a set of columns, and a MembershipSet.
  * All columns have the same size.
  */
-public interface ITable {
+public interface ITable extends IChunkable<ITable>, IMemoryUsage {
     Schema getSchema();
 
     IRowIterator getRowIterator();
@@ -57,6 +62,30 @@ public interface ITable {
      */
     ITable selectRowsFromFullTable(IMembershipSet set);
 
+    @Override
+    default int getItemCount() { return this.getNumOfRows(); }
+
+    /**
+     * The table with the same columns and the rows at positions start, ..., end - 1
+     * of the membership set.
+     */
+    @Override
+    default ITable getChunk(final int start, final int end) {
+        return this.selectRowsFromFullTable(this.getMembershipSet().slice(start, end));
+    }
+
+    /**
+     * Splits the table into tables sharing its columns, whose membership sets are parts
+     * of consecutive rows of this table's membership set.
+     * @param maxPartSize  Maximum number of rows in a part.
+     */
+    default List<ITable> split(final int maxPartSize) {
+        final List<ITable> result = new ArrayList<ITable>();
+        for (IMembershipSet part : this.getMembershipSet().split(maxPartSize))
+            result.add(this.selectRowsFromFullTable(part));
+        return result;
+    }
+
     /**
      * Return a new table which only contains the specified columns.
      * @param schema: Schema of the resulting table.
@@ -22,16 +22,27 @@ import java.util.Comparator;
 
 /**
  * A comparator which compares two values given by their integer indexes in an array/column/table.
+ * Subclasses implement the primitive compare method; the boxed one is only a bridge
+ * for the Java collections.
  */
-public abstract class IndexComparator implements Comparator<Integer> {
+public abstract class IndexComparator implements Comparator<Integer>, IntComparator {
+    @Override
+    public abstract int compare(final int i, final int j);
+
+    @Override
+    public final int compare(final Integer i, final Integer j) {
+        return this.compare(i.intValue(), j.intValue());
+    }
+
     /**
      * The reverse comparator.
      */
+    @Override
     public IndexComparator rev() {
         return new IndexComparator() {
             @Override
-            public int compare(final Integer o1, final Integer o2) {
-                return IndexComparator.this.compare(o2, o1);
+            public int compare(final int i, final int j) {
+                return IndexComparator.this.compare(j, i);
             }
         };
     }
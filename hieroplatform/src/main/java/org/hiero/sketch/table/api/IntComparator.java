@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch.table.api;
+
+/**
+ * Compares two values given by their integer indexes in an array/column/table,
+ * without boxing the indexes.
+ */
+@FunctionalInterface
+public interface IntComparator {
+    int compare(int i, int j);
+
+    /**
+     * The reverse comparator.
+     */
+    default IntComparator rev() {
+        return (i, j) -> this.compare(j, i);
+    }
+}
@@ -23,6 +23,7 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneOffset;
 
 /**
  * Conversion to and from doubles of various supported datatypes.
@@ -32,13 +33,21 @@ public class Converters {
             LocalDate.of(1970, 1, 1),
             LocalTime.of(0, 0));
 
+    private static final long nanosPerMilli = 1000000L;
+    private static final long nanosPerMicro = 1000L;
+    private static final long microsPerSecond = 1000000L;
+    private static final long microsPerMilli = 1000L;
+
     public static double toDouble(final LocalDateTime d) {
-        Duration span = Duration.between(baseTime, d);
-        return Converters.toDouble(span);
+        // Same value as toDouble(Duration.between(baseTime, d)), without allocating.
+        return (d.toEpochSecond(ZoneOffset.UTC) * 1000) + (d.getNano() / nanosPerMilli);
     }
 
+    /**
+     * Whole milliseconds, rounded down.
+     */
     public static double toDouble(final Duration d) {
-        return d.toMillis();
+        return (d.getSeconds() * 1000) + (d.getNano() / nanosPerMilli);
     }
 
     // TODO: these representations are too coarse to support sub-millisecond timestamps
@@ -58,6 +67,49 @@ public class Converters {
         return Duration.ofMillis((long)d);
     }
 
+    /**
+     * Converts a date to the number of microseconds since the base date (Jan 1st 1970),
+     * rounded down.  This covers all years between -290000 and 290000.
+     * @throws ArithmeticException if the date is out of range.
+     */
+    public static long toEpochMicros(final LocalDateTime d) {
+        return Math.addExact(
+                Math.multiplyExact(d.toEpochSecond(ZoneOffset.UTC), microsPerSecond),
+                d.getNano() / nanosPerMicro);
+    }
+
+    public static LocalDateTime fromEpochMicros(final long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, microsPerSecond),
+                (int)Math.floorMod(micros, microsPerSecond) * (int)nanosPerMicro, ZoneOffset.UTC);
+    }
+
+    /**
+     * @throws ArithmeticException if the duration does not fit in a long.
+     */
+    public static long toNanos(final Duration d) {
+        return d.toNanos();
+    }
+
+    public static Duration fromNanos(final long nanos) {
+        return Duration.ofNanos(nanos);
+    }
+
+    /**
+     * Converts a number of nanoseconds, as stored by duration columns, to the
+     * double used for the same value by toDouble: whole milliseconds.
+     */
+    public static double nanosToDouble(final long nanos) {
+        return Math.floorDiv(nanos, nanosPerMilli);
+    }
+
+    /**
+     * Converts a number of microseconds, as stored by date columns, to the
+     * double used for the same value by toDouble: whole milliseconds.
+     */
+    public static double microsToDouble(final long micros) {
+        return Math.floorDiv(micros, microsPerMilli);
+    }
+
     /**
      * Casts a Nullable pointer to a NonNullable one.  Throws if pointer is null.
      * @param data  Nullable pointer.
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.utils;
+
+import org.hiero.sketch.table.api.IntComparator;
+
+/**
+ * Sorting of int arrays, such as row indexes, with an IntComparator; this avoids boxing the
+ * indexes to use Arrays.sort with a Comparator.  The sort is a stable merge sort.
+ */
+public class IntSort {
+    /**
+     * Runs of this size are sorted by insertion sort before merging.
+     */
+    private static final int insertionRun = 16;
+
+    /**
+     * Sorts the array in place; equal elements keep their relative order.
+     */
+    public static void sort(final int[] a, final IntComparator comparator) {
+        sort(a, 0, a.length, comparator);
+    }
+
+    /**
+     * Sorts the elements of the array between from (inclusive) and to (exclusive) in place;
+     * equal elements keep their relative order.
+     */
+    public static void sort(final int[] a, final int from, final int to,
+                            final IntComparator comparator) {
+        if ((from < 0) || (to > a.length) || (from > to))
+            throw new IllegalArgumentException("Illegal range " + from + ":" + to);
+        for (int lo = from; lo < to; lo += insertionRun)
+            insertionSort(a, lo, Math.min(lo + insertionRun, to), comparator);
+        if (to - from <= insertionRun)
+            return;
+        int[] src = a;
+        int[] dest = new int[a.length];
+        for (int width = insertionRun; width < to - from; width *= 2) {
+            for (int lo = from; lo < to; lo += 2 * width) {
+                final int mid = Math.min(lo + width, to);
+                final int hi = Math.min(lo + (2 * width), to);
+                merge(src, lo, mid, hi, dest, comparator);
+            }
+            final int[] swap = src;
+            src = dest;
+            dest = swap;
+        }
+        if (src != a)
+            System.arraycopy(src, from, a, from, to - from);
+    }
+
+    private static void insertionSort(final int[] a, final int from, final int to,
+                                      final IntComparator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            final int value = a[i];
+            int j = i - 1;
+            while ((j >= from) && (comparator.compare(a[j], value) > 0)) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    /**
+     * Merges the sorted ranges src[lo, mid) and src[mid, hi) into dest[lo, hi).
+     */
+    private static void merge(final int[] src, final int lo, final int mid, final int hi,
+                              final int[] dest, final IntComparator comparator) {
+        int i = lo, j = mid, k = lo;
+        while ((i < mid) && (j < hi)) {
+            if (comparator.compare(src[j], src[i]) < 0)
+                dest[k++] = src[j++];
+            else
+                dest[k++] = src[i++];
+        }
+        System.arraycopy(src, i, dest, k, mid - i);
+        k += mid - i;
+        System.arraycopy(src, j, dest, k, hi - j);
+    }
+}
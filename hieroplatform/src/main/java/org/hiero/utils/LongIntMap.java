@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.utils;
+
+/**
+ * A map from longs to ints, using open addressing with linear probing like IntSet.
+ * Entries cannot be removed.
+ */
+@SuppressWarnings("NestedAssignment")
+public class LongIntMap {
+    private long[] key; /* The array of the linear probing */
+    private int[] value;
+    private int mask;
+    private int n;  /* the size of the array - 1; key[n] is the zero key */
+    private boolean containsZero = false;  /* zero is reserved to signify an empty cell */
+    private int size;
+
+    private int maxFill;
+    private final float f; /* the maximal load of the array */
+
+    public LongIntMap(final int expected, final float f) {
+        if ((f <= 0.0F) || (f > 1.0F))
+            throw new IllegalArgumentException("Load factor must be greater than 0 and " +
+                    "smaller than or equal to 1");
+        if (expected < 0)
+            throw new IllegalArgumentException("The expected number of elements must be " +
+                    "non-negative");
+        this.f = f;
+        this.n = HashUtil.arraySize(expected, f); /* size of array is power of two */
+        this.mask = this.n - 1;
+        this.maxFill = HashUtil.maxFill(this.n, f);
+        this.key = new long[this.n + 1];
+        this.value = new int[this.n + 1];
+    }
+
+    public LongIntMap(final int expected) {
+        this(expected, 0.75F);
+    }
+
+    public LongIntMap() {
+        this(16, 0.75F);
+    }
+
+    /**
+     * @return The value of k if k is in the map; otherwise v, after mapping k to v.
+     */
+    public int getOrPut(final long k, final int v) {
+        final int pos;
+        if (k == 0) {
+            if (this.containsZero)
+                return this.value[this.n];
+            this.containsZero = true;
+            pos = this.n;
+        } else {
+            final long[] key = this.key;
+            int p;
+            long curr;
+            if ((curr = key[p = (int) HashUtil.murmurHash3(k) & this.mask]) != 0) {
+                if (curr == k)
+                    return this.value[p];
+                while ((curr = key[(p = (p + 1) & this.mask)]) != 0) {
+                    if (curr == k)
+                        return this.value[p];
+                }
+            }
+            key[p] = k;
+            pos = p;
+        }
+        this.value[pos] = v;
+        if (this.size++ >= this.maxFill)
+            this.rehash(HashUtil.arraySize(this.size + 1, this.f));
+        return v;
+    }
+
+    /**
+     * @return The value of k, or defaultValue if k is not in the map.
+     */
+    public int get(final long k, final int defaultValue) {
+        if (k == 0)
+            return this.containsZero ? this.value[this.n] : defaultValue;
+        final long[] key = this.key;
+        int pos;
+        long curr;
+        if ((curr = key[pos = (int) HashUtil.murmurHash3(k) & this.mask]) == 0)
+            return defaultValue;
+        if (curr == k)
+            return this.value[pos];
+        while ((curr = key[(pos = (pos + 1) & this.mask)]) != 0) {
+            if (curr == k)
+                return this.value[pos];
+        }
+        return defaultValue;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    private void rehash(final int newN) {
+        final long[] key = this.key;
+        final int[] value = this.value;
+        final int mask = newN - 1;
+        final long[] newKey = new long[newN + 1];
+        final int[] newValue = new int[newN + 1];
+        for (int i = 0; i < this.n; i++) {
+            if (key[i] == 0)
+                continue;
+            int pos = (int) HashUtil.murmurHash3(key[i]) & mask;
+            while (newKey[pos] != 0)
+                pos = (pos + 1) & mask;
+            newKey[pos] = key[i];
+            newValue[pos] = value[i];
+        }
+        newValue[newN] = value[this.n];
+        this.n = newN;
+        this.mask = mask;
+        this.maxFill = HashUtil.maxFill(this.n, this.f);
+        this.key = newKey;
+        this.value = newValue;
+    }
+}
@@ -24,7 +24,6 @@ import org.hiero.sketch.dataset.api.IDataSet;
 import org.hiero.sketch.table.*;
 import org.hiero.sketch.table.api.ContentsKind;
 import org.hiero.sketch.table.api.IColumn;
-import org.hiero.sketch.table.api.IMembershipSet;
 import org.hiero.sketch.table.api.ITable;
 
 import java.util.ArrayList;
@@ -64,6 +63,33 @@ public class TestTables {
         return new Table(Arrays.asList(sac, iac));
     }
 
+    /**
+     * Strings which have the same Java hashCode.
+     */
+    public static final String[] collidingStrings = new String[] {
+            "Aa", "BB", "C#", "AaAa", "BBBB", "AaBB", "BBAa" };
+
+    /**
+     * Can be used for testing hashing.
+     * @return A table with a String column "Name" holding the collidingStrings, string i
+     * occurring i + 1 times, and an Integer column "Age" which is i in the rows of string i.
+     */
+    public static Table getCollidingTable() {
+        ColumnDescription c0 = new ColumnDescription("Name", ContentsKind.String, false);
+        ColumnDescription c1 = new ColumnDescription("Age", ContentsKind.Integer, false);
+        List<String> names = new ArrayList<String>();
+        List<Integer> ages = new ArrayList<Integer>();
+        for (int round = 0; round < collidingStrings.length; round++) {
+            for (int i = round; i < collidingStrings.length; i++) {
+                names.add(collidingStrings[i]);
+                ages.add(i);
+            }
+        }
+        StringArrayColumn sac = new StringArrayColumn(c0, names.toArray(new String[0]));
+        IntArrayColumn iac = new IntArrayColumn(c1, ages.stream().mapToInt(i -> i).toArray());
+        return new Table(Arrays.asList(sac, iac));
+    }
+
     public static SmallTable getIntTable(final int size, final int numCols) {
         Randomness.createInstance(2); // we want deterministic random numbers for testing
         final List<IColumn> columns = new ArrayList<IColumn>(numCols);
@@ -109,17 +135,7 @@ public class TestTables {
     }
 
     public static List<ITable> splitTable(ITable bigTable, int fragmentSize) {
-        int tableSize = bigTable.getNumOfRows();
-        int numTables = (tableSize / fragmentSize) + 1;
-        List<ITable> tableList = new ArrayList<ITable>(numTables);
-        int start = 0;
-        while (start < tableSize) {
-            int thisFragSize = Math.min(fragmentSize, tableSize - start);
-            IMembershipSet members = new SparseMembership(start, thisFragSize);
-            tableList.add(bigTable.selectRowsFromFullTable(members));
-            start += fragmentSize;
-        }
-        return tableList;
+        return bigTable.split(fragmentSize);
     }
 
     public static ParallelDataSet<ITable> makeParallel(ITable bigTable, int fragmentSize) {
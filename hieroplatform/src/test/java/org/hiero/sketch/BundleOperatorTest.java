@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch;
+
+import org.hiero.sketch.dataset.BundleOperator;
+import org.hiero.sketch.dataset.PartialResultMonoid;
+import org.hiero.sketch.dataset.api.IMonoid;
+import org.hiero.sketch.dataset.api.PartialResult;
+import org.hiero.utils.Converters;
+import org.junit.Assert;
+import org.junit.Test;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+import rx.subjects.PublishSubject;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+public class BundleOperatorTest {
+    private static final PartialResultMonoid<Integer> adder = new PartialResultMonoid<Integer>(
+            new IMonoid<Integer>() {
+                @Override
+                public Integer zero() { return 0; }
+
+                @Override
+                public Integer add(@Nullable final Integer left, @Nullable final Integer right) {
+                    return Converters.checkNull(left) + Converters.checkNull(right);
+                }
+            });
+
+    private static PartialResult<Integer> value(final TestSubscriber<PartialResult<Integer>> ts,
+                                                final int index) {
+        return ts.getOnNextEvents().get(index);
+    }
+
+    @Test
+    public void testBundleByTime() {
+        final TestScheduler scheduler = new TestScheduler();
+        final PublishSubject<PartialResult<Integer>> source = PublishSubject.create();
+        final TestSubscriber<PartialResult<Integer>> ts = new TestSubscriber<PartialResult<Integer>>();
+        source.lift(new BundleOperator<Integer>(adder, 100, TimeUnit.MILLISECONDS, scheduler))
+              .subscribe(ts);
+
+        // A zero is held back, but the first progress is emitted immediately.
+        source.onNext(new PartialResult<Integer>(0.0, 0));
+        ts.assertValueCount(0);
+        source.onNext(new PartialResult<Integer>(0.25, 1));
+        ts.assertValueCount(1);
+        Assert.assertEquals(1, (int) Converters.checkNull(value(ts, 0).deltaValue));
+
+        // Later results are added up until the interval has elapsed.
+        source.onNext(new PartialResult<Integer>(0.25, 2));
+        source.onNext(new PartialResult<Integer>(0.25, 3));
+        ts.assertValueCount(1);
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        ts.assertValueCount(2);
+        Assert.assertEquals(5, (int) Converters.checkNull(value(ts, 1).deltaValue));
+        Assert.assertEquals(0.5, value(ts, 1).deltaDone, 1e-9);
+
+        // The last result is emitted on completion.
+        source.onNext(new PartialResult<Integer>(0.25, 4));
+        source.onCompleted();
+        ts.assertValueCount(3);
+        ts.assertCompleted();
+        Assert.assertEquals(4, (int) Converters.checkNull(value(ts, 2).deltaValue));
+    }
+
+    @Test
+    public void testBackpressure() {
+        final TestScheduler scheduler = new TestScheduler();
+        final PublishSubject<PartialResult<Integer>> source = PublishSubject.create();
+        final TestSubscriber<PartialResult<Integer>> ts = TestSubscriber.create(0);
+        source.lift(new BundleOperator<Integer>(adder, 0, TimeUnit.MILLISECONDS, scheduler))
+              .subscribe(ts);
+
+        // Nothing is requested: all values are added into one.
+        for (int i = 0; i < 1000; i++)
+            source.onNext(new PartialResult<Integer>(0.001, 1));
+        ts.assertValueCount(0);
+        ts.requestMore(1);
+        ts.assertValueCount(1);
+        Assert.assertEquals(1000, (int) Converters.checkNull(value(ts, 0).deltaValue));
+
+        source.onNext(new PartialResult<Integer>(0.0, 2));
+        source.onCompleted();
+        ts.assertValueCount(1);
+        ts.assertNotCompleted();
+        ts.requestMore(1);
+        ts.assertValueCount(2);
+        ts.assertCompleted();
+    }
+
+    @Test
+    public void testError() {
+        final PublishSubject<PartialResult<Integer>> source = PublishSubject.create();
+        final TestSubscriber<PartialResult<Integer>> ts = TestSubscriber.create(0);
+        source.lift(new BundleOperator<Integer>(adder, 0, TimeUnit.MILLISECONDS, new TestScheduler()))
+              .subscribe(ts);
+        source.onNext(new PartialResult<Integer>(0.5, 1));
+        source.onError(new RuntimeException("failed"));
+        ts.assertError(RuntimeException.class);
+        Assert.assertFalse(source.hasObservers());
+    }
+}
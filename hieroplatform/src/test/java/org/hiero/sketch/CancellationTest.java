@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch;
+
+import org.hiero.sketch.dataset.LocalDataSet;
+import org.hiero.sketch.dataset.MorselDataSet;
+import org.hiero.sketch.dataset.ParallelDataSet;
+import org.hiero.sketch.dataset.api.CancellationToken;
+import org.hiero.sketch.dataset.api.IDataSet;
+import org.hiero.sketch.dataset.api.IMap;
+import org.hiero.sketch.dataset.api.ISketch;
+import org.hiero.sketch.spreadsheet.BasicColStatSketch;
+import org.hiero.sketch.spreadsheet.DistinctCountSketch;
+import org.hiero.sketch.spreadsheet.ExactFreqSketch;
+import org.hiero.sketch.spreadsheet.GroupBySketch;
+import org.hiero.sketch.table.ColumnDescription;
+import org.hiero.sketch.table.SmallTable;
+import org.hiero.sketch.table.api.ITable;
+import org.hiero.utils.Converters;
+import org.hiero.utils.TestTables;
+import org.junit.Assert;
+import org.junit.Test;
+import rx.Subscription;
+
+import javax.annotation.Nullable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CancellationTest {
+    /**
+     * Checks that the sketch stops scanning the table once the current token is cancelled.
+     */
+    private static void checkCancelled(final ISketch<ITable, ?> sketch, final ITable table) {
+        final CancellationToken token = new CancellationToken();
+        Assert.assertNotNull(token.run(() -> sketch.create(table)));
+        try {
+            token.run(() -> {
+                token.cancel();
+                return sketch.create(table);
+            });
+            Assert.fail("The scan should have been cancelled");
+        } catch (final CancellationException e) {
+            // expected
+        }
+        Assert.assertFalse(CancellationToken.current().isCancelled());
+    }
+
+    @Test
+    public void testKernelChecksToken() {
+        final SmallTable table = TestTables.getIntTable(100000, 1);
+        final String colName = table.getSchema().getColumnNames().iterator().next();
+        final BasicColStatSketch sketch = new BasicColStatSketch(colName, null);
+        final CancellationToken token = new CancellationToken();
+        Assert.assertEquals(100000, token.run(() -> sketch.create(table)).getRowCount());
+        checkCancelled(sketch, table);
+        checkCancelled(new DistinctCountSketch(colName), table);
+        final List<ColumnDescription> schema =
+                Collections.singletonList(table.getSchema().getDescription(colName));
+        checkCancelled(new ExactFreqSketch(schema, 100000), table);
+        checkCancelled(new GroupBySketch(Collections.singletonList(colName),
+                Collections.emptyList(), GroupBySketch.defaultMaxGroups), table);
+        // A single group makes the sketch find the heaviest group with a first scan.
+        checkCancelled(new GroupBySketch(Collections.singletonList(colName),
+                Collections.emptyList(), 1), table);
+    }
+
+    /**
+     * A sketch which computes for up to spinMillis, checking the current token.
+     */
+    private static class SpinSketch implements ISketch<Integer, Integer> {
+        static final long spinMillis = 5000;
+        final AtomicInteger started = new AtomicInteger();
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch stopped = new CountDownLatch(1);
+        final AtomicLong threadId = new AtomicLong();
+        final AtomicLong cpuAtStop = new AtomicLong();
+
+        @Override
+        public Integer zero() { return 0; }
+
+        @Override
+        public Integer add(@Nullable final Integer left, @Nullable final Integer right) {
+            return Converters.checkNull(left) + Converters.checkNull(right);
+        }
+
+        @Override
+        public Integer create(@Nullable final Integer data) {
+            this.started.incrementAndGet();
+            this.threadId.set(Thread.currentThread().getId());
+            this.running.countDown();
+            final CancellationToken token = CancellationToken.current();
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(spinMillis);
+            int result = Converters.checkNull(data);
+            try {
+                while (System.nanoTime() < deadline) {
+                    for (int i = 0; i < CancellationToken.checkInterval; i++)
+                        result = (result * 31) + i;
+                    token.throwIfCancelled();
+                }
+                return result;
+            } finally {
+                this.cpuAtStop.set(
+                        ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime());
+                this.stopped.countDown();
+            }
+        }
+    }
+
+    @Test
+    public void testCancelStopsWork() throws InterruptedException {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assert.assertTrue(threads.isCurrentThreadCpuTimeSupported());
+        final int parallelism = LocalDataSet.getParallelism();
+        LocalDataSet.setParallelism(1);
+        try {
+            final List<IDataSet<Integer>> children = new ArrayList<IDataSet<Integer>>();
+            for (int i = 0; i < 4; i++)
+                children.add(new LocalDataSet<Integer>(i));
+            final ParallelDataSet<Integer> data = new ParallelDataSet<Integer>(children);
+            final SpinSketch sketch = new SpinSketch();
+            final Subscription sub = data.sketch(sketch).subscribe();
+            Assert.assertTrue(sketch.running.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            final long cancelTime = System.nanoTime();
+            final long cpuAtCancel = threads.getThreadCpuTime(sketch.threadId.get());
+            sub.unsubscribe();
+            Assert.assertTrue(sketch.stopped.await(SpinSketch.spinMillis / 2, TimeUnit.MILLISECONDS));
+            final long stopTime = System.nanoTime();
+            final long cpuAfterCancel = sketch.cpuAtStop.get() - cpuAtCancel;
+            System.out.println("Stopped " + ((stopTime - cancelTime) / 1000) + " us after " +
+                    "cancellation, using " + (cpuAfterCancel / 1000) + " us of CPU");
+            Assert.assertTrue(cpuAfterCancel < TimeUnit.MILLISECONDS.toNanos(500));
+            // The children still queued for the pool never start.
+            Thread.sleep(100);
+            Assert.assertEquals(1, sketch.started.get());
+        } finally {
+            LocalDataSet.setParallelism(parallelism);
+        }
+    }
+
+    @Test
+    public void testMorselMapCancelled() throws InterruptedException {
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            final CountDownLatch running = new CountDownLatch(2);
+            final CountDownLatch stopped = new CountDownLatch(2);
+            final MorselDataSet<Integer> data =
+                    new MorselDataSet<Integer>(Arrays.asList(0, 1), pool);
+            final IMap<Integer, Integer> spin = morsel -> {
+                running.countDown();
+                final CancellationToken token = CancellationToken.current();
+                final long deadline =
+                        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SpinSketch.spinMillis);
+                try {
+                    while (System.nanoTime() < deadline)
+                        token.throwIfCancelled();
+                    return morsel;
+                } finally {
+                    stopped.countDown();
+                }
+            };
+            final Subscription sub = data.map(spin).subscribe();
+            Assert.assertTrue(running.await(5, TimeUnit.SECONDS));
+            sub.unsubscribe();
+            Assert.assertTrue(stopped.await(SpinSketch.spinMillis / 2, TimeUnit.MILLISECONDS));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch;
+
+import org.hiero.sketch.spreadsheet.*;
+import org.hiero.sketch.table.*;
+import org.hiero.sketch.table.api.ContentsKind;
+import org.hiero.sketch.table.api.IColumn;
+import org.hiero.sketch.table.api.ITable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.TestCase.*;
+
+/*
+ * Tests for the dictionary-encoded category columns.
+ */
+public class CategoryColumnTest {
+    private final ColumnDescription desc = new ColumnDescription("Cat", ContentsKind.Category, true);
+
+    @Test
+    public void testCategoryList() {
+        final CategoryListColumn col = new CategoryListColumn(this.desc);
+        // Enough distinct values to widen the codes from bytes to shorts to ints.
+        final int size = 100000;
+        for (int i = 0; i < size; i++) {
+            if ((i % 5) == 0)
+                col.appendMissing();
+            else
+                col.append(String.valueOf(i % 40000));
+        }
+        assertEquals(size, col.sizeInRows());
+        for (int i = 0; i < size; i++) {
+            if ((i % 5) == 0) {
+                assertTrue(col.isMissing(i));
+                assertNull(col.getString(i));
+            } else {
+                assertFalse(col.isMissing(i));
+                assertEquals(String.valueOf(i % 40000), col.getString(i));
+                assertEquals(col.getString(i), col.decode(col.getCode(i)));
+            }
+        }
+        assertEquals(40000 - (40000 / 5), col.getDictionarySize());
+    }
+
+    @Test
+    public void testCategoryArray() {
+        final String[] data = new String[] { "a", "b", null, "a", "c", "b" };
+        final CategoryArrayColumn col = new CategoryArrayColumn(this.desc, data);
+        assertEquals(data.length, col.sizeInRows());
+        assertEquals(3, col.getDictionarySize());
+        for (int i = 0; i < data.length; i++)
+            assertEquals(data[i], col.getString(i));
+        assertTrue(col.isMissing(2));
+        assertEquals(col.getCode(0), col.getCode(3));
+        col.set(2, "d");
+        assertEquals("d", col.getString(2));
+        assertEquals(4, col.getDictionarySize());
+    }
+
+    @Test
+    public void testCompress() {
+        final CategoryListColumn col = new CategoryListColumn(this.desc);
+        for (int i = 0; i < 1000; i++) {
+            if ((i % 10) == 0)
+                col.appendMissing();
+            else
+                col.append(String.valueOf(i % 300));
+        }
+        // Rows in reverse order, with values 7, 3 and missing only.
+        final int[] rows = new int[] { 903, 607, 300, 7, 3 };
+        final IColumn compressed = col.compress(new ArrayRowOrder(rows));
+        assertTrue(compressed instanceof CategoryArrayColumn);
+        final CategoryArrayColumn result = (CategoryArrayColumn)compressed;
+        assertEquals(rows.length, result.sizeInRows());
+        assertEquals(2, result.getDictionarySize());
+        for (int i = 0; i < rows.length; i++)
+            assertEquals(col.getString(rows[i]), result.getString(i));
+        assertEquals(result.getCode(0), result.getCode(4));
+        assertEquals(result.getCode(1), result.getCode(3));
+        assertTrue(result.isMissing(2));
+    }
+
+    private ITable[] getTables(final int size) {
+        final String[] names = new String[] { "Emma", "Noah", "Liam", "Olivia", "Mason" };
+        final ColumnDescription strDesc = new ColumnDescription("Cat", ContentsKind.String, true);
+        final StringArrayColumn strings = new StringArrayColumn(strDesc, size);
+        final CategoryArrayColumn categories = new CategoryArrayColumn(this.desc, size);
+        for (int i = 0; i < size; i++) {
+            final String value = ((i % 7) == 0) ? null : names[i % names.length];
+            strings.set(i, value);
+            categories.set(i, value);
+        }
+        final List<IColumn> strCols = Collections.singletonList(strings);
+        final List<IColumn> catCols = Collections.singletonList(categories);
+        return new ITable[] { new Table(strCols), new Table(catCols) };
+    }
+
+    @Test
+    public void testCategorySketches() {
+        final ITable[] tables = this.getTables(1000);
+        final DistinctStrings catDistinct = new DistinctStringsSketch(0, "Cat").create(tables[1]);
+        assertEquals(5, catDistinct.size());
+
+        final SemiExplicitConverter converter = catDistinct.getStringConverter();
+        final BucketsDescriptionEqSize buckets = new BucketsDescriptionEqSize(0, 5, 5);
+        final Histogram1D strHist = new Hist1DSketch(buckets, "Cat", converter).create(tables[0]);
+        final Histogram1D catHist = new Hist1DSketch(buckets, "Cat", converter).create(tables[1]);
+        assertEquals(strHist.getMissingData(), catHist.getMissingData());
+        assertEquals(strHist.getOutOfRange(), catHist.getOutOfRange());
+        for (int i = 0; i < buckets.getNumOfBuckets(); i++) {
+            assertEquals(strHist.getBucket(i).getCount(), catHist.getBucket(i).getCount());
+            assertEquals(strHist.getBucket(i).getMinObject(), catHist.getBucket(i).getMinObject());
+        }
+
+        final HeatMap strMap = new HeatMapSketch(buckets, buckets, converter, converter,
+                "Cat", "Cat").create(tables[0]);
+        final HeatMap catMap = new HeatMapSketch(buckets, buckets, converter, converter,
+                "Cat", "Cat").create(tables[1]);
+        assertEquals(strMap.getMissingData(), catMap.getMissingData());
+        for (int i = 0; i < buckets.getNumOfBuckets(); i++)
+            assertEquals(strMap.getCount(i, i), catMap.getCount(i, i));
+
+        final List<ColumnDescription> cdl = new ArrayList<ColumnDescription>();
+        cdl.add(this.desc);
+        final FreqKSketch fk = new FreqKSketch(cdl, 3);
+        final FreqKList strFreq = fk.create(tables[0]);
+        final FreqKList catFreq = fk.create(tables[1]);
+        assertEquals(strFreq.totalRows, catFreq.totalRows);
+        assertTrue(catFreq.hMap.size() <= 3);
+        assertTrue(catFreq.GetErrBound() <= strFreq.GetErrBound());
+    }
+}
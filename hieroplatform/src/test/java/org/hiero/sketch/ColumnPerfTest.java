@@ -18,12 +18,22 @@
 
 package org.hiero.sketch;
 
-import org.hiero.sketch.table.ColumnDescription;
+import org.hiero.sketch.table.*;
 import org.hiero.sketch.table.api.ContentsKind;
-import org.hiero.sketch.table.IntArrayColumn;
+import org.hiero.sketch.table.api.IColumn;
+import org.hiero.sketch.table.api.IRowIterator;
+import org.hiero.sketch.table.api.IRowOrder;
+import org.hiero.sketch.table.api.IStringConverter;
+import org.hiero.sketch.table.api.IndexComparator;
+import org.hiero.utils.IntSort;
+import org.junit.Assert;
 import org.junit.Test;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 public class ColumnPerfTest {
     @Test
@@ -50,4 +60,126 @@ public class ColumnPerfTest {
         };
         TestUtil.runPerfTest(dcall, testnum);
     }
+
+    /**
+     * Compression as done before columns compressed to their own type: every value
+     * is boxed into an ObjectArrayColumn.
+     */
+    private static IColumn compressToObjects(final IColumn column, final IRowOrder rowOrder) {
+        final IRowIterator rowIt = rowOrder.getIterator();
+        final ObjectArrayColumn result = new ObjectArrayColumn(
+                column.getDescription(), rowOrder.getSize());
+        int row = 0;
+        while (true) {
+            final int i = rowIt.getNextRow();
+            if (i < 0)
+                break;
+            result.set(row, column.getObject(i));
+            row++;
+        }
+        return result;
+    }
+
+    @Test
+    public void testCompress() {
+        final int size = 1000000;
+        final int testnum = 10;
+        final ColumnDescription desc = new ColumnDescription("test", ContentsKind.Double, true);
+        final DoubleArrayColumn col = new DoubleArrayColumn(desc, size);
+        for (int i = 0; i < size; i++) {
+            if ((i % 100) == 0)
+                col.setMissing(i);
+            else
+                col.set(i, i);
+        }
+        final FullMembership rows = new FullMembership(size);
+        final IColumn compressed = col.compress(rows);
+        Assert.assertTrue(compressed instanceof DoubleArrayColumn);
+        for (int i = 0; i < size; i += 99) {
+            Assert.assertEquals(col.isMissing(i), compressed.isMissing(i));
+            if (!col.isMissing(i))
+                Assert.assertEquals(col.getDouble(i), compressed.getDouble(i), 0);
+        }
+
+        System.out.println("Compress to ObjectArrayColumn");
+        TestUtil.runPerfTest(tmp -> compressToObjects(col, rows), testnum);
+        System.out.println("Compress to DoubleArrayColumn");
+        TestUtil.runPerfTest(tmp -> col.compress(rows), testnum);
+    }
+
+    /**
+     * Range test as done by IColumn.getRangePredicate, with virtual calls for every row.
+     */
+    private static IntPredicate interpretedRange(final IColumn column, final double min,
+                                                 final double max,
+                                                 @Nullable final IStringConverter converter) {
+        return row -> {
+            if (column.isMissing(row))
+                return false;
+            final double d = column.asDouble(row, converter);
+            return (min <= d) && (d <= max);
+        };
+    }
+
+    @Test
+    public void testRangePredicate() {
+        final int size = 1000000;
+        final int testnum = 10;
+        final ColumnDescription desc = new ColumnDescription("test", ContentsKind.Double, true);
+        final DoubleArrayColumn col = new DoubleArrayColumn(desc, size);
+        final ColumnDescription catDesc = new ColumnDescription("cat", ContentsKind.Category, true);
+        final CategoryArrayColumn cat = new CategoryArrayColumn(catDesc, size);
+        final SemiExplicitConverter converter = new SemiExplicitConverter();
+        for (int i = 0; i < 10; i++)
+            converter.set(Integer.toString(i), i);
+        for (int i = 0; i < size; i++) {
+            if ((i % 100) == 0) {
+                col.setMissing(i);
+                cat.setMissing(i);
+            } else {
+                col.set(i, i % 1000);
+                cat.set(i, Integer.toString(i % 10));
+            }
+        }
+        final FullMembership rows = new FullMembership(size);
+        for (final IColumn c : new IColumn[] { col, cat }) {
+            final IntPredicate compiled = c.getRangePredicate(2, 500, converter);
+            final IntPredicate interpreted = interpretedRange(c, 2, 500, converter);
+            for (int i = 0; i < size; i++)
+                Assert.assertEquals(interpreted.test(i), compiled.test(i));
+            Assert.assertEquals(rows.filter(interpreted).getSize(), rows.filter(compiled).getSize());
+
+            System.out.println("Interpreted range filter on " + c.getDescription().kind);
+            TestUtil.runPerfTest(tmp -> rows.filter(interpreted), testnum);
+            System.out.println("Specialized range filter on " + c.getDescription().kind);
+            TestUtil.runPerfTest(tmp -> rows.filter(compiled), testnum);
+        }
+    }
+
+    @Test
+    public void testComposedComparator() {
+        final int size = 1000000;
+        final int testnum = 5;
+        final Table table = TestUtil.createTable(size);
+        final List<IndexComparator> columns = new ArrayList<IndexComparator>();
+        for (final String name : new String[] { "Name", "DOB", "Income" })
+            columns.add(table.getColumn(name).getComparator());
+        final IndexComparator loop = new ListComparator(columns);
+        final IndexComparator composed = MethodHandleComparator.compose(columns);
+        Assert.assertTrue(composed instanceof MethodHandleComparator);
+        for (int i = 0; i + 1 < size; i += 7)
+            Assert.assertEquals(Integer.signum(loop.compare(i, i + 1)),
+                    Integer.signum(composed.compare(i, i + 1)));
+
+        for (final IndexComparator comparator : new IndexComparator[] { loop, composed }) {
+            System.out.println("Sort on 3 columns with " +
+                    comparator.getClass().getSimpleName());
+            TestUtil.runPerfTest(tmp -> {
+                final int[] order = new int[size];
+                for (int i = 0; i < size; i++)
+                    order[i] = i;
+                IntSort.sort(order, comparator);
+            }, testnum);
+        }
+    }
 }
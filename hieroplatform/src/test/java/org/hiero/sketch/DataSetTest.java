@@ -218,4 +218,66 @@ public class DataSetTest {
         ts.assertNotCompleted();
         ts.assertValueCount(3);
     }
+
+    /**
+     * Data whose cost is its value.
+     */
+    private static class Sized implements ICostEstimate {
+        final int cost;
+
+        Sized(final int cost) { this.cost = cost; }
+
+        @Override
+        public long getCostEstimate() { return this.cost; }
+    }
+
+    @Test
+    public void costWeightedScheduleTest() {
+        final int[] costs = { 1, 5, 2, 0, 8, 2 };
+        final List<IDataSet<Sized>> l = new ArrayList<IDataSet<Sized>>();
+        for (int c : costs)
+            l.add(new LocalDataSet<Sized>(new Sized(c)));
+        final ParallelDataSet<Sized> pds = new ParallelDataSet<Sized>(l);
+        pds.setBundleInterval(0);
+        // The child with unknown cost is assumed to cost the average, 18 / 5.
+        Assert.assertEquals(18 + (18 / 5), pds.getCostEstimate());
+
+        final List<Integer> launched = new ArrayList<Integer>();
+        final ISketch<Sized, Integer> sketch = new ISketch<Sized, Integer>() {
+            @Override
+            public Integer zero() { return 0; }
+
+            @Override
+            public Integer add(@Nullable final Integer left, @Nullable final Integer right) {
+                return Converters.checkNull(left) + Converters.checkNull(right);
+            }
+
+            @Override
+            public Integer create(@Nullable final Sized data) {
+                synchronized (launched) {
+                    launched.add(Converters.checkNull(data).cost);
+                }
+                return Converters.checkNull(data).cost;
+            }
+        };
+        final int parallelism = LocalDataSet.getParallelism();
+        LocalDataSet.setParallelism(1);
+        try {
+            final List<Double> dones = new ArrayList<Double>();
+            for (PartialResult<Integer> p : pds.sketch(sketch).toBlocking().toIterable()) {
+                if (p.deltaDone > 0)
+                    dones.add(p.deltaDone);
+            }
+            // Largest first on a single thread; equal costs keep their order.
+            Assert.assertEquals("[8, 5, 0, 2, 2, 1]", launched.toString());
+            // Each child reports progress proportional to its cost.
+            final double total = 18 + (18.0 / 5);
+            Assert.assertEquals(6, dones.size());
+            Assert.assertEquals(8 / total, dones.get(0), 1e-9);
+            Assert.assertEquals(5 / total, dones.get(1), 1e-9);
+            Assert.assertEquals(18.0 / 5 / total, dones.get(2), 1e-9);
+        } finally {
+            LocalDataSet.setParallelism(parallelism);
+        }
+    }
 }
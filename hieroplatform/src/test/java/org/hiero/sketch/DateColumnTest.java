@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch;
+
+import org.hiero.sketch.table.BaseListColumn;
+import org.hiero.sketch.table.ColumnDescription;
+import org.hiero.sketch.table.DateArrayColumn;
+import org.hiero.sketch.table.DateListColumn;
+import org.hiero.sketch.table.api.ContentsKind;
+import org.hiero.sketch.table.api.IColumn;
+import org.hiero.utils.Converters;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static junit.framework.TestCase.*;
+
+/*
+ * Tests for the Date and Duration columns, which store values as microseconds and
+ * nanoseconds respectively.
+ */
+public class DateColumnTest {
+    private final ColumnDescription dateDesc = new ColumnDescription("d", ContentsKind.Date, true);
+    private final ColumnDescription durDesc = new ColumnDescription("t", ContentsKind.Duration, true);
+
+    private static LocalDateTime date(final int i) {
+        return LocalDateTime.of(1950 + (i % 70), 1 + (i % 12), 1 + (i % 28), i % 24, i % 60,
+                i % 60, i * 1000);
+    }
+
+    @Test
+    public void testDateList() {
+        final DateListColumn col = new DateListColumn(this.dateDesc);
+        final int size = 40000;
+        for (int i = 0; i < size; i++) {
+            // Missing values also fall on segment boundaries.
+            if ((i % 4096) == 0)
+                col.appendMissing();
+            else
+                col.append(date(i));
+        }
+        assertEquals(size, col.sizeInRows());
+        for (int i = 0; i < size; i++) {
+            if ((i % 4096) == 0) {
+                assertTrue(col.isMissing(i));
+                assertNull(col.getDate(i));
+            } else {
+                assertFalse(col.isMissing(i));
+                assertEquals(date(i), col.getDate(i));
+                assertEquals(Converters.toDouble(date(i)), col.asDouble(i, null));
+            }
+        }
+        assertTrue(col.getComparator().compare(1, 2) < 0);
+        assertTrue(col.getComparator().compare(0, 2) > 0);
+    }
+
+    @Test
+    public void testDateArray() {
+        final LocalDateTime[] data = new LocalDateTime[] {
+                date(1), null, LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999999000) };
+        final DateArrayColumn col = new DateArrayColumn(this.dateDesc, data);
+        for (int i = 0; i < data.length; i++)
+            assertEquals(data[i], col.getDate(i));
+        assertTrue(col.isMissing(1));
+        assertEquals(-1L, col.getLong(2));
+        assertEquals(Converters.toDouble(data[2]), col.asDouble(2, null));
+    }
+
+    @Test
+    public void testExtremeDates() {
+        final LocalDateTime[] data = new LocalDateTime[] {
+                LocalDateTime.of(1, 1, 1, 0, 0),
+                LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999999000),
+                LocalDateTime.of(-200000, 6, 1, 12, 0) };
+        final DateArrayColumn col = new DateArrayColumn(this.dateDesc, data);
+        final DateListColumn list = new DateListColumn(this.dateDesc);
+        for (final LocalDateTime d : data)
+            list.append(d);
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(data[i], col.getDate(i));
+            assertEquals(data[i], list.getDate(i));
+            assertEquals(Converters.toDouble(data[i]), col.asDouble(i, null));
+        }
+        assertTrue(col.getComparator().compare(0, 1) < 0);
+        assertTrue(col.getComparator().compare(2, 0) < 0);
+        // Sub-microsecond digits are rounded down.
+        assertEquals(data[0], Converters.fromEpochMicros(
+                Converters.toEpochMicros(data[0].plusNanos(999))));
+    }
+
+    @Test
+    public void testDuration() {
+        final BaseListColumn col = BaseListColumn.create(this.durDesc);
+        col.parseAndAppendString("PT1.5S");
+        col.parseAndAppendString("");
+        col.parseAndAppendString("-PT0.0001S");
+        final IColumn c = col;
+        assertEquals(Duration.ofMillis(1500), c.getDuration(0));
+        assertTrue(c.isMissing(1));
+        assertEquals(-100000L, c.getLong(2));
+        assertEquals(-1.0, c.asDouble(2, null));
+        assertEquals(Converters.toDouble(Duration.ofNanos(-100000)), c.asDouble(2, null));
+    }
+}
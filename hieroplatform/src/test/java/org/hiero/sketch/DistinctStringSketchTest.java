@@ -10,6 +10,8 @@ import org.hiero.sketch.table.api.ITable;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.HashSet;
+
 
 public class DistinctStringSketchTest {
 
@@ -36,4 +38,32 @@ public class DistinctStringSketchTest {
         BucketsDescriptionEqSize desc = new BucketsDescriptionEqSize(-1, ds.size(), ds.size() + 1);
         Histogram1D hist = all.blockingSketch(new Hist1DSketch(desc, "Name", converter));
     }
+
+    @Test
+    public void DistinctCountTest() {
+        final int size = 100000;
+        final SmallTable table = TestTables.getIntTable(size, 1);
+        final String colName = table.getSchema().getColumnNames().iterator().next();
+        final HashSet<Integer> exact = new HashSet<Integer>();
+        for (int i = 0; i < size; i++)
+            exact.add(table.getColumn(colName).getInt(i));
+        final DistinctCountSketch sketch = new DistinctCountSketch(colName);
+        final HyperLogLog local = sketch.create(table);
+        Assert.assertEquals(exact.size(), local.distinctCount(), 0.05 * exact.size());
+        // Merging partitions gives the same registers as a single scan.
+        final ParallelDataSet<ITable> all = TestTables.makeParallel(table, size / 10);
+        final HyperLogLog merged = all.blockingSketch(sketch);
+        Assert.assertEquals(local.distinctCount(), merged.distinctCount());
+
+        final Table names = TestUtil.createTable(1000);
+        final DistinctStrings strings = new DistinctStringsSketch(0, "Name").create(names);
+        Assert.assertEquals(strings.size(), new DistinctCountSketch("Name").create(names).distinctCount());
+    }
+
+    @Test
+    public void DistinctCountCollisionTest() {
+        final Table table = TestTables.getCollidingTable();
+        Assert.assertEquals(TestTables.collidingStrings.length,
+                new DistinctCountSketch("Name").create(table).distinctCount());
+    }
 }
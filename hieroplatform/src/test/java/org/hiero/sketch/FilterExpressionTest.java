@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch;
+
+import org.hiero.sketch.table.CategoryArrayColumn;
+import org.hiero.sketch.table.ColumnDescription;
+import org.hiero.sketch.table.FilterExpression;
+import org.hiero.sketch.table.IntArrayColumn;
+import org.hiero.sketch.table.StringArrayColumn;
+import org.hiero.sketch.table.Table;
+import org.hiero.sketch.table.api.ContentsKind;
+import org.hiero.sketch.table.api.IColumn;
+import org.hiero.sketch.table.api.IMembershipSet;
+import org.hiero.sketch.table.api.IRowIterator;
+import org.hiero.utils.Randomness;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FilterExpressionTest {
+    private static final String[] names = { "Mike", "John", "Tom", "Bill", "Bob", "Bruce" };
+
+    private static Table getTable(final int size) {
+        final Randomness rn = Randomness.getInstance();
+        final IntArrayColumn age = new IntArrayColumn(
+                new ColumnDescription("Age", ContentsKind.Integer, true), size);
+        final CategoryArrayColumn name = new CategoryArrayColumn(
+                new ColumnDescription("Name", ContentsKind.Category, true), size);
+        final StringArrayColumn city = new StringArrayColumn(
+                new ColumnDescription("City", ContentsKind.String, false), size);
+        for (int i = 0; i < size; i++) {
+            if (rn.nextInt(20) == 0)
+                age.setMissing(i);
+            else
+                age.set(i, rn.nextInt(100));
+            if (rn.nextInt(20) == 0)
+                name.setMissing(i);
+            else
+                name.set(i, names[rn.nextInt(names.length)]);
+            city.set(i, names[rn.nextInt(names.length)] + "ville");
+        }
+        return new Table(Arrays.<IColumn>asList(age, name, city));
+    }
+
+    /**
+     * Checks that evaluating the expression column at a time selects the same rows as
+     * testing one row at a time, and as the expected predicate.
+     */
+    private static void check(final Table table, final FilterExpression expression,
+                              final IntPredicate expected) {
+        final IMembershipSet columnAtATime = expression.filter(table);
+        final IMembershipSet rowAtATime = table.getMembershipSet().filter(
+                expression.getPredicate(table));
+        final IMembershipSet reference = table.getMembershipSet().filter(expected);
+        assertEquals(reference.getSize(), columnAtATime.getSize());
+        assertEquals(reference.getSize(), rowAtATime.getSize());
+        final IRowIterator it = reference.getIterator();
+        for (int row = it.getNextRow(); row >= 0; row = it.getNextRow())
+            assertTrue(columnAtATime.isMember(row));
+    }
+
+    @Test
+    public void testFilterExpression() {
+        final Table table = getTable(10000);
+        final IColumn age = table.getColumn("Age");
+        final IColumn name = table.getColumn("Name");
+        final IColumn city = table.getColumn("City");
+        final IntPredicate ageRange = row -> !age.isMissing(row) &&
+                (age.getInt(row) >= 20) && (age.getInt(row) <= 40);
+
+        check(table, new FilterExpression.Range("Age", 20, 40), ageRange);
+        check(table, new FilterExpression.Compare("Age", FilterExpression.Comparison.GreaterThan, 50),
+                row -> !age.isMissing(row) && (age.getInt(row) > 50));
+        check(table, new FilterExpression.Compare("Age", FilterExpression.Comparison.NotEqual, 50),
+                row -> !age.isMissing(row) && (age.getInt(row) != 50));
+        check(table, new FilterExpression.Missing("Name"), name::isMissing);
+        check(table, new FilterExpression.In("Name", "Tom", "Bob"),
+                row -> "Tom".equals(name.getString(row)) || "Bob".equals(name.getString(row)));
+        check(table, FilterExpression.equalTo("City", "Tomville"),
+                row -> "Tomville".equals(city.getString(row)));
+        check(table, new FilterExpression.Prefix("City", "B"),
+                row -> city.getString(row).startsWith("B"));
+
+        final FilterExpression drillDown = new FilterExpression.And(
+                new FilterExpression.Range("Age", 20, 40),
+                new FilterExpression.Or(
+                        new FilterExpression.Prefix("Name", "B"),
+                        new FilterExpression.Missing("Name")),
+                new FilterExpression.Not(FilterExpression.equalTo("City", "Mikeville")));
+        check(table, drillDown, row -> ageRange.test(row) &&
+                (name.isMissing(row) || name.getString(row).startsWith("B")) &&
+                !city.getString(row).equals("Mikeville"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRangeOnStrings() {
+        final Table table = getTable(100);
+        new FilterExpression.Range("Name", 0, 1).filter(table);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompareOnStrings() {
+        final Table table = getTable(100);
+        new FilterExpression.Compare("City", FilterExpression.Comparison.NotEqual, 0).filter(table);
+    }
+}
@@ -3,9 +3,14 @@ package org.hiero.sketch;
 import org.hiero.sketch.dataset.LocalDataSet;
 import org.hiero.sketch.dataset.ParallelDataSet;
 import org.hiero.sketch.dataset.api.IDataSet;
+import org.hiero.sketch.spreadsheet.ExactFreqSketch;
 import org.hiero.sketch.spreadsheet.FreqKList;
 import org.hiero.sketch.spreadsheet.FreqKSketch;
 import org.hiero.sketch.table.ColumnDescription;
+import org.hiero.sketch.table.FullMembership;
+import org.hiero.sketch.table.HashSubSchema;
+import org.hiero.sketch.table.RangeMembership;
+import org.hiero.sketch.table.RowSnapshot;
 import org.hiero.utils.TestTables;
 import org.hiero.sketch.table.SmallTable;
 import org.hiero.sketch.table.Table;
@@ -14,9 +19,13 @@ import org.hiero.utils.Converters;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 public class FreqKTest {
     @Test
     public void testTopK1() {
@@ -99,4 +108,99 @@ public class FreqKTest {
         FreqKSketch fk = new FreqKSketch(cdl, 5);
         System.out.println(fk.create(t).toLongString());
     }
+
+    @Test
+    public void testTopKBounds() {
+        final int numCols = 2;
+        final int maxSize = 25;
+        final int size = 100000;
+        SmallTable bigTable = TestTables.getHeavyIntTable(numCols, size, 2.0, 16);
+        List<ColumnDescription> cdl = bigTable.getSchema().getColumnNames().stream().map(colName ->
+                bigTable.getSchema().getDescription(colName)).collect(Collectors.toList());
+        HashMap<RowSnapshot, Integer> exact = new HashMap<>();
+        for (int i = 0; i < size; i++)
+            exact.merge(new RowSnapshot(bigTable, i), 1, Integer::sum);
+
+        FreqKSketch fk = new FreqKSketch(cdl, maxSize);
+        FreqKList left = fk.create(bigTable.compress(new FullMembership(size / 2)));
+        FreqKList right = fk.create(bigTable.compress(new RangeMembership(size / 2, size)));
+        HashMap<RowSnapshot, Integer> leftCopy = new HashMap<>(left.hMap);
+        FreqKList result = Converters.checkNull(fk.add(left, right));
+        assertEquals(leftCopy, left.hMap);
+        assertEquals(size, result.totalRows);
+        assertTrue(result.hMap.size() <= maxSize);
+
+        int errBound = result.GetErrBound();
+        result.hMap.forEach((rs, count) -> {
+            int actual = exact.get(rs);
+            assertTrue(count <= actual);
+            assertTrue(actual <= (count + errBound));
+        });
+        exact.forEach((rs, actual) -> {
+            if (actual > errBound)
+                assertTrue(result.hMap.containsKey(rs));
+        });
+    }
+
+    @Test
+    public void testExactFreq() {
+        Table t = TestTables.testRepTable();
+        List<ColumnDescription> cdl = t.getSchema().getColumnNames().stream().map(colName ->
+                t.getSchema().getDescription(colName)).collect(Collectors.toList());
+        HashMap<RowSnapshot, Integer> exact = new HashMap<>();
+        for (int i = 0; i < t.getNumOfRows(); i++)
+            exact.merge(new RowSnapshot(t, i), 1, Integer::sum);
+
+        ExactFreqSketch ef = new ExactFreqSketch(cdl, 100);
+        FreqKList result = ef.create(t);
+        assertEquals(exact, result.hMap);
+        assertEquals(0, result.GetErrBound());
+        FreqKList doubled = Converters.checkNull(ef.add(result, result));
+        assertEquals(0, doubled.GetErrBound());
+        assertEquals(2 * t.getNumOfRows(), doubled.GetTotalCount());
+
+        List<ColumnDescription> names = new ArrayList<>();
+        names.add(t.getSchema().getDescription("Name"));
+        FreqKList byName = new ExactFreqSketch(names, 100).create(t);
+        assertEquals(0, byName.GetErrBound());
+        assertEquals(t.getNumOfRows(), byName.GetTotalCount());
+
+        // Too many distinct rows: the counts are approximate.
+        ExactFreqSketch small = new ExactFreqSketch(cdl, 2);
+        FreqKList approx = small.create(t);
+        assertTrue(approx.hMap.size() <= 2);
+        assertTrue(approx.GetErrBound() > 0);
+    }
+
+    @Test
+    public void testCollidingStrings() {
+        Table t = TestTables.getCollidingTable();
+        List<ColumnDescription> names = new ArrayList<>();
+        names.add(t.getSchema().getDescription("Name"));
+        FreqKList result = new FreqKSketch(names, 10).create(t);
+        assertEquals(TestTables.collidingStrings.length, result.hMap.size());
+        for (int i = 0; i < t.getNumOfRows(); i++) {
+            assertEquals(Integer.valueOf(t.getColumn("Age").getInt(i) + 1), result.hMap.get(
+                    new RowSnapshot(t, i, new HashSubSchema(new String[] { "Name" }))));
+        }
+    }
+
+    @Test
+    public void testExactFreqCollidingStrings() {
+        Table t = TestTables.getCollidingTable();
+        HashMap<RowSnapshot, Integer> exact = new HashMap<>();
+        for (int i = 0; i < t.getNumOfRows(); i++)
+            exact.merge(new RowSnapshot(t, i), 1, Integer::sum);
+        List<ColumnDescription> cdl = t.getSchema().getColumnNames().stream().map(colName ->
+                t.getSchema().getDescription(colName)).collect(Collectors.toList());
+        FreqKList result = new ExactFreqSketch(cdl, 100).create(t);
+        assertEquals(0, result.GetErrBound());
+        assertEquals(exact, result.hMap);
+
+        List<ColumnDescription> names = new ArrayList<>();
+        names.add(t.getSchema().getDescription("Name"));
+        FreqKList byName = new ExactFreqSketch(names, 100).create(t);
+        assertEquals(TestTables.collidingStrings.length, byName.hMap.size());
+        assertEquals(t.getNumOfRows(), byName.GetTotalCount());
+    }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch;
+
+import org.hiero.sketch.dataset.ParallelDataSet;
+import org.hiero.sketch.spreadsheet.GroupByAggregates;
+import org.hiero.sketch.spreadsheet.GroupBySketch;
+import org.hiero.sketch.table.CategoryArrayColumn;
+import org.hiero.sketch.table.ColumnDescription;
+import org.hiero.sketch.table.DoubleArrayColumn;
+import org.hiero.sketch.table.IntArrayColumn;
+import org.hiero.sketch.table.Table;
+import org.hiero.sketch.table.api.ContentsKind;
+import org.hiero.sketch.table.api.IColumn;
+import org.hiero.sketch.table.api.ITable;
+import org.hiero.utils.Randomness;
+import org.hiero.utils.TestTables;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GroupByTest {
+    private static final String[] carriers = { "AA", "DL", "UA", "WN", "B6", "AS" };
+
+    /**
+     * A table where row i has carrier i % 6, hour i % 24 and delay i % 100,
+     * except that the delay is missing in every 10th row.
+     */
+    private static Table getTable(final int size) {
+        final CategoryArrayColumn carrier = new CategoryArrayColumn(
+                new ColumnDescription("Carrier", ContentsKind.Category, false), size);
+        final IntArrayColumn hour = new IntArrayColumn(
+                new ColumnDescription("Hour", ContentsKind.Integer, false), size);
+        final DoubleArrayColumn delay = new DoubleArrayColumn(
+                new ColumnDescription("Delay", ContentsKind.Double, true), size);
+        for (int i = 0; i < size; i++) {
+            carrier.set(i, carriers[i % carriers.length]);
+            hour.set(i, i % 24);
+            if ((i % 10) == 0)
+                delay.setMissing(i);
+            else
+                delay.set(i, i % 100);
+        }
+        return new Table(Arrays.<IColumn>asList(carrier, hour, delay));
+    }
+
+    @Test
+    public void testGroupBy() {
+        final int size = 100000;
+        final Table table = getTable(size);
+        final GroupBySketch sketch = new GroupBySketch(Collections.singletonList("Carrier"),
+                Collections.singletonList("Delay"), 100);
+        final ParallelDataSet<ITable> data = TestTables.makeParallel(table, size / 7);
+        final GroupByAggregates result = data.blockingSketch(sketch);
+        assertEquals(carriers.length, result.getGroupCount());
+        assertEquals(0, result.getOtherRows());
+        for (int c = 0; c < carriers.length; c++) {
+            long count = 0, values = 0;
+            double sum = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+            for (int i = c; i < size; i += carriers.length) {
+                count++;
+                if ((i % 10) != 0) {
+                    values++;
+                    sum += i % 100;
+                    min = Math.min(min, i % 100);
+                    max = Math.max(max, i % 100);
+                }
+            }
+            int g = 0;
+            while (!result.getKey(g).getString("Carrier").equals(carriers[c]))
+                g++;
+            assertEquals(count, result.getCount(g));
+            assertEquals(values, result.getValueCount(0, g));
+            assertEquals(sum, result.getSum(0, g), 1e-6);
+            assertEquals(min, result.getMin(0, g), 0);
+            assertEquals(max, result.getMax(0, g), 0);
+            assertEquals(sum / values, result.getMean(0, g), 1e-9);
+        }
+        // The hour determines the carrier.
+        assertEquals(24,
+                data.blockingSketch(new GroupBySketch(Arrays.asList("Carrier", "Hour"),
+                        Collections.emptyList(), 1000)).getGroupCount());
+    }
+
+    @Test
+    public void testBoundedGroups() {
+        final int size = 100000;
+        final Randomness rn = Randomness.getInstance();
+        // Value 0 is in half of the rows, the others are spread over many values.
+        final IntArrayColumn key = new IntArrayColumn(
+                new ColumnDescription("Key", ContentsKind.Integer, false), size);
+        for (int i = 0; i < size; i++)
+            key.set(i, ((i % 2) == 0) ? 0 : 1 + rn.nextInt(10000));
+        final Table table = new Table(Collections.<IColumn>singletonList(key));
+        final GroupBySketch sketch = new GroupBySketch(Collections.singletonList("Key"),
+                Collections.emptyList(), 10);
+        final GroupByAggregates result =
+                TestTables.makeParallel(table, size / 10).blockingSketch(sketch);
+        assertTrue(result.getGroupCount() <= 10);
+        long total = result.getOtherRows();
+        int heaviest = 0;
+        for (int g = 0; g < result.getGroupCount(); g++) {
+            total += result.getCount(g);
+            if (result.getCount(g) > result.getCount(heaviest))
+                heaviest = g;
+        }
+        assertEquals(size, total);
+        assertEquals(0, (int)result.getKey(heaviest).getInt("Key"));
+        assertEquals(size / 2, result.getCount(heaviest));
+    }
+
+    @Test
+    public void testCollidingStrings() {
+        final Table table = TestTables.getCollidingTable();
+        final String[] names = TestTables.collidingStrings;
+        final GroupByAggregates result = new GroupBySketch(Collections.singletonList("Name"),
+                Collections.singletonList("Age"), 100).create(table);
+        assertEquals(names.length, result.getGroupCount());
+        for (int g = 0; g < result.getGroupCount(); g++) {
+            final int i = Arrays.asList(names).indexOf(result.getKey(g).getString("Name"));
+            assertEquals(i + 1, result.getCount(g));
+            assertEquals(i * (i + 1), result.getSum(0, g), 0);
+        }
+
+        final GroupByAggregates bounded = new GroupBySketch(Collections.singletonList("Name"),
+                Collections.emptyList(), 3).create(table);
+        long total = bounded.getOtherRows();
+        for (int g = 0; g < bounded.getGroupCount(); g++) {
+            final int i = Arrays.asList(names).indexOf(bounded.getKey(g).getString("Name"));
+            assertEquals(i + 1, bounded.getCount(g));
+            total += bounded.getCount(g);
+        }
+        assertEquals(table.getNumOfRows(), total);
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.hiero.sketch;
 import org.hiero.sketch.dataset.ParallelDataSet;
+import org.hiero.sketch.dataset.api.Pair;
+import org.hiero.sketch.dataset.api.Triple;
 import org.hiero.sketch.spreadsheet.*;
 import org.hiero.utils.TestTables;
 import org.hiero.sketch.table.SmallTable;
@@ -28,6 +30,7 @@ import org.junit.Test;
 import java.util.Iterator;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 
 /**
  * Test class for the sketches of all types of histograms.
@@ -123,4 +126,39 @@ public class HistSketchTest {
                 null, null, colName1, colName2, rate));
         HistogramTest.basicTest2DHeavy(hm, (long) (bigSize * rate));
     }
+
+    @Test
+    public void BatchSketchTest() {
+        final int bigSize = 100000;
+        final BucketsDescriptionEqSize buckets1 = new BucketsDescriptionEqSize(1, 50, 10);
+        final BucketsDescriptionEqSize buckets2 = new BucketsDescriptionEqSize(1, 50, 15);
+        final SmallTable bigTable = TestTables.getIntTable(bigSize, 2);
+        final Iterator<String> iter = bigTable.getSchema().getColumnNames().iterator();
+        final String colName1 = iter.next();
+        final String colName2 = iter.next();
+        final ParallelDataSet<ITable> all = TestTables.makeParallel(bigTable, bigSize / 10);
+        final Hist1DLightSketch cdf = new Hist1DLightSketch(buckets1, colName1, null);
+        final Hist1DSketch hist1 = new Hist1DSketch(buckets2, colName1, null);
+        final Hist1DSketch hist2 = new Hist1DSketch(buckets2, colName2, null);
+
+        final Pair<Histogram1DLight, Histogram1D> pair = all.blockingSketch(
+                new ConcurrentBatchSketch<Histogram1DLight, Histogram1D>(cdf, hist1));
+        final Histogram1DLight cdfAlone = all.blockingSketch(cdf);
+        final Histogram1D hist1Alone = all.blockingSketch(hist1);
+        assertNotNull(pair.first);
+        assertNotNull(pair.second);
+        for (int i = 0; i < buckets1.getNumOfBuckets(); i++)
+            assertEquals(cdfAlone.getCount(i), pair.first.getCount(i));
+        for (int i = 0; i < buckets2.getNumOfBuckets(); i++)
+            assertEquals(hist1Alone.getBucket(i).getCount(), pair.second.getBucket(i).getCount());
+
+        final Triple<Histogram1DLight, Histogram1D, Histogram1D> triple = all.blockingSketch(
+                new TripleBatchSketch<Histogram1DLight, Histogram1D, Histogram1D>(
+                        cdf, hist1, hist2));
+        final Histogram1D hist2Alone = all.blockingSketch(hist2);
+        assertNotNull(triple.third);
+        for (int i = 0; i < buckets2.getNumOfBuckets(); i++)
+            assertEquals(hist2Alone.getBucket(i).getCount(), triple.third.getBucket(i).getCount());
+        assertEquals(hist2Alone.getMissingData(), triple.third.getMissingData());
+    }
 }
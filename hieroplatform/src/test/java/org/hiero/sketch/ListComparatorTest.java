@@ -18,6 +18,7 @@
 
 package org.hiero.sketch;
 
+import org.hiero.sketch.table.CategoryArrayColumn;
 import org.hiero.sketch.table.ColumnDescription;
 import org.hiero.sketch.table.IntArrayColumn;
 import org.hiero.sketch.table.ListComparator;
@@ -25,9 +26,11 @@ import org.hiero.sketch.table.StringArrayColumn;
 import org.hiero.sketch.table.api.ContentsKind;
 import org.hiero.sketch.table.api.IColumn;
 import org.hiero.sketch.table.api.IndexComparator;
+import org.hiero.utils.IntSort;
 import org.hiero.utils.Randomness;
 import org.junit.Test;
 import java.util.*;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class ListComparatorTest {
@@ -91,6 +94,46 @@ public class ListComparatorTest {
         }
     }
 
+    @Test
+    public void IntSortMatchesListSort() {
+        final int size = 5000;
+        final Randomness rn = Randomness.getInstance();
+        final ColumnDescription desc1 = new ColumnDescription("int", ContentsKind.Integer, false);
+        final ColumnDescription desc2 = new ColumnDescription("cat", ContentsKind.Category, true);
+        final IntArrayColumn col1 = new IntArrayColumn(desc1, size);
+        final CategoryArrayColumn col2 = new CategoryArrayColumn(desc2, size);
+        final String alphabet = "zyxwvutsrqponmlkjihgfedcba";
+        for (int i = 0; i < size; i++) {
+            col1.set(i, rn.nextInt(10));
+            if (rn.nextInt(10) == 0)
+                col2.setMissing(i);
+            else
+                col2.set(i, String.valueOf(alphabet.charAt(rn.nextInt(26))));
+        }
+        final List<IndexComparator> listCompare = new ArrayList<IndexComparator>();
+        listCompare.add(col2.getComparator());
+        listCompare.add(col1.getComparator().rev());
+        final ListComparator listComp = new ListComparator(listCompare);
+        final List<Integer> toSort = new ArrayList<Integer>();
+        final int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            toSort.add(i);
+            order[i] = i;
+        }
+        toSort.sort(listComp);
+        IntSort.sort(order, listComp);
+        for (int i = 0; i < size; i++)
+            assertEquals(toSort.get(i).intValue(), order[i]);
+        for (int i = 0; i < (size - 1); i++) {
+            final String s = col2.getString(order[i]);
+            final String next = col2.getString(order[i + 1]);
+            if (s == null)
+                assertTrue(next == null);
+            else if (next != null)
+                assertTrue(s.compareTo(next) <= 0);
+        }
+    }
+
     static class RowsAsStrings {
         private final ArrayList<IColumn> cols;
 
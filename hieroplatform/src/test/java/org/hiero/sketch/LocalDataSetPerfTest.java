@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch;
+
+import org.hiero.sketch.dataset.LocalDataSet;
+import org.hiero.sketch.dataset.ParallelDataSet;
+import org.hiero.sketch.dataset.api.IDataSet;
+import org.hiero.sketch.dataset.api.ISketch;
+import org.hiero.utils.Converters;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Compares running the children of a ParallelDataSet on the subscribing thread
+ * with running them on the LocalDataSet thread pool.
+ */
+public class LocalDataSetPerfTest {
+    private static final int parts = 16;
+    private static final int partSize = 500000;
+    private static final int runs = 5;
+
+    private static class SqrtSum implements ISketch<double[], Double> {
+        @Override
+        public Double zero() {
+            return 0.0;
+        }
+
+        @Override
+        public Double add(@Nullable final Double left, @Nullable final Double right) {
+            return Converters.checkNull(left) + Converters.checkNull(right);
+        }
+
+        @Override
+        public Double create(@Nullable final double[] data) {
+            double sum = 0;
+            for (double d : Converters.checkNull(data))
+                sum += Math.sqrt(d);
+            return sum;
+        }
+    }
+
+    private ParallelDataSet<double[]> createDataSet(final boolean separateThread) {
+        final ArrayList<IDataSet<double[]>> l = new ArrayList<IDataSet<double[]>>(parts);
+        for (int j = 0; j < parts; j++) {
+            final double[] data = new double[partSize];
+            for (int i = 0; i < partSize; i++)
+                data[i] = i;
+            l.add(new LocalDataSet<double[]>(data, separateThread));
+        }
+        return new ParallelDataSet<double[]>(l);
+    }
+
+    @Test
+    public void testParallelSpeedup() {
+        final ParallelDataSet<double[]> sequential = this.createDataSet(false);
+        final ParallelDataSet<double[]> parallel = this.createDataSet(true);
+        final SqrtSum sketch = new SqrtSum();
+        final double expected = sequential.blockingSketch(sketch);
+        Assert.assertEquals(expected, parallel.blockingSketch(sketch), 1e-6 * expected);
+
+        final Consumer<Integer> seq = tmp -> sequential.blockingSketch(sketch);
+        final Consumer<Integer> par = tmp -> parallel.blockingSketch(sketch);
+        System.out.println("Subscribing thread, " + parts + " partitions");
+        TestUtil.runPerfTest(seq, runs);
+        System.out.println("Thread pool of " + LocalDataSet.getParallelism() + " threads");
+        TestUtil.runPerfTest(par, runs);
+
+        LocalDataSet.setParallelism(2);
+        final ParallelDataSet<double[]> twoThreads = this.createDataSet(true);
+        Assert.assertEquals(expected, twoThreads.blockingSketch(sketch), 1e-6 * expected);
+        System.out.println("Thread pool of 2 threads");
+        TestUtil.runPerfTest(tmp -> twoThreads.blockingSketch(sketch), runs);
+        LocalDataSet.setParallelism(Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch;
+
+import org.hiero.sketch.dataset.LocalDataSet;
+import org.hiero.sketch.dataset.MapCache;
+import org.hiero.sketch.dataset.SketchCache;
+import org.hiero.sketch.dataset.api.IDataSet;
+import org.hiero.sketch.dataset.api.IMap;
+import org.hiero.sketch.spreadsheet.BasicColStatSketch;
+import org.hiero.sketch.spreadsheet.FilterMap;
+import org.hiero.sketch.table.FilterExpression;
+import org.hiero.sketch.table.api.ITable;
+import org.hiero.utils.Converters;
+import org.hiero.utils.TestTables;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MapCacheTest {
+    private static final String colName = "Column0";
+
+    /**
+     * Applies a map with a cache key and counts the applications.
+     */
+    private static class CountingMap implements IMap<ITable, ITable> {
+        final IMap<ITable, ITable> map;
+        final Object key;
+        final AtomicInteger count = new AtomicInteger();
+
+        CountingMap(final IMap<ITable, ITable> map, final Object key) {
+            this.map = map;
+            this.key = key;
+        }
+
+        @Override
+        public ITable apply(@Nullable final ITable data) {
+            this.count.incrementAndGet();
+            return this.map.apply(data);
+        }
+
+        @Override
+        public Object getCacheKey() { return this.key; }
+    }
+
+    /**
+     * A copy of the table, with its own columns.
+     */
+    private static CountingMap copy() {
+        return new CountingMap(t -> Converters.checkNull(t).compress(
+                Converters.checkNull(t).getMembershipSet()), "copy");
+    }
+
+    private static CountingMap filter(final double min, final double max) {
+        return new CountingMap(new FilterMap(new FilterExpression.Range(colName, min, max)),
+                               "filter " + min + " " + max);
+    }
+
+    private static long rowCount(final IDataSet<ITable> data) {
+        return data.blockingSketch(new BasicColStatSketch(colName, null)).getRowCount();
+    }
+
+    @Test
+    public void testMemoize() {
+        MapCache.clear();
+        final LocalDataSet<ITable> data =
+                new LocalDataSet<ITable>(TestTables.getIntTable(10000, 2));
+        final CountingMap first = copy();
+        final CountingMap second = copy();
+        final IDataSet<ITable> result = data.blockingMap(first);
+        Assert.assertSame(result, data.blockingMap(second));
+        Assert.assertEquals(1, first.count.get());
+        Assert.assertEquals(0, second.count.get());
+        Assert.assertEquals(1, MapCache.getHitCount());
+        Assert.assertEquals(1, MapCache.getMissCount());
+
+        // The filtered table shares the columns of the copy; it only holds its rows.
+        final IDataSet<ITable> filtered = result.blockingMap(filter(0, 100));
+        final long copyBytes = ((LocalDataSet<ITable>) result).getMemoryUsage();
+        final long filteredBytes = ((LocalDataSet<ITable>) filtered).getMemoryUsage();
+        Assert.assertTrue(copyBytes >= 2 * 4 * 10000);
+        Assert.assertTrue(filteredBytes < copyBytes / 2);
+        Assert.assertEquals(copyBytes + filteredBytes, MapCache.getUsedBytes());
+        MapCache.clear();
+        Assert.assertEquals(0, MapCache.getUsedBytes());
+        Assert.assertEquals(0, MapCache.size());
+    }
+
+    @Test
+    public void testEvictAndRecompute() {
+        MapCache.clear();
+        final long budget = MapCache.getBudget();
+        try {
+            final LocalDataSet<ITable> data =
+                    new LocalDataSet<ITable>(TestTables.getIntTable(10000, 2));
+            final CountingMap copy = copy();
+            final LocalDataSet<ITable> copied = (LocalDataSet<ITable>) data.blockingMap(copy);
+            final CountingMap filter1 = filter(0, 200);
+            final CountingMap filter2 = filter(100, 300);
+            final LocalDataSet<ITable> f1 = (LocalDataSet<ITable>) copied.blockingMap(filter1);
+            final long rows1 = rowCount(f1);
+            MapCache.setBudget(copied.getMemoryUsage() + f1.getMemoryUsage());
+
+            // The copy is used by both results, so the least recently used filter is evicted.
+            final LocalDataSet<ITable> f2 = (LocalDataSet<ITable>) copied.blockingMap(filter2);
+            final long rows2 = rowCount(f2);
+            Assert.assertEquals(0, f1.getMemoryUsage());
+            Assert.assertTrue(f2.getMemoryUsage() > 0);
+            Assert.assertTrue(copied.getMemoryUsage() > 0);
+
+            // An evicted result is recomputed from its lineage when needed; sketch
+            // results would otherwise still be found in the SketchCache.
+            SketchCache.clear();
+            Assert.assertEquals(rows1, rowCount(f1));
+            Assert.assertEquals(2, filter1.count.get());
+            Assert.assertEquals(0, f2.getMemoryUsage());
+
+            // Without budget everything is evicted, children before their parents.
+            MapCache.setBudget(0);
+            Assert.assertEquals(0, MapCache.size());
+            Assert.assertEquals(0, MapCache.getUsedBytes());
+            MapCache.setBudget(budget);
+            SketchCache.clear();
+            Assert.assertEquals(rows2, rowCount(f2));
+            Assert.assertEquals(2, copy.count.get());
+            Assert.assertEquals(2, filter2.count.get());
+            Assert.assertEquals(2, MapCache.size());
+        } finally {
+            MapCache.setBudget(budget);
+            MapCache.clear();
+        }
+    }
+
+    @Test
+    public void testEvictParentDuringMap() {
+        MapCache.clear();
+        final long budget = MapCache.getBudget();
+        try {
+            final LocalDataSet<ITable> data =
+                    new LocalDataSet<ITable>(TestTables.getIntTable(10000, 2));
+            final LocalDataSet<ITable> copied = (LocalDataSet<ITable>) data.blockingMap(copy());
+            final long copyBytes = copied.getMemoryUsage();
+            // Evicting everything while the map runs cannot evict the copy it reads.
+            final AtomicLong bytesDuringMap = new AtomicLong();
+            final CountingMap evicting = new CountingMap(t -> {
+                MapCache.setBudget(0);
+                bytesDuringMap.set(copied.getMemoryUsage());
+                MapCache.setBudget(budget);
+                return filter(0, 100).apply(t);
+            }, "evicting");
+            final LocalDataSet<ITable> filtered =
+                    (LocalDataSet<ITable>) copied.blockingMap(evicting);
+            Assert.assertEquals(copyBytes, bytesDuringMap.get());
+            Assert.assertEquals(copyBytes + filtered.getMemoryUsage(), MapCache.getUsedBytes());
+
+            // The copy is the least recently used result, but the filtered table depends on
+            // it, so the filtered table is evicted first.
+            MapCache.setBudget(MapCache.getUsedBytes() - 1);
+            Assert.assertEquals(0, filtered.getMemoryUsage());
+            Assert.assertEquals(copyBytes, copied.getMemoryUsage());
+
+            // Recomputing the filtered table pins the copy again; afterwards both are
+            // evicted, children first, and no count of dependents is left over.
+            MapCache.setBudget(budget);
+            Assert.assertTrue(rowCount(filtered) > 0);
+            MapCache.setBudget(0);
+            Assert.assertEquals(0, MapCache.size());
+            Assert.assertEquals(0, MapCache.getUsedBytes());
+        } finally {
+            MapCache.setBudget(budget);
+            MapCache.clear();
+        }
+    }
+
+    /**
+     * Makes a table whose size is read from outside its data, like loading a file.
+     */
+    private static class LoadMap implements IMap<Integer, ITable> {
+        final AtomicInteger rows = new AtomicInteger();
+
+        @Override
+        public ITable apply(@Nullable final Integer data) {
+            return TestTables.getIntTable(this.rows.get(), 2);
+        }
+
+        @Override
+        public Object getCacheKey(@Nullable final Integer data) {
+            return Arrays.asList("load", data, this.rows.get());
+        }
+    }
+
+    @Test
+    public void testRecomputeChangedSource() {
+        MapCache.clear();
+        SketchCache.clear();
+        final long budget = MapCache.getBudget();
+        try {
+            final LocalDataSet<Integer> source = new LocalDataSet<Integer>(0);
+            final LoadMap load = new LoadMap();
+            load.rows.set(1000);
+            final LocalDataSet<ITable> loaded = (LocalDataSet<ITable>) source.blockingMap(load);
+            Assert.assertEquals(1000, rowCount(loaded));
+
+            // An evicted result whose source has not changed keeps its cached sketches.
+            MapCache.setBudget(0);
+            MapCache.setBudget(budget);
+            Assert.assertEquals(1000, rowCount(loaded));
+            Assert.assertEquals(0, loaded.getMemoryUsage());
+
+            // Once the source changes the result is recomputed, under the new key.
+            load.rows.set(2000);
+            Assert.assertEquals(2000, rowCount(loaded));
+            Assert.assertSame(loaded, source.blockingMap(load));
+            final LocalDataSet<ITable> filtered =
+                    (LocalDataSet<ITable>) loaded.blockingMap(filter(-1, 1e6));
+            Assert.assertEquals(2000, rowCount(filtered));
+
+            // Results computed from a changed result are recomputed too.
+            load.rows.set(3000);
+            MapCache.setBudget(0);
+            MapCache.setBudget(budget);
+            Assert.assertEquals(3000, rowCount(filtered));
+            Assert.assertEquals(3000, rowCount(loaded));
+        } finally {
+            MapCache.setBudget(budget);
+            MapCache.clear();
+            SketchCache.clear();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch;
+
+import org.hiero.sketch.table.ColumnDescription;
+import org.hiero.sketch.table.DoubleArrayColumn;
+import org.hiero.sketch.table.SparseMembership;
+import org.hiero.sketch.table.api.ContentsKind;
+import org.hiero.sketch.table.api.IRowIterator;
+import org.hiero.utils.IntSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MembershipPerfTest {
+    /**
+     * Scans a column through a filtered membership set, once in the hash order of
+     * the underlying IntSet and once in the increasing order of the SparseMembership
+     * iterator.
+     */
+    @Test
+    public void testSparseScan() {
+        final int size = 10000000;
+        final int testnum = 5;
+        final ColumnDescription desc = new ColumnDescription("test", ContentsKind.Double, false);
+        final DoubleArrayColumn col = new DoubleArrayColumn(desc, size);
+        final IntSet members = new IntSet(size / 8);
+        for (int i = 0; i < size; i++) {
+            col.set(i, i);
+            if ((i % 10) == 3)
+                members.add(i);
+        }
+        final SparseMembership rows = new SparseMembership(members);
+        Assert.assertEquals(size / 10, rows.getSize());
+
+        final IRowIterator it = rows.getIterator();
+        int previous = -1;
+        int curr = it.getNextRow();
+        while (curr >= 0) {
+            Assert.assertTrue(curr > previous);
+            previous = curr;
+            curr = it.getNextRow();
+        }
+
+        System.out.println("Scan in hash order");
+        TestUtil.runPerfTest(tmp -> {
+            double sum = 0;
+            final IntSet.IntSetIterator hashIt = members.getIterator();
+            int row = hashIt.getNext();
+            while (row >= 0) {
+                sum += col.getDouble(row);
+                row = hashIt.getNext();
+            }
+            Assert.assertTrue(sum > 0);
+        }, testnum);
+        System.out.println("Scan in sorted order");
+        TestUtil.runPerfTest(tmp -> {
+            double sum = 0;
+            final IRowIterator sortedIt = rows.getIterator();
+            int row = sortedIt.getNextRow();
+            while (row >= 0) {
+                sum += col.getDouble(row);
+                row = sortedIt.getNextRow();
+            }
+            Assert.assertTrue(sum > 0);
+        }, testnum);
+    }
+}
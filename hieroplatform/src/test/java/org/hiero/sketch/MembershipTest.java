@@ -23,13 +23,16 @@ import org.hiero.sketch.table.api.IMembershipSet;
 import org.hiero.sketch.table.api.IRowIterator;
 import org.hiero.utils.IntSet;
 import org.junit.Test;
+
+import java.util.List;
+
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertTrue;
 
 
-/* Tests for the three Membership Classes:
- * FullMembership, LazyMembership, SparseMembership
+/* Tests for the Membership Classes:
+ * FullMembership, SparseMembership, DenseMembership
  */
 public class MembershipTest {
     private final int size = 10;
@@ -91,4 +94,161 @@ public class MembershipTest {
             curr = siter.getNextRow();
         }
     }
+
+    @Test
+    public void TestDenseMembership() {
+        final FullMembership FM = new FullMembership(1000);
+        final IMembershipSet even = FM.filter(row -> (row % 2) == 0);
+        assertTrue(even instanceof DenseMembership);
+        assertEquals(500, even.getSize());
+        assertTrue(even.isMember(998));
+        assertFalse(even.isMember(999));
+        assertFalse(even.isMember(1000));
+        assertFalse(even.isMember(-1));
+        final IRowIterator iter = even.getIterator();
+        int expected = 0;
+        int tmp = iter.getNextRow();
+        while (tmp >= 0) {
+            assertEquals(expected, tmp);
+            expected += 2;
+            tmp = iter.getNextRow();
+        }
+        assertEquals(1000, expected);
+
+        final IMembershipSet third = FM.filter(row -> (row % 3) == 0);
+        assertEquals(334, third.getSize());
+        assertEquals(167, even.intersection(third).getSize());
+        assertEquals(667, even.union(third).getSize());
+        assertEquals(333, even.setMinus(third).getSize());
+        final SparseMembership sparse = new SparseMembership(FM, row -> (row % 3) == 0);
+        assertEquals(167, even.intersection(sparse).getSize());
+        assertEquals(667, even.union(sparse).getSize());
+        assertEquals(333, even.setMinus(sparse).getSize());
+        assertEquals(250, even.intersection(new FullMembership(500)).getSize());
+
+        assertTrue(FM.filter(row -> true) instanceof FullMembership);
+        assertTrue(FM.filter(row -> row < 10) instanceof SparseMembership);
+        final IMembershipSet sample = even.sample(20, 0);
+        assertEquals(20, sample.getSize());
+        final IRowIterator siter = sample.getIterator();
+        int curr = siter.getNextRow();
+        while (curr >= 0) {
+            assertTrue(even.isMember(curr));
+            curr = siter.getNextRow();
+        }
+        assertEquals(500, new DenseMembership(new SparseMembership(FM, row -> row > 499)).getSize());
+    }
+
+    private static void checkBatches(final IMembershipSet set) {
+        final IRowIterator single = set.getIterator();
+        final IRowIterator batched = set.getIterator();
+        final int[] rows = new int[7];
+        int total = 0;
+        while (true) {
+            final int count = batched.getNextBatch(rows);
+            if (count == 0)
+                break;
+            for (int i = 0; i < count; i++)
+                assertEquals(single.getNextRow(), rows[i]);
+            total += count;
+        }
+        assertEquals(-1, single.getNextRow());
+        assertEquals(set.getSize(), total);
+    }
+
+    @Test
+    public void TestBatchIterator() {
+        final FullMembership FM = new FullMembership(1000);
+        checkBatches(FM);
+        checkBatches(FM.filter(row -> (row % 3) != 0));
+        checkBatches(new SparseMembership(FM, row -> (row % 3) == 0));
+        checkBatches(new FullMembership(0));
+    }
+
+    @Test
+    public void TestSplit() {
+        final FullMembership FM = new FullMembership(1000);
+        final List<IMembershipSet> ranges = FM.split(300);
+        assertEquals(4, ranges.size());
+        assertTrue(ranges.get(0) instanceof RangeMembership);
+        assertEquals(100, ranges.get(3).getSize());
+        assertTrue(ranges.get(1).isMember(300));
+        assertFalse(ranges.get(1).isMember(600));
+        checkBatches(ranges.get(2));
+        assertEquals(600, ranges.get(1).union(ranges.get(2)).getSize());
+        assertEquals(0, ranges.get(1).intersection(ranges.get(2)).getSize());
+        assertEquals(150, ranges.get(1).filter(row -> (row % 2) == 0).getSize());
+        assertEquals(50, ranges.get(1).sample(50, 1).getSize());
+
+        final IMembershipSet even = new SparseMembership(FM, row -> (row % 2) == 0);
+        final List<IMembershipSet> parts = even.split(200);
+        assertEquals(3, parts.size());
+        int previousMax = -1;
+        int total = 0;
+        for (IMembershipSet part : parts) {
+            final IRowIterator it = part.getIterator();
+            int row = it.getNextRow();
+            assertTrue(row > previousMax);
+            while (row >= 0) {
+                previousMax = row;
+                row = it.getNextRow();
+            }
+            total += part.getSize();
+        }
+        assertEquals(500, total);
+    }
+
+    @Test
+    public void TestSlice() {
+        final FullMembership FM = new FullMembership(1000);
+        final IMembershipSet[] sets = {
+                FM,
+                FM.split(600).get(1),
+                FM.filter(row -> (row % 3) != 0),
+                new SparseMembership(FM, row -> (row % 3) == 0)
+        };
+        for (IMembershipSet set : sets) {
+            final IRowIterator it = set.getIterator();
+            for (int i = 0; i < 10; i++)
+                it.getNextRow();
+            final IMembershipSet slice = set.slice(10, 30);
+            assertEquals(20, slice.getSize());
+            final IRowIterator sit = slice.getIterator();
+            for (int i = 0; i < 20; i++)
+                assertEquals(it.getNextRow(), sit.getNextRow());
+            assertEquals(-1, sit.getNextRow());
+            assertEquals(5, set.slice(set.getSize() - 5, set.getSize() + 10).getSize());
+            assertEquals(0, set.slice(set.getSize(), set.getSize() + 10).getSize());
+        }
+    }
+
+    @Test
+    public void TestDenseSlices() {
+        final FullMembership FM = new FullMembership(100000);
+        final IMembershipSet set = FM.filter(row -> ((row % 3) != 0) && ((row % 1000) < 900));
+        assertTrue(set instanceof DenseMembership);
+        final IRowIterator it = set.getIterator();
+        final int chunk = 777;
+        for (int start = 0; start < set.getSize(); start += chunk) {
+            final IMembershipSet slice = set.slice(start, start + chunk);
+            assertEquals(Math.min(chunk, set.getSize() - start), slice.getSize());
+            // Only the words spanned by the slice are allocated.
+            assertTrue(slice.getMemoryUsage() <= (8 * ((2 * chunk / 64) + 2)));
+            final IRowIterator sit = slice.getIterator();
+            for (int i = 0; i < slice.getSize(); i++) {
+                final int row = it.getNextRow();
+                assertEquals(row, sit.getNextRow());
+                assertTrue(slice.isMember(row));
+            }
+            assertEquals(-1, sit.getNextRow());
+            // Row 1 is the first member of the set.
+            assertEquals(start == 0, slice.isMember(1));
+            assertEquals(slice.getSize(), slice.intersection(set).getSize());
+            assertEquals(set.getSize(), slice.union(set).getSize());
+            assertEquals(0, slice.setMinus(set).getSize());
+            final IMembershipSet inner = slice.slice(10, 20);
+            assertEquals(10, inner.getSize());
+        }
+        assertEquals(-1, it.getNextRow());
+    }
 }
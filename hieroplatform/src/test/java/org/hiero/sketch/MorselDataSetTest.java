@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch;
+
+import org.hiero.sketch.dataset.LocalDataSet;
+import org.hiero.sketch.dataset.MorselDataSet;
+import org.hiero.sketch.dataset.api.IDataSet;
+import org.hiero.sketch.spreadsheet.BasicColStatSketch;
+import org.hiero.sketch.spreadsheet.BasicColStats;
+import org.hiero.sketch.spreadsheet.BucketsDescriptionEqSize;
+import org.hiero.sketch.spreadsheet.FilterMap;
+import org.hiero.sketch.spreadsheet.Hist1DLightSketch;
+import org.hiero.sketch.spreadsheet.Histogram1DLight;
+import org.hiero.sketch.table.ColumnDescription;
+import org.hiero.sketch.table.FullMembership;
+import org.hiero.sketch.table.IntArrayColumn;
+import org.hiero.sketch.table.Table;
+import org.hiero.sketch.table.TableFilter;
+import org.hiero.sketch.table.api.ContentsKind;
+import org.hiero.sketch.table.api.IColumn;
+import org.hiero.sketch.table.api.ITable;
+import org.hiero.utils.TestTables;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class MorselDataSetTest {
+    @Test
+    public void testMorselSketch() {
+        final ITable table = TestTables.getRepIntTable(100000, 2);
+        final String colName = table.getSchema().getColumnNames().iterator().next();
+        final List<ITable> morsels = table.split(7000);
+        Assert.assertEquals(15, morsels.size());
+        final MorselDataSet<ITable> mds = new MorselDataSet<ITable>(morsels);
+        final LocalDataSet<ITable> lds = new LocalDataSet<ITable>(table);
+
+        final BasicColStatSketch stats = new BasicColStatSketch(colName, null, 2, 1.0);
+        final BasicColStats expected = lds.blockingSketch(stats);
+        final BasicColStats actual = mds.blockingSketch(stats);
+        Assert.assertEquals(expected.getRowCount(), actual.getRowCount());
+        Assert.assertEquals(expected.getMin(), actual.getMin(), 0);
+        Assert.assertEquals(expected.getMax(), actual.getMax(), 0);
+        Assert.assertEquals(expected.getMoment(1), actual.getMoment(1), 1e-9);
+
+        final TableFilter even = new TableFilter() {
+            private IColumn column = table.getColumn(colName);
+
+            @Override
+            public void setTable(final ITable table) {
+                this.column = table.getColumn(colName);
+            }
+
+            @Override
+            public boolean test(final int rowIndex) {
+                return (this.column.getInt(rowIndex) % 2) == 0;
+            }
+        };
+        final IDataSet<ITable> filtered = mds.blockingMap(new FilterMap(even));
+        Assert.assertTrue(filtered instanceof MorselDataSet);
+        final IDataSet<ITable> localFiltered = lds.blockingMap(new FilterMap(even));
+        final BasicColStats fs = filtered.blockingSketch(stats);
+        Assert.assertEquals(localFiltered.blockingSketch(stats).getRowCount(), fs.getRowCount());
+    }
+
+    /**
+     * Sketches a 20M row table split in morsels of 1M rows with pools of 1 to 16 threads.
+     */
+    @Test
+    public void testMorselScaling() {
+        final int size = 20000000;
+        final int morselSize = 1000000;
+        final int runs = 3;
+        final ColumnDescription desc = new ColumnDescription("X", ContentsKind.Integer, false);
+        final IntArrayColumn col = new IntArrayColumn(desc, size);
+        for (int i = 0; i < size; i++)
+            col.set(i, i % 1000);
+        final List<IColumn> columns = new ArrayList<IColumn>();
+        columns.add(col);
+        final Table table = new Table(columns, new FullMembership(size));
+        final List<ITable> morsels = table.split(morselSize);
+        final Hist1DLightSketch sketch = new Hist1DLightSketch(
+                new BucketsDescriptionEqSize(0, 1000, 100), "X", null);
+
+        for (int threads = 1; threads <= 16; threads *= 2) {
+            final ForkJoinPool pool = new ForkJoinPool(threads);
+            final MorselDataSet<ITable> mds = new MorselDataSet<ITable>(morsels, pool);
+            final Histogram1DLight hist = mds.blockingSketch(sketch);
+            Assert.assertEquals(size / 100, hist.getCount(0));
+            System.out.println("Morsels sketched by " + threads + " threads");
+            TestUtil.runPerfTest(tmp -> mds.blockingSketch(sketch), runs);
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A LocalDataSet holding a large table sketches its large chunks in parallel morsels.
+     */
+    @Test
+    public void testLocalMorsels() {
+        final int size = 4000000;
+        final ColumnDescription desc = new ColumnDescription("X", ContentsKind.Integer, false);
+        final IntArrayColumn col = new IntArrayColumn(desc, size);
+        for (int i = 0; i < size; i++)
+            col.set(i, i % 1000);
+        final List<IColumn> columns = new ArrayList<IColumn>();
+        columns.add(col);
+        final Table table = new Table(columns, new FullMembership(size));
+        final LocalDataSet<ITable> lds = new LocalDataSet<ITable>(table);
+        final BasicColStatSketch stats = new BasicColStatSketch("X", null, 2, 1.0);
+        final ForkJoinPool previous = LocalDataSet.getMorselPool();
+        try {
+            for (final ForkJoinPool pool : new ForkJoinPool[] { null, ForkJoinPool.commonPool() }) {
+                LocalDataSet.setMorselPool(pool);
+                final BasicColStats result = lds.blockingSketch(stats);
+                Assert.assertEquals(size, result.getRowCount());
+                Assert.assertEquals(0, result.getMin(), 0);
+                Assert.assertEquals(999, result.getMax(), 0);
+                Assert.assertEquals(499.5, result.getMoment(1), 1e-9);
+                System.out.println("Local table sketched " +
+                        ((pool == null) ? "on one thread" : "in morsels"));
+                TestUtil.runPerfTest(tmp -> lds.blockingSketch(stats), 3);
+            }
+        } finally {
+            LocalDataSet.setMorselPool(previous);
+        }
+    }
+}
@@ -19,7 +19,10 @@
 package org.hiero.sketch;
 
 import org.hiero.sketch.dataset.ParallelDataSet;
+import org.hiero.sketch.spreadsheet.BucketsDescription1D;
 import org.hiero.sketch.spreadsheet.ColumnSortOrientation;
+import org.hiero.sketch.spreadsheet.NumericQuantileSketch;
+import org.hiero.sketch.spreadsheet.NumericQuantiles;
 import org.hiero.sketch.spreadsheet.QuantileList;
 import org.hiero.sketch.spreadsheet.QuantileSketch;
 import org.hiero.sketch.table.*;
@@ -31,6 +34,8 @@ import org.hiero.utils.TestTables;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 public class QuantileSketchTest {
     @Test
     public void testQuantile() {
@@ -173,4 +178,47 @@ public class QuantileSketchTest {
         }
         //printTime("done");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testNumericQuantiles() {
+        final int bigSize = 100000;
+        final SmallTable bigTable = TestTables.getIntTable(bigSize, 1);
+        final String colName = bigTable.getSchema().getColumnNames().iterator().next();
+        final int[] sorted = new int[bigSize];
+        for (int i = 0; i < bigSize; i++)
+            sorted[i] = bigTable.getColumn(colName).getInt(i);
+        Arrays.sort(sorted);
+
+        final NumericQuantileSketch sketch = new NumericQuantileSketch(colName, null);
+        ParallelDataSet<ITable> all = TestTables.makeParallel(bigTable, 10000);
+        final NumericQuantiles nq = all.blockingSketch(sketch);
+        Assert.assertEquals(bigSize, nq.getCount());
+        Assert.assertTrue(nq.getRetained() < (4 * NumericQuantileSketch.defaultK));
+        Assert.assertEquals(sorted[0], nq.getQuantile(0), 0);
+        Assert.assertEquals(sorted[bigSize - 1], nq.getQuantile(1), 0);
+        for (int i = 1; i < 20; i++) {
+            final double q = i / 20.0;
+            final double value = nq.getQuantile(q);
+            // The exact ranks of value span [below, atOrBelow].
+            int below = 0, atOrBelow = 0;
+            for (int v : sorted) {
+                if (v < value)
+                    below++;
+                if (v <= value)
+                    atOrBelow++;
+            }
+            Assert.assertTrue(((double) below / bigSize) <= (q + 0.03));
+            Assert.assertTrue(((double) atOrBelow / bigSize) >= (q - 0.03));
+            Assert.assertEquals((double) atOrBelow / bigSize, nq.getRank(value), 0.03);
+        }
+
+        // Union does not modify its arguments.
+        final NumericQuantiles left = sketch.create(bigTable);
+        final int retained = left.getRetained();
+        final NumericQuantiles both = Converters.checkNull(sketch.add(left, left));
+        Assert.assertEquals(retained, left.getRetained());
+        Assert.assertEquals(2 * bigSize, both.getCount());
+        final BucketsDescription1D buckets = both.getEqualDepthBuckets(10);
+        Assert.assertEquals(10, buckets.getNumOfBuckets());
+    }
+}
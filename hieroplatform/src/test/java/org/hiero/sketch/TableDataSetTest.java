@@ -20,8 +20,14 @@ package org.hiero.sketch;
 
 import org.hiero.sketch.dataset.LocalDataSet;
 import org.hiero.sketch.dataset.ParallelDataSet;
+import org.hiero.sketch.dataset.SketchCache;
 import org.hiero.sketch.dataset.api.IDataSet;
+import org.hiero.sketch.dataset.api.PartialResult;
+import org.hiero.sketch.spreadsheet.BasicColStatSketch;
+import org.hiero.sketch.spreadsheet.BasicColStats;
 import org.hiero.sketch.spreadsheet.ColumnSortOrientation;
+import org.hiero.sketch.spreadsheet.NextKList;
+import org.hiero.sketch.spreadsheet.NextKSketch;
 import org.hiero.sketch.spreadsheet.QuantileList;
 import org.hiero.sketch.spreadsheet.QuantileSketch;
 import org.hiero.utils.TestTables;
@@ -32,7 +38,9 @@ import org.hiero.sketch.table.api.IndexComparator;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.List;
 
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
 
 public class TableDataSetTest {
@@ -78,4 +86,94 @@ public class TableDataSetTest {
             assertTrue(comp.compare(i, i + 1) <= 0);
         //System.out.println(r);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void chunkedSketchTest() {
+        final int size = 1000000;
+        final ITable table = TestTables.getRepIntTable(size, 1);
+        final String colName = table.getSchema().getColumnNames().iterator().next();
+        final BasicColStatSketch sketch = new BasicColStatSketch(colName, null, 1, 1.0);
+        final BasicColStats expected = sketch.create(table);
+        final long interval = LocalDataSet.getProgressInterval();
+        LocalDataSet.setProgressInterval(1);
+        final LocalDataSet<ITable> ld = new LocalDataSet<ITable>(table);
+        final List<PartialResult<BasicColStats>> results =
+                ld.sketch(sketch).toList().toBlocking().single();
+        LocalDataSet.setProgressInterval(interval);
+        // The zero and at least two chunks.
+        assertTrue(results.size() > 2);
+        double done = 0;
+        BasicColStats sum = sketch.getZero();
+        for (PartialResult<BasicColStats> pr : results) {
+            done += pr.deltaDone;
+            sum = sketch.add(sum, pr.deltaValue);
+        }
+        assertEquals(1.0, done, 1e-9);
+        assertEquals(expected.getRowCount(), sum.getRowCount());
+        assertEquals(expected.getMin(), sum.getMin(), 0);
+        assertEquals(expected.getMax(), sum.getMax(), 0);
+        assertEquals(expected.getMoment(1), sum.getMoment(1), 1e-6);
+    }
+
+    @Test
+    public void sketchCacheTest() {
+        final int size = 1000;
+        final SmallTable table1 = TestTables.getIntTable(size, 2);
+        final SmallTable table2 = TestTables.getIntTable(size, 2);
+        final String colName = table1.getSchema().getColumnNames().iterator().next();
+        final long budget = SketchCache.getBudget();
+        SketchCache.clear();
+        final LocalDataSet<ITable> ld1 = new LocalDataSet<ITable>(table1);
+        final LocalDataSet<ITable> ld2 = new LocalDataSet<ITable>(table2);
+        final BasicColStats first = ld1.blockingSketch(new BasicColStatSketch(colName, null));
+        assertEquals(0, SketchCache.getHitCount());
+        assertEquals(1, SketchCache.getMissCount());
+        // An equal sketch on the same dataset is a hit.
+        final BasicColStats second = ld1.blockingSketch(new BasicColStatSketch(colName, null));
+        assertEquals(1, SketchCache.getHitCount());
+        assertTrue(first == second);
+
+        // Each partition is cached separately; only ld2 is computed.
+        final ArrayList<IDataSet<ITable>> elems = new ArrayList<IDataSet<ITable>>(2);
+        elems.add(ld1);
+        elems.add(ld2);
+        final ParallelDataSet<ITable> par = new ParallelDataSet<ITable>(elems);
+        final BasicColStats both = par.blockingSketch(new BasicColStatSketch(colName, null));
+        assertEquals(2, SketchCache.getHitCount());
+        assertEquals(2, SketchCache.getMissCount());
+        assertEquals(2 * size, both.getRowCount());
+
+        // Sampled results are not cached.
+        final long sampledMisses = SketchCache.getMissCount();
+        ld1.blockingSketch(new BasicColStatSketch(colName, null, 1, 0.5));
+        ld1.blockingSketch(new BasicColStatSketch(colName, null, 1, 0.5));
+        assertEquals(sampledMisses, SketchCache.getMissCount());
+        assertEquals(2, SketchCache.size());
+
+        // Least recently used entries are evicted when the cache exceeds its budget.
+        SketchCache.setBudget(SketchCache.getUsedBytes() / 2);
+        assertEquals(1, SketchCache.size());
+        ld1.blockingSketch(new BasicColStatSketch(colName, null));
+        final long misses = SketchCache.getMissCount();
+        ld2.blockingSketch(new BasicColStatSketch(colName, null));
+        ld1.blockingSketch(new BasicColStatSketch(colName, null));
+        assertEquals(misses + 2, SketchCache.getMissCount());
+        SketchCache.setBudget(budget);
+
+        // Large results are charged for the memory they hold.
+        SketchCache.clear();
+        final RecordOrder order = new RecordOrder();
+        for (String name : table1.getSchema().getColumnNames())
+            order.append(new ColumnSortOrientation(table1.getSchema().getDescription(name), true));
+        final NextKList rows = ld1.blockingSketch(new NextKSketch(order, null, size));
+        assertEquals(1, SketchCache.size());
+        assertTrue(SketchCache.getUsedBytes() >= rows.getMemoryUsage(null));
+        assertTrue(rows.getMemoryUsage(null) >= (4L * size));
+        SketchCache.setBudget(rows.getMemoryUsage(null) / 2);
+        assertEquals(0, SketchCache.size());
+        ld1.blockingSketch(new NextKSketch(order, null, size));
+        assertEquals(0, SketchCache.size());
+        SketchCache.setBudget(budget);
+        SketchCache.clear();
+    }
+}
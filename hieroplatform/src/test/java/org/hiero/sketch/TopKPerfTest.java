@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch;
+
+import org.hiero.sketch.spreadsheet.ColumnSortOrientation;
+import org.hiero.sketch.spreadsheet.HeapTopK;
+import org.hiero.sketch.spreadsheet.IntTopK;
+import org.hiero.sketch.spreadsheet.TreeTopK;
+import org.hiero.sketch.table.ColumnDescription;
+import org.hiero.sketch.table.IntArrayColumn;
+import org.hiero.sketch.table.RecordOrder;
+import org.hiero.sketch.table.SmallTable;
+import org.hiero.sketch.table.api.ContentsKind;
+import org.hiero.sketch.table.api.IColumn;
+import org.hiero.sketch.table.api.IndexComparator;
+import org.hiero.utils.Randomness;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TopKPerfTest {
+    /**
+     * Top-K of the rows of a 1M row integer column, boxed and primitive.
+     */
+    @Test
+    public void TopKOnColumn() {
+        final Randomness rn = Randomness.getInstance();
+        final int size = 1000000;
+        final ColumnDescription desc = new ColumnDescription("X", ContentsKind.Integer, false);
+        final IntArrayColumn col = new IntArrayColumn(desc, size);
+        for (int j = 0; j < size; j++)
+            col.set(j, rn.nextInt(size));
+        final List<IColumn> columns = new ArrayList<IColumn>();
+        columns.add(col);
+        final SmallTable table = new SmallTable(columns);
+        final RecordOrder order = new RecordOrder();
+        order.append(new ColumnSortOrientation(desc, true));
+        final IndexComparator comparator = order.getComparator(table);
+        for (final int maxSize : new int[] { 20, 100, 1000 }) {
+            System.out.println("TreeTopK, k=" + maxSize);
+            TestUtil.runPerfTest(tmp -> {
+                final TreeTopK<Integer> topK = new TreeTopK<Integer>(maxSize, comparator);
+                for (int j = 0; j < size; j++)
+                    topK.push(j);
+            }, 2);
+            System.out.println("HeapTopK, k=" + maxSize);
+            TestUtil.runPerfTest(tmp -> {
+                final HeapTopK<Integer> topK = new HeapTopK<Integer>(maxSize, comparator);
+                for (int j = 0; j < size; j++)
+                    topK.push(j);
+            }, 2);
+            System.out.println("IntTopK, k=" + maxSize);
+            TestUtil.runPerfTest(tmp -> {
+                final IntTopK topK = new IntTopK(maxSize, comparator);
+                for (int j = 0; j < size; j++)
+                    topK.push(j);
+            }, 2);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2017 VMware Inc. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.hiero.sketch;
+
+import org.hiero.sketch.dataset.LocalDataSet;
+import org.hiero.sketch.dataset.ParallelDataSet;
+import org.hiero.sketch.dataset.api.IDataSet;
+import org.hiero.sketch.dataset.api.ISketch;
+import org.hiero.sketch.dataset.api.PartialResult;
+import org.hiero.utils.Converters;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares combining the sketches of many small partitions in the root of a ParallelDataSet
+ * with combining them in a tree of nested ParallelDataSets.
+ */
+public class TreeCombinePerfTest {
+    private static final int buckets = 1000;
+    private static final int partSize = 100;
+
+    /**
+     * A histogram of integers; like Histogram1D.union, add allocates a new histogram.
+     * It also measures the time spent adding.
+     */
+    private static class Histogram implements ISketch<int[], long[]> {
+        final AtomicLong addNanos = new AtomicLong();
+
+        @Override
+        public long[] zero() {
+            return new long[buckets];
+        }
+
+        @Override
+        public long[] add(@Nullable final long[] left, @Nullable final long[] right) {
+            final long start = System.nanoTime();
+            final long[] result = new long[buckets];
+            for (int i = 0; i < buckets; i++)
+                result[i] = Converters.checkNull(left)[i] + Converters.checkNull(right)[i];
+            this.addNanos.addAndGet(System.nanoTime() - start);
+            return result;
+        }
+
+        @Override
+        public long[] create(@Nullable final int[] data) {
+            final long[] result = new long[buckets];
+            for (int d : Converters.checkNull(data))
+                result[d % buckets]++;
+            return result;
+        }
+    }
+
+    private static ParallelDataSet<int[]> createDataSet(final int parts) {
+        final List<IDataSet<int[]>> l = new ArrayList<IDataSet<int[]>>(parts);
+        for (int j = 0; j < parts; j++) {
+            final int[] data = new int[partSize];
+            for (int i = 0; i < partSize; i++)
+                data[i] = (j * partSize) + i;
+            l.add(new LocalDataSet<int[]>(data));
+        }
+        return new ParallelDataSet<int[]>(l);
+    }
+
+    @Test
+    public void testTreeCombine() {
+        final ParallelDataSet<int[]> data = createDataSet(100);
+        final long[] flat = data.blockingSketch(new Histogram());
+        data.setFanIn(4);
+        final long[] tree = data.blockingSketch(new Histogram());
+        Assert.assertArrayEquals(flat, tree);
+        // All the work is reported done.
+        final double done = data.sketch(new Histogram())
+                                .map(p -> p.deltaDone)
+                                .reduce(0.0, Double::sum)
+                                .toBlocking().single();
+        Assert.assertEquals(1.0, done, 1e-9);
+        for (PartialResult<long[]> p : data.sketch(new Histogram()).toBlocking().toIterable())
+            Assert.assertTrue(p.deltaDone >= 0);
+    }
+
+    @Test
+    public void testTreeCombinePerf() {
+        for (final int parts : new int[] { 1000, 10000 }) {
+            final ParallelDataSet<int[]> data = createDataSet(parts);
+            for (final int fanIn : new int[] { 0, 32 }) {
+                data.setFanIn(fanIn);
+                for (int run = 0; run < 3; run++) {
+                    final Histogram sketch = new Histogram();
+                    final long start = System.nanoTime();
+                    final long[] result = data.blockingSketch(sketch);
+                    final long elapsed = System.nanoTime() - start;
+                    Assert.assertEquals((parts * partSize) / buckets, result[0]);
+                    System.out.println(parts + " partitions, fan-in " + fanIn + ": " +
+                            (elapsed / 1000000) + " ms end to end, " +
+                            (sketch.addNanos.get() / 1000000) + " ms adding");
+                }
+            }
+        }
+    }
+}
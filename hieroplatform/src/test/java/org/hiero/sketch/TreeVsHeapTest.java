@@ -19,10 +19,15 @@
 package org.hiero.sketch;
 
 import org.hiero.sketch.spreadsheet.HeapTopK;
+import org.hiero.sketch.spreadsheet.IntTopK;
 import org.hiero.sketch.spreadsheet.TreeTopK;
 import org.hiero.utils.Randomness;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Map;
+import java.util.SortedMap;
+
 public class TreeVsHeapTest {
     private final int inpSize = 1000;
     private final int[] randInp = new int[this.inpSize];
@@ -54,4 +59,31 @@ public class TreeVsHeapTest {
             PerfRegressionTest.comparePerf(" Using Tree: ", endTime - startTime);
         }
     }
+
+    @Test
+    public void IntTopKMatchesTree() {
+        final int[] values = new int[100000];
+        for (int j = 0; j < values.length; j++)
+            values[j] = this.rn.nextInt(5000);
+        for (final int maxSize : new int[] { 1, 20, 1000, 10000 }) {
+            final TreeTopK<Integer> tree = new TreeTopK<Integer>(maxSize,
+                    (a, b) -> Integer.compare(values[a], values[b]));
+            final IntTopK primitive = new IntTopK(maxSize,
+                    (a, b) -> Integer.compare(values[a], values[b]));
+            for (int j = 0; j < values.length; j++) {
+                tree.push(j);
+                primitive.push(j);
+            }
+            final SortedMap<Integer, Integer> expected = tree.getTopK();
+            final int[] rows = primitive.getRows();
+            final int[] counts = primitive.getCounts();
+            Assert.assertEquals(expected.size(), rows.length);
+            int k = 0;
+            for (final Map.Entry<Integer, Integer> e : expected.entrySet()) {
+                Assert.assertEquals(values[e.getKey()], values[rows[k]]);
+                Assert.assertEquals(e.getValue().intValue(), counts[k]);
+                k++;
+            }
+        }
+    }
 }
@@ -17,6 +17,7 @@
 
 package org.hiero;
 
+import org.hiero.sketch.dataset.api.ICostEstimate;
 import org.hiero.sketch.storage.CsvFileReader;
 import org.hiero.sketch.table.Schema;
 import org.hiero.sketch.table.api.ITable;
@@ -26,8 +27,9 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 
-public class CsvFileObject {
+public class CsvFileObject implements ICostEstimate {
     private final Path dataPath;
     @Nullable
     private final Path schemaPath;
@@ -55,6 +57,39 @@ public class CsvFileObject {
         return Converters.checkNull(tbl);
     }
 
+    /**
+     * @return A key which identifies the file and its contents: the path, length and last
+     * modification time of the data file and of the schema file.
+     */
+    Object getFileKey() {
+        return Arrays.asList(getFileKey(this.dataPath), getFileKey(this.schemaPath));
+    }
+
+    @Nullable
+    private static Object getFileKey(@Nullable Path path) {
+        if (path == null)
+            return null;
+        try {
+            return Arrays.asList(path.toAbsolutePath().toString(), Files.size(path),
+                    Files.getLastModifiedTime(path).toMillis());
+        } catch (IOException e) {
+            // Loading the file will report the error.
+            return Arrays.asList(path.toAbsolutePath().toString(), -1L, -1L);
+        }
+    }
+
+    /**
+     * The size of the file in bytes; reading and parsing it dominates the cost.
+     */
+    @Override
+    public long getCostEstimate() {
+        try {
+            return Files.size(this.dataPath);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
     @Override
     public String toString() {
         return "CsvFile " + this.dataPath.toString();
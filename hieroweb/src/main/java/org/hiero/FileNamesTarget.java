@@ -23,13 +23,14 @@ import org.hiero.sketch.table.api.ITable;
 
 import javax.websocket.Session;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.function.Function;
 import java.util.logging.Level;
 
 public class FileNamesTarget extends RpcTarget {
     private final IDataSet<CsvFileObject> files;
 
-    class LoadFileMapper implements IMap<CsvFileObject, ITable> {
+    static class LoadFileMapper implements IMap<CsvFileObject, ITable> {
         @Override
         public ITable apply(CsvFileObject csvFileObject) {
             try {
@@ -39,6 +40,16 @@ public class FileNamesTarget extends RpcTarget {
                 throw new RuntimeException(e);
             }
         }
+
+        /**
+         * Loading is cached, so loading the same files again does not parse them again.
+         * The key includes the length and modification time of the file, so a modified
+         * file is parsed again.
+         */
+        @Override
+        public Object getCacheKey(CsvFileObject csvFileObject) {
+            return Arrays.asList(LoadFileMapper.class, csvFileObject.getFileKey());
+        }
     }
 
     FileNamesTarget(IDataSet<CsvFileObject> files) {
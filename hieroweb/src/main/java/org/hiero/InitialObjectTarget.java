@@ -58,7 +58,9 @@ public class InitialObjectTarget extends RpcTarget {
             logger.log(Level.INFO, "Added " + toString());
         });
 
-        IDataSet<CsvFileObject> result = new ParallelDataSet<CsvFileObject>(fileNames);
+        ParallelDataSet<CsvFileObject> result = new ParallelDataSet<CsvFileObject>(fileNames);
+        // Data sets mapped from this one inherit the fan-in.
+        result.setFanIn(ParallelDataSet.defaultFanIn);
         /*
         CsvFileObject file = new CsvFileObject(
                 Paths.get(dataFolder, smallFile),
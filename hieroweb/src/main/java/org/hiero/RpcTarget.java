@@ -24,12 +24,14 @@ import org.hiero.utils.Converters;
 import rx.Observable;
 import rx.Observer;
 import rx.Subscription;
+import rx.schedulers.Schedulers;
 
 import javax.annotation.Nullable;
 import javax.websocket.Session;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -219,10 +221,13 @@ public abstract class RpcTarget {
     <T, R extends IJson> void
     runSketch(IDataSet<T> data, ISketch<T, R> sketch,
               RpcRequest request, Session session) {
-        // Run the sketch
-        Observable<PartialResult<R>> sketches = data.sketch(sketch);
         // Knows how to add partial results
         PartialResultMonoid<R> prm = new PartialResultMonoid<R>(sketch);
+        // Run the sketch; the partial results produced while a reply is being sent are
+        // added up, so a slow client does not make results accumulate on the server.
+        Observable<PartialResult<R>> sketches = data.sketch(sketch)
+                .lift(new BundleOperator<R>(prm, 0, TimeUnit.MILLISECONDS, Schedulers.computation()))
+                .observeOn(Schedulers.io(), 1);
         // Prefix sum of the partial results
         Observable<PartialResult<R>> add = sketches.scan(prm::add);
         // Send the partial results back
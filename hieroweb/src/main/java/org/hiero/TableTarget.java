@@ -17,10 +17,9 @@
 
 package org.hiero;
 
-import org.hiero.sketch.dataset.ConcurrentSketch;
-import org.hiero.sketch.dataset.TripleSketch;
 import org.hiero.sketch.dataset.api.IDataSet;
 import org.hiero.sketch.spreadsheet.*;
+import org.hiero.sketch.table.FilterExpression;
 import org.hiero.sketch.table.RecordOrder;
 import org.hiero.sketch.table.TableFilter;
 import org.hiero.sketch.table.api.IColumn;
@@ -30,7 +29,11 @@ import org.hiero.utils.Converters;
 import javax.annotation.Nullable;
 import javax.websocket.Session;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Function;
+import java.util.function.IntPredicate;
 
 public final class TableTarget extends RpcTarget {
     private final IDataSet<ITable> table;
@@ -74,8 +77,8 @@ public final class TableTarget extends RpcTarget {
         Hist1DLightSketch cdf = new Hist1DLightSketch(cdfBuckets, info.columnName, null);
         BucketsDescriptionEqSize buckets = new BucketsDescriptionEqSize(info.min, info.max, info.bucketCount);
         Hist1DSketch sk = new Hist1DSketch(buckets, info.columnName, null);
-        ConcurrentSketch<ITable, Histogram1DLight, Histogram1D> csk =
-                new ConcurrentSketch<ITable, Histogram1DLight, Histogram1D>(cdf, sk);
+        ConcurrentBatchSketch<Histogram1DLight, Histogram1D> csk =
+                new ConcurrentBatchSketch<Histogram1DLight, Histogram1D>(cdf, sk);
         this.runSketch(this.table, csk, request, session);
     }
 
@@ -106,8 +109,8 @@ public final class TableTarget extends RpcTarget {
                 info.second.min, info.second.max, info.second.bucketCount);
         Hist1DSketch sk2 = new Hist1DSketch(buckets2, info.second.columnName, null);
 
-        TripleSketch<ITable, Histogram1DLight, Histogram1D, Histogram1D> csk =
-                new TripleSketch<ITable, Histogram1DLight, Histogram1D, Histogram1D>(cdf, sk1, sk2);
+        TripleBatchSketch<Histogram1DLight, Histogram1D, Histogram1D> csk =
+                new TripleBatchSketch<Histogram1DLight, Histogram1D, Histogram1D>(cdf, sk1, sk2);
         this.runSketch(this.table, csk, request, session);
     }
 
@@ -122,8 +125,8 @@ public final class TableTarget extends RpcTarget {
         // TODO: create a string converter if necessary
         BasicColStatSketch sk1 = new BasicColStatSketch(cols.col1, null, 0, 1.0);
         BasicColStatSketch sk2 = new BasicColStatSketch(cols.col2, null, 0, 1.0);
-        ConcurrentSketch<ITable, BasicColStats, BasicColStats> csk =
-                new ConcurrentSketch<>(sk1, sk2);
+        ConcurrentBatchSketch<BasicColStats, BasicColStats> csk =
+                new ConcurrentBatchSketch<>(sk1, sk2);
         this.runSketch(this.table, csk, request, session);
     }
 
@@ -135,6 +138,41 @@ public final class TableTarget extends RpcTarget {
         this.runSketch(this.table, sk, request, session);
     }
 
+    @HieroRpc
+    void quantiles(RpcRequest request, Session session) {
+        String column = request.parseArgs(String.class);
+        NumericQuantileSketch sk = new NumericQuantileSketch(column, null);
+        this.runSketch(this.table, sk, request, session);
+    }
+
+    @HieroRpc
+    void distinctCount(RpcRequest request, Session session) {
+        String column = request.parseArgs(String.class);
+        DistinctCountSketch sk = new DistinctCountSketch(column);
+        this.runSketch(this.table, sk, request, session);
+    }
+
+    static class GroupByArgs implements Serializable {
+        @Nullable
+        String[] keyColumns;
+        @Nullable
+        String[] valueColumns;
+        int maxGroups = GroupBySketch.defaultMaxGroups;
+    }
+
+    @HieroRpc
+    void groupBy(RpcRequest request, Session session) {
+        GroupByArgs args = request.parseArgs(GroupByArgs.class);
+        String[] values = args.valueColumns == null ? new String[0] : args.valueColumns;
+        GroupBySketch sk = new GroupBySketch(Arrays.asList(Converters.checkNull(args.keyColumns)),
+                Arrays.asList(values), args.maxGroups);
+        this.runSketch(this.table, sk, request, session);
+    }
+
+    /**
+     * Selects the rows where a numeric column is between min and max.  Rows are converted
+     * with asDouble and no string converter, so string columns are rejected.
+     */
     static class RangeFilter implements TableFilter, Serializable {
         final ColumnAndRange args;
         @Nullable
@@ -145,26 +183,100 @@ public final class TableTarget extends RpcTarget {
             this.column = null;
         }
 
+        IColumn getColumn(ITable table) {
+            IColumn col = Converters.checkNull(table.getColumn(this.args.columnName));
+            if (col.getDescription().kind.isObject())
+                throw new IllegalArgumentException("Cannot filter a range of column " +
+                        this.args.columnName + " of kind " + col.getDescription().kind);
+            return col;
+        }
+
         @Override
         public void setTable(ITable table) {
-            IColumn col = table.getColumn(this.args.columnName);
-            this.column = Converters.checkNull(col);
+            this.column = this.getColumn(table);
         }
 
         public boolean test(int rowIndex) {
             if (Converters.checkNull(this.column).isMissing(rowIndex))
                 return false;
-            // TODO: use a proper string converter
             double d = this.column.asDouble(rowIndex, null);
             return this.args.min <= d && d <= this.args.max;
         }
+
+        @Override
+        public IntPredicate getPredicate(ITable table) {
+            return this.getColumn(table).getRangePredicate(this.args.min, this.args.max, null);
+        }
     }
 
     @HieroRpc
     void filterRange(RpcRequest request, Session session) {
         ColumnAndRange info = request.parseArgs(ColumnAndRange.class);
         RangeFilter filter = new RangeFilter(info);
-        FilterMap fm = new FilterMap(filter);
+        // Equal arguments describe equivalent filters, so results can be cached.
+        FilterMap fm = new FilterMap(filter, Arrays.asList("filterRange", request.arguments));
+        Function<IDataSet<ITable>, RpcTarget> factory = TableTarget::new;
+        this.runMap(this.table, fm, factory, request, session);
+    }
+
+    /**
+     * JSON description of a FilterExpression sent by the client.  The op field selects the
+     * expression: "range" (min, max), "compare" (comparison, value), "in" (values),
+     * "prefix" (prefix), "missing", and "and", "or", "not" (children).
+     */
+    static class FilterDescription implements Serializable {
+        String op = "";
+        String columnName = "";
+        double min;
+        double max;
+        String comparison = "";
+        double value;
+        @Nullable
+        String[] values;
+        String prefix = "";
+        @Nullable
+        FilterDescription[] children;
+
+        List<FilterExpression> childExpressions() {
+            List<FilterExpression> result = new ArrayList<FilterExpression>();
+            for (FilterDescription child : Converters.checkNull(this.children))
+                result.add(child.toExpression());
+            return result;
+        }
+
+        FilterExpression toExpression() {
+            switch (this.op) {
+                case "range":
+                    return new FilterExpression.Range(this.columnName, this.min, this.max);
+                case "compare":
+                    return new FilterExpression.Compare(this.columnName,
+                            FilterExpression.Comparison.fromSymbol(this.comparison), this.value);
+                case "in":
+                    return new FilterExpression.In(this.columnName, Converters.checkNull(this.values));
+                case "prefix":
+                    return new FilterExpression.Prefix(this.columnName, this.prefix);
+                case "missing":
+                    return new FilterExpression.Missing(this.columnName);
+                case "and":
+                    return new FilterExpression.And(this.childExpressions());
+                case "or":
+                    return new FilterExpression.Or(this.childExpressions());
+                case "not":
+                    return new FilterExpression.Not(this.childExpressions().get(0));
+                default:
+                    throw new IllegalArgumentException("Unknown filter operation " + this.op);
+            }
+        }
+    }
+
+    /**
+     * Filters the table with an expression; a whole chain of drill-down filters can be
+     * sent as a single "and" expression.
+     */
+    @HieroRpc
+    void filter(RpcRequest request, Session session) {
+        FilterDescription info = request.parseArgs(FilterDescription.class);
+        FilterMap fm = new FilterMap(info.toExpression(), Arrays.asList("filter", request.arguments));
         Function<IDataSet<ITable>, RpcTarget> factory = TableTarget::new;
         this.runMap(this.table, fm, factory, request, session);
     }
@@ -28,6 +28,20 @@ import {ScaleLinear, ScaleTime} from "d3-scale";
 import {ContextMenu, DropDownMenu} from "./menu";
 import {Converters, Pair} from "./util";
 
+// same as Java class TableTarget.FilterDescription; op is one of
+// "range", "compare", "in", "prefix", "missing", "and", "or", "not"
+export interface FilterDescription {
+    op: string;
+    columnName?: string;
+    min?: number;
+    max?: number;
+    comparison?: string;
+    value?: number;
+    values?: string[];
+    prefix?: string;
+    children?: FilterDescription[];
+}
+
 // same as a Java class
 interface Bucket1D {
     minObject: any;
@@ -441,14 +455,13 @@ export class Histogram extends RemoteObject
             max = Converters.doubleFromDate(<Date>x1);
         } // TODO: handle more types
 
-        let range = {
+        let range: FilterDescription = {
+            op: "range",
             min: Math.min(min, max),
             max: Math.max(min, max),
-            columnName: this.currentData.description.name,
-            width: this.chartResolution.width,
-            height: this.chartResolution.height
+            columnName: this.currentData.description.name
         };
-        let rr = this.createRpcRequest("filterRange", range);
+        let rr = this.createRpcRequest("filter", range);
         let filterReceiver = new FilterReceiver(this.currentData.description, this.page, rr);
         rr.invoke(filterReceiver);
     }